@@ -0,0 +1,35 @@
+package game.bench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Chooses which cells to empty so that a board is filled to a given level.
+ */
+final class BoardFill {
+
+    private BoardFill() {
+    }
+
+    /**
+     * Returns random cells of a board whose removal leaves the given fraction of stones.
+     *
+     * @param size the size of the board
+     * @param fill the fraction of the cells that should keep their stone
+     * @param random the source of randomness
+     * @return the {@code {row, col}} pairs of the cells to empty
+     */
+    static List<int[]> cellsToEmpty(int size, double fill, Random random) {
+        List<int[]> cells = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                cells.add(new int[] {row, col});
+            }
+        }
+        Collections.shuffle(cells, random);
+        int remove = (int) Math.round(cells.size() * (1 - fill));
+        return cells.subList(0, remove);
+    }
+}
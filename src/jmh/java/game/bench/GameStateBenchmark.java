@@ -0,0 +1,134 @@
+package game.bench;
+
+import game.GameState;
+import game.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the hot paths of {@link GameState} on boards of different sizes
+ * and fill levels. Each invocation works on the next of a fixed set of
+ * precomputed queries, so the results do not depend on one lucky position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"4", "8", "12", "16"})
+    private int size;
+
+    /**
+     * The fraction of the cells that still contain a stone.
+     */
+    @Param({"1.0", "0.5", "0.1"})
+    private double fill;
+
+    private GameState state;
+    private Position[] from;
+    private Position[] to;
+    private int[] moves;
+    private int moveCount;
+    private int next;
+
+    /**
+     * Creates the board and the queries.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        state = new GameState(size);
+        for (int[] cell : BoardFill.cellsToEmpty(size, fill, random)) {
+            Position p = new Position(cell[0], cell[1]);
+            state.makeMove(p, p);
+        }
+        if (!state.isPlayerOneTurn()) {
+            state.switchTurn();
+        }
+
+        from = new Position[QUERIES];
+        to = new Position[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int line = random.nextInt(size);
+            int a = random.nextInt(size);
+            int b = random.nextInt(size);
+            boolean isRow = random.nextBoolean();
+            from[i] = isRow ? new Position(line, a) : new Position(a, line);
+            to[i] = isRow ? new Position(line, b) : new Position(b, line);
+        }
+
+        moves = new int[state.maxMoveCount()];
+        moveCount = state.generateMoves(moves);
+    }
+
+    /**
+     * Returns the index of the next query.
+     *
+     * @return an index between 0 and {@code QUERIES - 1}
+     */
+    private int nextQuery() {
+        return next = (next + 1) & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public boolean isLegalMove() {
+        int i = nextQuery();
+        return state.isLegalMove(from[i], to[i]);
+    }
+
+    /**
+     * Makes a legal move and takes it back, so every invocation starts from the
+     * same position. Measures {@code makeMove} plus {@code unmakeMove}.
+     *
+     * @return the hash of the position after the move
+     */
+    @Benchmark
+    public long makeAndUnmakeMove() {
+        if (moveCount == 0) {
+            return state.getHash();
+        }
+        int move = moves[nextQuery() % moveCount];
+        state.makeMove(move);
+        long hash = state.getHash();
+        state.unmakeMove();
+        return hash;
+    }
+
+    @Benchmark
+    public boolean isGameOver() {
+        return state.isGameOver();
+    }
+
+    @Benchmark
+    public Object getStatus() {
+        return state.getStatus();
+    }
+
+    @Benchmark
+    public boolean isLegalPointMove() {
+        int i = nextQuery();
+        return state.isLegalPointMove(from[i].row(), from[i].col(), (i & 1) != 0, from[i].row() == to[i].row());
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        return state.generateMoves(moves);
+    }
+}
@@ -0,0 +1,136 @@
+package game.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the legacy {@code Model} class with the same sizes, fill levels
+ * and queries as {@link GameStateBenchmark}, for comparison.
+ *
+ * <p>{@code Model} is in the unnamed package, which cannot be imported, so it
+ * is called through method handles. The handles are constants, so the JIT
+ * compiler inlines them like direct calls.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    private static final MethodHandle NEW_MODEL;
+    private static final MethodHandle IS_MOVE_LEGAL;
+    private static final MethodHandle REMOVE_STONE;
+    private static final MethodHandle IS_GAME_OVER;
+    private static final MethodHandle GET_BOARD;
+
+    static {
+        try {
+            Class<?> model = Class.forName("Model");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            NEW_MODEL = lookup.findConstructor(model, MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class));
+            IS_MOVE_LEGAL = lookup.findVirtual(model, "isMoveLegal", MethodType.methodType(boolean.class, int.class, int.class, boolean.class, boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class, int.class, int.class, boolean.class, boolean.class));
+            REMOVE_STONE = lookup.findVirtual(model, "removeStone", MethodType.methodType(void.class, int.class, int.class))
+                    .asType(MethodType.methodType(void.class, Object.class, int.class, int.class));
+            IS_GAME_OVER = lookup.findVirtual(model, "isGameOver", MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+            GET_BOARD = lookup.findVirtual(model, "getBoard", MethodType.methodType(int[][].class))
+                    .asType(MethodType.methodType(int[][].class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"4", "8", "12", "16"})
+    private int size;
+
+    /**
+     * The fraction of the cells that still contain a stone.
+     */
+    @Param({"1.0", "0.5", "0.1"})
+    private double fill;
+
+    private Object model;
+    private int[][] board;
+    private int[] rows;
+    private int[] cols;
+    private int next;
+
+    /**
+     * Creates the model and the queries.
+     *
+     * @throws Throwable if a method of the model fails
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        Random random = new Random(42);
+        model = (Object) NEW_MODEL.invokeExact(size);
+        for (int[] cell : BoardFill.cellsToEmpty(size, fill, random)) {
+            REMOVE_STONE.invokeExact(model, cell[0], cell[1]);
+        }
+        board = (int[][]) GET_BOARD.invokeExact(model);
+
+        rows = new int[QUERIES];
+        cols = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            rows[i] = random.nextInt(size);
+            cols[i] = random.nextInt(size);
+        }
+    }
+
+    /**
+     * Returns the index of the next query.
+     *
+     * @return an index between 0 and {@code QUERIES - 1}
+     */
+    private int nextQuery() {
+        return next = (next + 1) & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public boolean isMoveLegal() throws Throwable {
+        int i = nextQuery();
+        return (boolean) IS_MOVE_LEGAL.invokeExact(model, rows[i], cols[i], (i & 1) != 0, (i & 2) != 0);
+    }
+
+    /**
+     * Removes a stone and puts it back, so every invocation starts from the
+     * same position.
+     *
+     * @return the previous content of the cell
+     * @throws Throwable if the model fails
+     */
+    @Benchmark
+    public int removeStone() throws Throwable {
+        int i = nextQuery();
+        int previous = board[rows[i]][cols[i]];
+        REMOVE_STONE.invokeExact(model, rows[i], cols[i]);
+        board[rows[i]][cols[i]] = previous;
+        return previous;
+    }
+
+    @Benchmark
+    public boolean isGameOver() throws Throwable {
+        return (boolean) IS_GAME_OVER.invokeExact(model);
+    }
+}
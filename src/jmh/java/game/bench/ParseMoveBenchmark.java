@@ -0,0 +1,36 @@
+package game.bench;
+
+import game.ConsoleGame;
+import game.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing console input with {@link ConsoleGame#parseMove(String)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseMoveBenchmark {
+
+    private final String[] inputs = {"0 0", " 3 2 ", "12  7", "1\t15"};
+    private int next;
+
+    @Benchmark
+    public Position parseMove() {
+        next = (next + 1) & 3;
+        return ConsoleGame.parseMove(inputs[next]);
+    }
+}
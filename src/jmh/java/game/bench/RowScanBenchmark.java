@@ -0,0 +1,80 @@
+package game.bench;
+
+import game.RowScanner;
+import game.RowScans;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and the vectorized {@link RowScanner} on rows of
+ * different lengths, to find the row length from which vectors pay off
+ * ({@link RowScans#VECTOR_MIN_LENGTH}). Every scan has to visit the whole row:
+ * the emptiness check finds the only stone in the last cell, the fullness
+ * check finds no empty cell.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class RowScanBenchmark {
+
+    @Param({"4", "8", "16", "24", "32", "48", "64", "128", "256", "1024"})
+    private int length;
+
+    @Param({"scalar", "vector"})
+    private String scanner;
+
+    private RowScanner rowScanner;
+    private int[] lastStone;
+    private int[] full;
+    private int[] target;
+    private long[] keys;
+    private int value;
+
+    /**
+     * Creates the rows and picks the scanner.
+     */
+    @Setup
+    public void setUp() {
+        rowScanner = scanner.equals("vector")
+                ? RowScans.vector().orElseThrow(() -> new IllegalStateException("jdk.incubator.vector is not available"))
+                : RowScans.scalar();
+        lastStone = new int[length];
+        lastStone[length - 1] = 1;
+        full = new int[length];
+        Arrays.fill(full, 1);
+        target = new int[length];
+        keys = new SplittableRandom(42).longs(length).toArray();
+    }
+
+    @Benchmark
+    public boolean isEmpty() {
+        return rowScanner.isEmpty(lastStone, 0, length);
+    }
+
+    @Benchmark
+    public boolean isFull() {
+        return rowScanner.isFull(full, 0, length);
+    }
+
+    @Benchmark
+    public long fill() {
+        value ^= 1;
+        return rowScanner.fill(target, 0, length, value, keys, 0);
+    }
+}
@@ -0,0 +1,84 @@
+import javafx.scene.Node;
+
+/**
+ * Displays the stones of the game board and reports the cells and lines the
+ * user clicks. The {@link Controller} talks to the board only through this
+ * interface, so the board can be drawn with one button per cell or on a
+ * single canvas.
+ */
+public interface BoardView {
+
+    /**
+     * Receives clicks on a cell of the board.
+     */
+    @FunctionalInterface
+    interface CellHandler {
+
+        /**
+         * Called when an enabled cell is clicked.
+         *
+         * @param row the row index of the cell
+         * @param col the column index of the cell
+         */
+        void cellClicked(int row, int col);
+    }
+
+    /**
+     * Receives clicks on a row or column selector.
+     */
+    @FunctionalInterface
+    interface LineHandler {
+
+        /**
+         * Called when a row or column selector is clicked.
+         *
+         * @param index the index of the row or column
+         */
+        void lineClicked(int index);
+    }
+
+    /**
+     * Gets the node that shows the board, if the view is not shown in nodes
+     * loaded from FXML.
+     *
+     * @return the node to put into the scene, or {@code null} if the view draws
+     * into the nodes it was created with
+     */
+    Node getNode();
+
+    /**
+     * Sets the handlers of clicks on the board.
+     *
+     * @param cellHandler receives clicks on enabled cells
+     * @param rowHandler receives clicks on row selectors
+     * @param colHandler receives clicks on column selectors
+     */
+    void setHandlers(CellHandler cellHandler, LineHandler rowHandler, LineHandler colHandler);
+
+    /**
+     * Shows a cell with or without a stone.
+     *
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @param alive true to show a stone, false to show a removed stone
+     */
+    void setCell(int row, int col, boolean alive);
+
+    /**
+     * Enables only the cells of one row or column and disables all others.
+     *
+     * @param row the row to keep enabled, or {@code -1} if a column is selected
+     * @param col the column to keep enabled, or {@code -1} if a row is selected
+     */
+    void restrictTo(int row, int col);
+
+    /**
+     * Enables all cells.
+     */
+    void enableAll();
+
+    /**
+     * Shows every cell with a stone and enables all cells.
+     */
+    void reset();
+}
@@ -0,0 +1,221 @@
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundImage;
+import javafx.scene.layout.BackgroundPosition;
+import javafx.scene.layout.BackgroundRepeat;
+import javafx.scene.layout.BackgroundSize;
+import javafx.scene.layout.GridPane;
+
+/**
+ * Shows the board with one {@link Button} per cell in a {@link GridPane}, with
+ * row and column selector buttons in two more grids. Suited to small boards;
+ * see {@link CanvasBoardView} for large ones.
+ *
+ * <p>The buttons are kept in a table indexed by row and column, and all cells
+ * share two immutable backgrounds, so updates touch only the cells that
+ * change and allocate nothing.</p>
+ */
+public class ButtonBoardView implements BoardView {
+
+    private final int size;
+    private final GridPane board;
+    private final GridPane rowButtons;
+    private final GridPane colButtons;
+    private final Button[][] cells;
+    private final Background aliveBackground;
+    private final Background deadBackground;
+    // row-major indices of the cells showing a removed stone
+    private final int[] deadCells;
+    private int deadCount;
+    // the line the enabled cells are restricted to, or -1 for both if all cells are enabled
+    private int restrictedRow = -1;
+    private int restrictedCol = -1;
+    private CellHandler cellHandler = (row, col) -> { };
+    private LineHandler rowHandler = row -> { };
+    private LineHandler colHandler = col -> { };
+
+    /**
+     * Creates the buttons of a board in the given grids.
+     *
+     * @param size the size of the board (size x size)
+     * @param board the grid of the cell buttons
+     * @param rowButtons the grid of the row selector buttons
+     * @param colButtons the grid of the column selector buttons
+     * @param aliveUnit the image of a cell with a stone
+     * @param deadUnit the image of a cell whose stone was removed
+     */
+    public ButtonBoardView(int size, GridPane board, GridPane rowButtons, GridPane colButtons, Image aliveUnit, Image deadUnit) {
+        this.size = size;
+        this.board = board;
+        this.rowButtons = rowButtons;
+        this.colButtons = colButtons;
+        cells = new Button[size][size];
+        deadCells = new int[size * size];
+        aliveBackground = createBackground(aliveUnit);
+        deadBackground = createBackground(deadUnit);
+        initializeBoard();
+        initializeRowButtons();
+        initializeColButtons();
+    }
+
+    /**
+     * Creates the background of a cell.
+     *
+     * @param image the image of the cell
+     * @return a background that scales the image to fit the cell
+     */
+    private static Background createBackground(Image image) {
+        return new Background(new BackgroundImage(image, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER, new BackgroundSize(100, 100, true, true, true, false)));
+    }
+
+    /**
+     * Initializes the game board with buttons.
+     */
+    private void initializeBoard() {
+        for (int i = 0; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                Button square = createBoardButton(i, j);
+                cells[i][j] = square;
+                board.add(square, j, i);
+            }
+        }
+    }
+
+    /**
+     * Initializes the row selection buttons.
+     */
+    private void initializeRowButtons() {
+        for (int i = 0; i < size; ++i) {
+            Button rowButton = createRowButton(i);
+            rowButtons.add(rowButton, 0, i);
+        }
+    }
+
+    /**
+     * Initializes the column selection buttons.
+     */
+    private void initializeColButtons() {
+        for (int j = 0; j < size; ++j) {
+            Button colButton = createColButton(j);
+            colButtons.add(colButton, j, 0);
+        }
+    }
+
+    /**
+     * Creates a button for the game board.
+     *
+     * @param row the row index of the button
+     * @param col the column index of the button
+     * @return the created button
+     */
+    private Button createBoardButton(int row, int col) {
+        Button btn = new Button();
+        btn.setPrefSize(100, 100); // Adjust the size of the buttons as needed
+        btn.setBackground(aliveBackground);
+        btn.setOnMouseClicked(event -> cellHandler.cellClicked(row, col));
+        return btn;
+    }
+
+    /**
+     * Creates a button for row selection.
+     *
+     * @param row the row index of the button
+     * @return the created button
+     */
+    private Button createRowButton(int row) {
+        Button btn = new Button("Row " + (row + 1));
+        btn.setOnMouseClicked(event -> rowHandler.lineClicked(row));
+        return btn;
+    }
+
+    /**
+     * Creates a button for column selection.
+     *
+     * @param col the column index of the button
+     * @return the created button
+     */
+    private Button createColButton(int col) {
+        Button btn = new Button("Col " + (col + 1));
+        btn.setOnMouseClicked(event -> colHandler.lineClicked(col));
+        return btn;
+    }
+
+    @Override
+    public Node getNode() {
+        return null;
+    }
+
+    @Override
+    public void setHandlers(CellHandler cellHandler, LineHandler rowHandler, LineHandler colHandler) {
+        this.cellHandler = cellHandler;
+        this.rowHandler = rowHandler;
+        this.colHandler = colHandler;
+    }
+
+    @Override
+    public void setCell(int row, int col, boolean alive) {
+        Button btn = cells[row][col];
+        Background background = alive ? aliveBackground : deadBackground;
+        if (btn.getBackground() == background) {
+            return;
+        }
+        btn.setBackground(background);
+        if (!alive) {
+            deadCells[deadCount++] = row * size + col;
+        } else {
+            // Rarely used, as reset() brings back all stones at once
+            int index = row * size + col;
+            for (int i = 0; i < deadCount; i++) {
+                if (deadCells[i] == index) {
+                    deadCells[i] = deadCells[--deadCount];
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void restrictTo(int selectedRow, int selectedCol) {
+        if (selectedRow == restrictedRow && selectedCol == restrictedCol) {
+            return;
+        }
+        boolean wasRestricted = restrictedRow >= 0 || restrictedCol >= 0;
+        restrictedRow = selectedRow;
+        restrictedCol = selectedCol;
+        for (int i = 0; i < size; ++i) {
+            Button[] row = cells[i];
+            for (int j = 0; j < size; ++j) {
+                boolean disable = i != selectedRow && j != selectedCol;
+                // Unrestricted cells are all enabled, so only cells to disable change
+                if (wasRestricted || disable) {
+                    row[j].setDisable(disable);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void enableAll() {
+        if (restrictedRow < 0 && restrictedCol < 0) {
+            return;
+        }
+        restrictedRow = -1;
+        restrictedCol = -1;
+        for (Button[] row : cells) {
+            for (Button btn : row) {
+                btn.setDisable(false);
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < deadCount; i++) {
+            cells[deadCells[i] / size][deadCells[i] % size].setBackground(aliveBackground);
+        }
+        deadCount = 0;
+        enableAll();
+    }
+}
@@ -0,0 +1,237 @@
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Draws the board on a single {@link Canvas}, so the scene graph has one node
+ * however large the board is. Row selectors run down the left edge and column
+ * selectors along the top edge of the canvas.
+ *
+ * <p>A canvas keeps its pixels between frames, so only cells that changed are
+ * drawn again. Changes mark cells dirty, and an {@link AnimationTimer} draws
+ * all dirty cells once on the next pulse and then stops, so any number of
+ * changes within a frame cost one repaint of the changed cells. Clicks are
+ * mapped to cells by dividing the click position by the cell size.</p>
+ */
+public class CanvasBoardView implements BoardView {
+
+    // width of the row selectors and height of the column selectors
+    private static final double HEADER = 28;
+    // cells smaller than this are drawn as plain squares instead of images
+    private static final double MIN_IMAGE_CELL = 24;
+    private static final Color ALIVE_COLOR = Color.web("#3b6e3b");
+    private static final Color DEAD_COLOR = Color.web("#3a3a3a");
+    private static final Color DISABLED_SHADE = Color.rgb(0, 0, 0, 0.55);
+    private static final Color GRID_COLOR = Color.rgb(0, 0, 0, 0.6);
+    private static final Color HEADER_COLOR = Color.rgb(20, 20, 20, 0.75);
+
+    private final int size;
+    private final double cell;
+    private final Canvas canvas;
+    private final GraphicsContext g;
+    private final Image aliveUnit;
+    private final Image deadUnit;
+    private final boolean[] alive;
+    private final boolean[] enabled;
+    private final boolean[] dirty;
+    // indices of the dirty cells, so a repaint visits only them
+    private final int[] dirtyCells;
+    private int dirtyCount;
+    private boolean repaintScheduled;
+    private final AnimationTimer repaint = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            paintDirtyCells();
+            stop();
+            repaintScheduled = false;
+        }
+    };
+    private CellHandler cellHandler = (row, col) -> { };
+    private LineHandler rowHandler = row -> { };
+    private LineHandler colHandler = col -> { };
+
+    /**
+     * Creates a canvas showing a full board.
+     *
+     * @param size the size of the board (size x size)
+     * @param boardPixels the width and height of the cells together, in pixels;
+     * each cell gets an equal whole number of pixels, at least 2
+     * @param aliveUnit the image of a cell with a stone
+     * @param deadUnit the image of a cell whose stone was removed
+     */
+    public CanvasBoardView(int size, double boardPixels, Image aliveUnit, Image deadUnit) {
+        this.size = size;
+        this.cell = Math.max(2, Math.floor(boardPixels / size));
+        this.aliveUnit = aliveUnit;
+        this.deadUnit = deadUnit;
+        alive = new boolean[size * size];
+        enabled = new boolean[size * size];
+        dirty = new boolean[size * size];
+        dirtyCells = new int[size * size];
+        canvas = new Canvas(HEADER + size * cell, HEADER + size * cell);
+        g = canvas.getGraphicsContext2D();
+        canvas.setOnMouseClicked(this::handleClick);
+        paintHeaders();
+        for (int i = 0; i < size * size; i++) {
+            alive[i] = true;
+            enabled[i] = true;
+            paintCell(i / size, i % size);
+        }
+    }
+
+    @Override
+    public Node getNode() {
+        return canvas;
+    }
+
+    @Override
+    public void setHandlers(CellHandler cellHandler, LineHandler rowHandler, LineHandler colHandler) {
+        this.cellHandler = cellHandler;
+        this.rowHandler = rowHandler;
+        this.colHandler = colHandler;
+    }
+
+    @Override
+    public void setCell(int row, int col, boolean isAlive) {
+        int index = row * size + col;
+        if (alive[index] != isAlive) {
+            alive[index] = isAlive;
+            markDirty(index);
+        }
+    }
+
+    @Override
+    public void restrictTo(int selectedRow, int selectedCol) {
+        for (int i = 0; i < size * size; i++) {
+            setEnabled(i, i / size == selectedRow || i % size == selectedCol);
+        }
+    }
+
+    @Override
+    public void enableAll() {
+        for (int i = 0; i < size * size; i++) {
+            setEnabled(i, true);
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < size * size; i++) {
+            if (!alive[i] || !enabled[i]) {
+                alive[i] = true;
+                enabled[i] = true;
+                markDirty(i);
+            }
+        }
+    }
+
+    private void setEnabled(int index, boolean isEnabled) {
+        if (enabled[index] != isEnabled) {
+            enabled[index] = isEnabled;
+            markDirty(index);
+        }
+    }
+
+    /**
+     * Marks a cell to be drawn on the next pulse.
+     *
+     * @param index the row-major index of the cell
+     */
+    private void markDirty(int index) {
+        if (!dirty[index]) {
+            dirty[index] = true;
+            dirtyCells[dirtyCount++] = index;
+        }
+        if (!repaintScheduled) {
+            repaintScheduled = true;
+            repaint.start();
+        }
+    }
+
+    /**
+     * Draws every dirty cell.
+     */
+    private void paintDirtyCells() {
+        for (int i = 0; i < dirtyCount; i++) {
+            int index = dirtyCells[i];
+            dirty[index] = false;
+            paintCell(index / size, index % size);
+        }
+        dirtyCount = 0;
+    }
+
+    /**
+     * Draws one cell.
+     *
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     */
+    private void paintCell(int row, int col) {
+        int index = row * size + col;
+        double x = HEADER + col * cell;
+        double y = HEADER + row * cell;
+        g.clearRect(x, y, cell, cell);
+        if (cell >= MIN_IMAGE_CELL) {
+            g.drawImage(alive[index] ? aliveUnit : deadUnit, x, y, cell, cell);
+        } else {
+            g.setFill(alive[index] ? ALIVE_COLOR : DEAD_COLOR);
+            g.fillRect(x, y, cell, cell);
+        }
+        if (!enabled[index]) {
+            g.setFill(DISABLED_SHADE);
+            g.fillRect(x, y, cell, cell);
+        }
+        if (cell >= 4) {
+            g.setStroke(GRID_COLOR);
+            g.strokeRect(x + 0.5, y + 0.5, cell - 1, cell - 1);
+        }
+    }
+
+    /**
+     * Draws the row and column selectors. Large boards label every few lines
+     * only, so the numbers do not overlap.
+     */
+    private void paintHeaders() {
+        g.setFill(HEADER_COLOR);
+        g.fillRect(0, 0, HEADER + size * cell, HEADER);
+        g.fillRect(0, HEADER, HEADER, size * cell);
+        g.setFill(Color.WHITE);
+        g.setFont(Font.font(Math.min(14, Math.max(9, cell * 0.6))));
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.CENTER);
+        int step = (int) Math.ceil(20 / cell);
+        for (int i = 0; i < size; i += step) {
+            String label = String.valueOf(i + 1);
+            g.fillText(label, HEADER + (i + 0.5) * cell, HEADER / 2);
+            g.fillText(label, HEADER / 2, HEADER + (i + 0.5) * cell);
+        }
+    }
+
+    /**
+     * Maps a click to a cell or selector by dividing its position by the cell size.
+     *
+     * @param event the click
+     */
+    private void handleClick(MouseEvent event) {
+        int col = (int) Math.floor((event.getX() - HEADER) / cell);
+        int row = (int) Math.floor((event.getY() - HEADER) / cell);
+        boolean inColumns = col >= 0 && col < size;
+        boolean inRows = row >= 0 && row < size;
+        if (inRows && inColumns) {
+            if (enabled[row * size + col]) {
+                cellHandler.cellClicked(row, col);
+            }
+        } else if (inRows && event.getX() < HEADER) {
+            rowHandler.lineClicked(row);
+        } else if (inColumns && event.getY() < HEADER) {
+            colHandler.lineClicked(col);
+        }
+    }
+}
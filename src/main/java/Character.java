@@ -3,6 +3,8 @@ import java.net.URL;
 public class Character {
     private final String name;
     private final String imagePath;
+    // the result of the first getImagePath() call, as the resources cannot change
+    private String resolvedImagePath;
 
     public Character(String name, String imagePath) {
         this.name = name;
@@ -14,6 +16,13 @@ public class Character {
     }
 
     public String getImagePath() {
+        if (resolvedImagePath == null) {
+            resolvedImagePath = resolveImagePath();
+        }
+        return resolvedImagePath;
+    }
+
+    private String resolveImagePath() {
         if (imagePath == null || imagePath.isEmpty()) {
             return getDefaultImagePath();
         } else if (resourceExists(imagePath)) {
@@ -2,21 +2,20 @@ import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * Controller class for the character selection scene in the game.
  * Manages the selection of characters for both players and transitions to the game scene.
  */
 public class CharacterSelectionController {
-    private final Character[] characters = {
+    // shared by every selection screen, so each character resolves its image path once
+    private static final Character[] CHARACTERS = {
             new Character("Abaddon the Despoiler", "/CharacterImages/40K-Gallery-0231.jpg"),
             new Character("Ahriman", "/CharacterImages/ahriman.jpg"),
             new Character("Farseer Eldrad Ulthran", "/CharacterImages/Eldrad_Ulthran-0.jpg"),
@@ -59,25 +58,39 @@ public class CharacterSelectionController {
         instructionLabel.setText("Player 1, choose your character");
     }
 
+    /**
+     * Clears the choices of an earlier round, so the scene can be shown again.
+     */
+    public void reset() {
+        for (Button characterButton : characterButtons.values()) {
+            characterButton.setDisable(false);
+        }
+        playerOneCharacter = null;
+        playerTwoCharacter = null;
+        isPlayerOneTurn = true;
+        instructionLabel.setText("Player 1, choose your character");
+    }
+
     /**
      * Initializes the character grid with character images and names.
      * Creates buttons for each character and adds them to the grid.
      */
     private void initializeCharacterGrid() {
         int numCols = 5; // Number of columns in the grid
-        int numRows = (int) Math.ceil((double) characters.length / numCols); // Number of rows based on the number of characters
+        int numRows = (int) Math.ceil((double) CHARACTERS.length / numCols); // Number of rows based on the number of characters
         int index = 0;
         for (int i = 0; i < numRows; i++) {
             for (int j = 0; j < numCols; j++) {
-                if (index >= characters.length) {
+                if (index >= CHARACTERS.length) {
                     // If there are no more characters, break out of the loop
                     break;
                 }
-                Character character = characters[index];
+                Character character = CHARACTERS[index];
 
-                // Load image for the character
-                ImageView imageView = new ImageView(new Image(Objects.requireNonNull(getClass().getResourceAsStream(character.getImagePath()))));
-                imageView.setFitHeight(150); // Set the height of the image
+                // Show the cached portrait, or a placeholder while it loads in the background
+                ImageView imageView = new ImageView();
+                PortraitCache.show(imageView, character.getImagePath());
+                imageView.setFitHeight(PortraitCache.PORTRAIT_HEIGHT); // Set the height of the image
                 imageView.setPreserveRatio(true);
 
                 // Create a label for the character name
@@ -1,24 +1,42 @@
 import game.GameState;
+import game.Moves;
 import game.Position;
+import game.ai.MctsPlayer;
+import game.metrics.LatencyHistogram;
+import game.metrics.MetricsRegistry;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
-import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
-import javafx.scene.layout.Background;
-import javafx.scene.layout.BackgroundImage;
-import javafx.scene.layout.BackgroundPosition;
-import javafx.scene.layout.BackgroundRepeat;
-import javafx.scene.layout.BackgroundSize;
+import javafx.scene.layout.VBox;
 import javafx.scene.image.Image;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Controller class for managing the game state and user interactions in the JavaFX application.
+ * Closing it stops the worker threads of the computer opponent.
  */
-public class Controller {
-    private final GameState model = new GameState(4);
+public class Controller implements AutoCloseable {
+    // time the computer opponent may think about each move
+    private static final long COMPUTER_MOVE_MILLIS = 50;
+    // the board size, e.g. -Dboard.size=64
+    private static final int BOARD_SIZE = Integer.getInteger("board.size", 4);
+    // boards larger than this are drawn on a canvas unless -Dboard.renderer says otherwise
+    private static final int MAX_BUTTON_BOARD_SIZE = 16;
+    private static final double CANVAS_BOARD_PIXELS = 480;
+
+    private static final LatencyHistogram CLICK_TIME = MetricsRegistry.getDefault().histogram("ui_click_seconds");
+    private static final LongAdder GAMES_FINISHED = MetricsRegistry.getDefault().counter("ui_games_finished_total");
+
+    private final GameState model = new GameState(BOARD_SIZE);
+    private BoardView boardView;
     private boolean isRowSelected = false;
     private boolean isColSelected = false;
     private int selectedRow = -1;
@@ -26,6 +44,14 @@ public class Controller {
     private boolean moveMade = false;
     private String playerOneCharacter;
     private String playerTwoCharacter;
+    private MctsPlayer computerPlayer;
+    private boolean computerThinking = false;
+
+    @FXML
+    private BorderPane gamePane;
+
+    @FXML
+    private VBox header;
 
     @FXML
     private GridPane board;
@@ -39,11 +65,17 @@ public class Controller {
     @FXML
     private Label playerTurnLabel;
 
-    private final Image aliveUnit = new Image(Objects.requireNonNull(getClass().getResourceAsStream("/SM.png")));
-    private final Image deadUnit = new Image(Objects.requireNonNull(getClass().getResourceAsStream("/DeadSM.png")));
+    @FXML
+    private CheckBox computerOpponentCheckBox;
+
+    // loaded once and shared by every game, as images are immutable
+    private static final Image ALIVE_UNIT = new Image(Objects.requireNonNull(Controller.class.getResourceAsStream("/SM.png")));
+    private static final Image DEAD_UNIT = new Image(Objects.requireNonNull(Controller.class.getResourceAsStream("/DeadSM.png")));
 
     /**
-     * Initializes the controller with player character names and sets up the board.
+     * Initializes the controller with player character names and sets up the
+     * board. The scene is reused between games, so on later calls the board
+     * is set back to a new game instead.
      *
      * @param playerOneCharacter the character representing Player One
      * @param playerTwoCharacter the character representing Player Two
@@ -52,83 +84,70 @@ public class Controller {
         this.playerOneCharacter = playerOneCharacter;
         this.playerTwoCharacter = playerTwoCharacter;
         playerTurnLabel.setText(playerOneCharacter + "'s Turn");
-        initializeBoard();
-        initializeRowButtons();
-        initializeColButtons();
-    }
-
-    /**
-     * Initializes the game board with buttons.
-     */
-    private void initializeBoard() {
-        int size = model.getBoard().length;
-        for (int i = 0; i < size; ++i) {
-            for (int j = 0; j < size; ++j) {
-                Button square = createBoardButton(i, j);
-                board.add(square, j, i);
-            }
+        if (boardView == null) {
+            initializeBoard();
+        } else {
+            startNewGame();
         }
     }
 
     /**
-     * Initializes the row selection buttons.
+     * Sets the board, the turn and the selection back to the start of a game.
      */
-    private void initializeRowButtons() {
-        int size = model.getBoard().length;
-        for (int i = 0; i < size; ++i) {
-            Button rowButton = createRowButton(i);
-            rowButtons.add(rowButton, 0, i);
+    private void startNewGame() {
+        model.resetBoard();
+        if (!model.isPlayerOneTurn()) {
+            model.switchTurn();
         }
+        model.resetKeyTurn();
+        isRowSelected = false;
+        isColSelected = false;
+        selectedRow = -1;
+        selectedCol = -1;
+        moveMade = false;
+        boardView.reset();
     }
 
     /**
-     * Initializes the column selection buttons.
+     * Creates the view of the board: one button per cell for small boards, a
+     * single canvas for large ones. {@code -Dboard.renderer=canvas} or
+     * {@code -Dboard.renderer=buttons} overrides the choice.
      */
-    private void initializeColButtons() {
-        int size = model.getBoard().length;
-        for (int j = 0; j < size; ++j) {
-            Button colButton = createColButton(j);
-            colButtons.add(colButton, j, 0);
+    private void initializeBoard() {
+        String renderer = System.getProperty("board.renderer", BOARD_SIZE > MAX_BUTTON_BOARD_SIZE ? "canvas" : "buttons");
+        if (renderer.equals("canvas")) {
+            boardView = new CanvasBoardView(BOARD_SIZE, CANVAS_BOARD_PIXELS, ALIVE_UNIT, DEAD_UNIT);
+            // The canvas draws its own row and column selectors
+            gamePane.setCenter(boardView.getNode());
+            gamePane.setLeft(null);
+            header.getChildren().remove(colButtons);
+        } else {
+            boardView = new ButtonBoardView(BOARD_SIZE, board, rowButtons, colButtons, ALIVE_UNIT, DEAD_UNIT);
         }
+        boardView.setHandlers(
+                (row, col) -> timed("cell " + row + " " + col, () -> handleBoardButtonClick(row, col)),
+                row -> timed("row " + row, () -> handleRowButtonClick(row)),
+                col -> timed("column " + col, () -> handleColButtonClick(col)));
     }
 
     /**
-     * Creates a button for the game board.
+     * Runs a click handler, recording its duration as a {@link UiActionEvent}
+     * and in the metrics.
      *
-     * @param row the row index of the button
-     * @param col the column index of the button
-     * @return the created button
+     * @param action a description of what was clicked
+     * @param handler the handler of the click
      */
-    private Button createBoardButton(int row, int col) {
-        Button btn = new Button();
-        btn.setPrefSize(100, 100); // Adjust the size of the buttons as needed
-        btn.setBackground(new Background(new BackgroundImage(aliveUnit, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER, new BackgroundSize(100, 100, true, true, true, false))));
-        btn.setOnMouseClicked(event -> handleBoardButtonClick(row, col));
-        return btn;
-    }
-
-    /**
-     * Creates a button for row selection.
-     *
-     * @param row the row index of the button
-     * @return the created button
-     */
-    private Button createRowButton(int row) {
-        Button btn = new Button("Row " + (row + 1));
-        btn.setOnMouseClicked(event -> handleRowButtonClick(row));
-        return btn;
-    }
-
-    /**
-     * Creates a button for column selection.
-     *
-     * @param col the column index of the button
-     * @return the created button
-     */
-    private Button createColButton(int col) {
-        Button btn = new Button("Col " + (col + 1));
-        btn.setOnMouseClicked(event -> handleColButtonClick(col));
-        return btn;
+    private static void timed(String action, Runnable handler) {
+        UiActionEvent event = new UiActionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            handler.run();
+        } finally {
+            CLICK_TIME.record(System.nanoTime() - start);
+            event.action = action;
+            event.commit();
+        }
     }
 
     /**
@@ -138,10 +157,13 @@ public class Controller {
      * @param col the column index of the clicked button
      */
     private void handleBoardButtonClick(int row, int col) {
+        if (computerThinking) {
+            return;
+        }
         Position pos = new Position(row, col);
         if ((isRowSelected || isColSelected) && model.isLegalPointMove(pos.row(), pos.col(), moveMade, isRowSelected)) {
             model.makeMove(pos, pos); // Making the move from and to the same position to remove the stone
-            updateBoard(pos);
+            boardView.setCell(pos.row(), pos.col(), false);
             moveMade = true;
             checkGameOver();
             model.switchTurn();
@@ -154,12 +176,12 @@ public class Controller {
      * @param row the index of the clicked row button
      */
     private void handleRowButtonClick(int row) {
-        if (!moveMade) {
+        if (!moveMade && !computerThinking) {
             isRowSelected = true;
             isColSelected = false;
             selectedRow = row;
             selectedCol = -1;
-            disableOtherButtons();
+            boardView.restrictTo(selectedRow, selectedCol);
         }
     }
 
@@ -169,12 +191,12 @@ public class Controller {
      * @param col the index of the clicked column button
      */
     private void handleColButtonClick(int col) {
-        if (!moveMade) {
+        if (!moveMade && !computerThinking) {
             isRowSelected = false;
             isColSelected = true;
             selectedCol = col;
             selectedRow = -1;
-            disableOtherButtons();
+            boardView.restrictTo(selectedRow, selectedCol);
         }
     }
 
@@ -183,6 +205,16 @@ public class Controller {
      */
     @FXML
     private void handleEndTurn() {
+        timed("end turn", this::endTurn);
+    }
+
+    /**
+     * Ends the current turn, and lets the computer move if it plays next.
+     */
+    private void endTurn() {
+        if (computerThinking) {
+            return;
+        }
         model.switchTurn();
         model.resetKeyTurn();
         isRowSelected = false;
@@ -190,38 +222,65 @@ public class Controller {
         selectedRow = -1;
         selectedCol = -1;
         moveMade = false;
-        enableAllButtons();
+        boardView.enableAll();
         updateTurnLabel();
+        if (computerOpponentCheckBox.isSelected() && !model.isPlayerOneTurn() && !model.isGameOver()) {
+            playComputerMove();
+        }
     }
 
     /**
-     * Disables buttons that are not in the selected row or column.
+     * Lets the computer choose a move for Player Two on a background thread,
+     * then applies it on the JavaFX thread. The board ignores clicks meanwhile.
      */
-    private void disableOtherButtons() {
-        int size = model.getBoard().length;
-        for (int i = 0; i < size; ++i) {
-            for (int j = 0; j < size; ++j) {
-                Button btn = (Button) getNodeByRowColumnIndex(i, j, board);
-                if (btn != null) {
-                    btn.setDisable(!(isRowSelected && i == selectedRow) && !(isColSelected && j == selectedCol));
-                }
-            }
+    private void playComputerMove() {
+        if (computerPlayer == null) {
+            computerPlayer = new MctsPlayer(COMPUTER_MOVE_MILLIS);
         }
+        computerThinking = true;
+        playerTurnLabel.setText(playerTwoCharacter + " is thinking...");
+        GameState snapshot = new GameState(model);
+        CompletableFuture.supplyAsync(() -> computerPlayer.chooseMove(snapshot))
+                .whenComplete((move, failure) -> Platform.runLater(() -> {
+                    if (failure != null) {
+                        computerMoveFailed(failure);
+                    } else {
+                        applyComputerMove(move);
+                    }
+                }));
+    }
+
+    /**
+     * Gives the board back to the players after the computer failed to choose
+     * a move, and tells them why.
+     *
+     * @param failure the cause of the failure
+     */
+    private void computerMoveFailed(Throwable failure) {
+        computerThinking = false;
+        updateTurnLabel();
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        showAlert(Alert.AlertType.ERROR, "Computer Opponent",
+                "The computer could not choose a move (" + cause.getMessage() + "). Please make the move for "
+                        + playerTwoCharacter + ".");
     }
 
     /**
-     * Enables all buttons on the board.
+     * Applies the move chosen by the computer and gives the turn back to Player One.
+     *
+     * @param move the packed move chosen by the computer
      */
-    private void enableAllButtons() {
-        int size = model.getBoard().length;
-        for (int i = 0; i < size; ++i) {
-            for (int j = 0; j < size; ++j) {
-                Button btn = (Button) getNodeByRowColumnIndex(i, j, board);
-                if (btn != null) {
-                    btn.setDisable(false);
-                }
+    private void applyComputerMove(int move) {
+        computerThinking = false;
+        model.makeMove(move);
+        for (int row = Math.min(Moves.fromRow(move), Moves.toRow(move)); row <= Math.max(Moves.fromRow(move), Moves.toRow(move)); ++row) {
+            for (int col = Math.min(Moves.fromCol(move), Moves.toCol(move)); col <= Math.max(Moves.fromCol(move), Moves.toCol(move)); ++col) {
+                boardView.setCell(row, col, false);
             }
         }
+        checkGameOver();
+        model.resetKeyTurn();
+        updateTurnLabel();
     }
 
     /**
@@ -231,23 +290,14 @@ public class Controller {
         playerTurnLabel.setText(model.isPlayerOneTurn() ? playerOneCharacter + "'s Turn" : playerTwoCharacter + "'s Turn");
     }
 
-    /**
-     * Updates the board to reflect the move made at the given position.
-     *
-     * @param pos the position where the move was made
-     */
-    private void updateBoard(Position pos) {
-        Button btn = (Button) getNodeByRowColumnIndex(pos.row(), pos.col(), board);
-        btn.setBackground(new Background(new BackgroundImage(deadUnit, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER, new BackgroundSize(100, 100, true, true, true, false))));
-    }
-
     /**
      * Checks if the game is over and displays a message if so.
      */
     private void checkGameOver() {
         if (model.isGameOver()) {
             String winner = model.isPlayerOneTurn() ? playerTwoCharacter : playerOneCharacter;
-            showAlert(winner + " wins!");
+            GAMES_FINISHED.increment();
+            showAlert(Alert.AlertType.INFORMATION, "Game Over", winner + " wins!");
             System.out.println("Game Over! " + winner + " wins!");
         }
     }
@@ -255,57 +305,49 @@ public class Controller {
     /**
      * Displays an alert with the given message.
      *
+     * @param type the type of the alert
+     * @param title the title of the alert
      * @param message the message to display
      */
-    private void showAlert(String message) {
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Game Over");
+    private void showAlert(Alert.AlertType type, String title, String message) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
         alert.setHeaderText(null);
         alert.setContentText(message);
         alert.showAndWait();
     }
 
-    /**
-     * Retrieves the node at the specified row and column in the given GridPane.
-     *
-     * @param row the row index
-     * @param col the column index
-     * @param gridPane the GridPane to search
-     * @return the node at the specified position, or null if not found
-     */
-    private javafx.scene.Node getNodeByRowColumnIndex(final int row, final int col, GridPane gridPane) {
-        for (javafx.scene.Node node : gridPane.getChildren()) {
-            if (GridPane.getRowIndex(node) != null && GridPane.getRowIndex(node) == row
-                    && GridPane.getColumnIndex(node) != null && GridPane.getColumnIndex(node) == col) {
-                return node;
-            }
-        }
-        return null;
-    }
-
     @FXML
     private void handleChangeCharacters() {
-        MyApplication.getInstance().changeCharacters();
+        timed("change characters", () -> {
+            if (!computerThinking) {
+                MyApplication.getInstance().changeCharacters();
+            }
+        });
     }
 
     @FXML
     private void handleRestartGame() {
+        timed("restart", this::restartGame);
+    }
+
+    private void restartGame() {
+        if (computerThinking) {
+            return;
+        }
         model.resetBoard();
-        resetBoardButtons();
+        boardView.reset();
         moveMade = false;
         updateTurnLabel();
     }
 
-    private void resetBoardButtons() {
-        int size = model.getBoard().length;
-        for (int i = 0; i < size; ++i) {
-            for (int j = 0; j < size; ++j) {
-                Button btn = (Button) getNodeByRowColumnIndex(i, j, board);
-                if (btn != null) {
-                    btn.setBackground(new Background(new BackgroundImage(aliveUnit, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER, new BackgroundSize(100, 100, true, true, true, false))));
-                    btn.setDisable(false);
-                }
-            }
+    /**
+     * Stops the worker threads of the computer opponent, if it has played.
+     */
+    @Override
+    public void close() {
+        if (computerPlayer != null) {
+            computerPlayer.close();
         }
     }
 }
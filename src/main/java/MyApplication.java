@@ -1,16 +1,26 @@
+import game.metrics.MetricsRegistry;
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.stage.Stage;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletionException;
+
 /**
  * The main application class for the game, extending the JavaFX Application class.
  * This class manages the primary stage and transitions between different scenes.
  */
 public class MyApplication extends Application {
+    private static final String CHARACTER_SELECTION_FXML = "CharacterSelection.fxml";
+    private static final String GAME_FXML = "Game.fxml";
+    // the file the metrics are written to, e.g. -Dmetrics.file=game.prom, or none
+    private static final String METRICS_FILE = System.getProperty("metrics.file");
+    private static final long METRICS_INTERVAL_MILLIS = Long.getLong("metrics.interval", 10_000);
+
     private static MyApplication instance;
     private Stage primaryStage;
+    private SceneManager scenes;
 
     /**
      * Gets the singleton instance of the application.
@@ -31,55 +41,94 @@ public class MyApplication extends Application {
     @Override
     public void start(Stage primaryStage) throws Exception {
         instance = this;
+        if (METRICS_FILE != null) {
+            MetricsRegistry.getDefault().startExporting(Path.of(METRICS_FILE), METRICS_INTERVAL_MILLIS);
+        }
         this.primaryStage = primaryStage;
+        this.scenes = new SceneManager(primaryStage);
         showCharacterSelection();
     }
 
     /**
-     * Displays the character selection scene.
+     * Releases the resources of the scenes, such as the threads of the
+     * computer opponent, and writes the metrics one last time if they are
+     * being exported.
+     *
+     * @throws Exception if a scene cannot release its resources
+     */
+    @Override
+    public void stop() throws Exception {
+        try {
+            scenes.close();
+        } finally {
+            if (METRICS_FILE != null) {
+                MetricsRegistry.getDefault().finishExporting(Path.of(METRICS_FILE));
+            }
+        }
+    }
+
+    /**
+     * Displays the character selection scene, cleared of earlier choices, and
+     * starts loading the game scene in the background while players choose.
      *
      * @throws Exception if an error occurs during loading the scene
      */
     public void showCharacterSelection() throws Exception {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("CharacterSelection.fxml"));
-        Parent root = loader.load();
-        Scene scene = new Scene(root);
-        primaryStage.setScene(scene);
-        primaryStage.setTitle("Character Selection");
+        scenes.show(CHARACTER_SELECTION_FXML, "Character Selection", CharacterSelectionController::reset);
         primaryStage.show();
+        scenes.preload(GAME_FXML);
     }
 
     /**
-     * Starts the game by transitioning to the game scene with the selected characters.
+     * Starts the game by transitioning to the game scene with the selected
+     * characters. If the game scene cannot be shown, the players are told so
+     * and stay on the current scene.
      *
      * @param playerOneCharacter the character chosen by player one
      * @param playerTwoCharacter the character chosen by player two
      */
     public void startGame(String playerOneCharacter, String playerTwoCharacter) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("Game.fxml"));
-            Parent root = loader.load();
-
-            Controller gameController = loader.getController();
-            gameController.initialize(playerOneCharacter, playerTwoCharacter);
-
-            Scene gameScene = new Scene(root);
-            primaryStage.setScene(gameScene);
-            primaryStage.setTitle("Game");
+            scenes.<Controller>show(GAME_FXML, "Game",
+                    gameController -> gameController.initialize(playerOneCharacter, playerTwoCharacter));
         } catch (Exception e) {
-            e.printStackTrace();
+            showError("The game could not be started", e);
         }
     }
 
     /**
-     * Changes the scene back to the character selection scene.
+     * Changes the scene back to the character selection scene. If it cannot
+     * be shown, the players are told so and stay on the current scene.
      */
     public void changeCharacters() {
         try {
             showCharacterSelection();
         } catch (Exception e) {
-            e.printStackTrace();
+            showError("The character selection could not be shown", e);
+        }
+    }
+
+    /**
+     * Shows an error dialog about a failed scene change and waits until it is closed.
+     *
+     * @param message what went wrong
+     * @param failure the exception that was thrown, whose cause is shown if it only wraps one
+     */
+    private void showError(String message, Exception failure) {
+        Throwable cause = failure;
+        // A scene preloaded by SceneManager fails inside join(), wrapped in a CompletionException
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof UncheckedIOException && cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.initOwner(primaryStage);
+        alert.setTitle("Error");
+        alert.setHeaderText(null);
+        alert.setContentText(message + " (" + cause.getMessage() + ").");
+        alert.showAndWait();
     }
 
     /**
@@ -0,0 +1,107 @@
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads character portraits at the size they are displayed and keeps them for
+ * the lifetime of the application.
+ *
+ * <p>Portraits are decoded on JavaFX's background loader threads and scaled
+ * down while decoding, so the FX thread never waits for an image and only the
+ * small thumbnails stay on the heap. Until a portrait is ready, its view shows
+ * a placeholder. Reopening the selection screen reuses the decoded thumbnails.</p>
+ */
+public final class PortraitCache {
+
+    /**
+     * The height portraits are displayed and decoded at, in pixels.
+     */
+    public static final double PORTRAIT_HEIGHT = 150;
+
+    private static final String PLACEHOLDER_PATH = "/CharacterImages/placeholder.jpg";
+    private static final Map<String, Image> portraits = new ConcurrentHashMap<>();
+
+    private PortraitCache() {
+    }
+
+    /**
+     * Gets the portrait at a classpath resource path, starting to load it in
+     * the background if it is not cached yet.
+     *
+     * @param path the resource path of the image
+     * @return the portrait, which may still be loading
+     */
+    public static Image get(String path) {
+        return portraits.computeIfAbsent(path, p -> load(p, true));
+    }
+
+    /**
+     * Gets the placeholder shown while portraits load. The placeholder is small,
+     * so it is loaded synchronously the first time.
+     *
+     * @return the placeholder image
+     */
+    public static Image getPlaceholder() {
+        return portraits.computeIfAbsent(PLACEHOLDER_PATH, p -> load(p, false));
+    }
+
+    /**
+     * Starts loading the given portraits in the background.
+     *
+     * @param paths the resource paths of the images
+     */
+    public static void preload(String... paths) {
+        for (String path : paths) {
+            get(path);
+        }
+    }
+
+    /**
+     * Shows a portrait in an image view, with the placeholder until the
+     * portrait has loaded. If the portrait cannot be loaded, the placeholder stays.
+     *
+     * @param view the view to show the portrait in
+     * @param path the resource path of the image
+     */
+    public static void show(ImageView view, String path) {
+        Image portrait = get(path);
+        if (portrait.getProgress() >= 1 && !portrait.isError()) {
+            view.setImage(portrait);
+            return;
+        }
+        view.setImage(getPlaceholder());
+        portrait.progressProperty().addListener(new ChangeListener<>() {
+            @Override
+            public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
+                if (newValue.doubleValue() < 1) {
+                    return;
+                }
+                // The cached image outlives the view, so do not keep the view reachable from it
+                observable.removeListener(this);
+                if (portrait.isError()) {
+                    System.err.println("Could not load portrait " + path + ": " + portrait.getException());
+                } else {
+                    view.setImage(portrait);
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates an image decoded at the portrait height.
+     *
+     * @param path the resource path of the image
+     * @param background whether to load the image on a background thread
+     * @return the image
+     */
+    private static Image load(String path, boolean background) {
+        URL url = Objects.requireNonNull(PortraitCache.class.getResource(path), "Missing resource " + path);
+        return new Image(url.toExternalForm(), 0, PORTRAIT_HEIGHT, true, true, background);
+    }
+}
@@ -0,0 +1,21 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for the parsing of an FXML file. Preloaded files
+ * are parsed on a background thread.
+ */
+@Name("game.SceneLoad")
+@Label("Scene Load")
+@Category({"Game", "UI"})
+@Description("An FXML file parsed into a scene graph")
+@StackTrace(false)
+class SceneLoadEvent extends Event {
+
+    @Label("FXML File")
+    String fxml;
+}
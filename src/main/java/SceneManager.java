@@ -0,0 +1,171 @@
+import game.metrics.LatencyHistogram;
+import game.metrics.MetricsRegistry;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Loads each FXML file of the application once and keeps its scene and
+ * controller, so moving between screens reuses them instead of parsing the
+ * file and building a new scene graph every time.
+ *
+ * <p>A file can be parsed on a background thread ahead of time with
+ * {@link #preload(String)}, e.g. the game while the players are still choosing
+ * their characters. Showing a scene reports the time from the request to the
+ * first layout pulse of the new scene, which is when it is about to be drawn,
+ * as a {@link SceneShowEvent} and in the metrics, and with
+ * {@code -Dscene.debug=true} also on the standard output.</p>
+ *
+ * <p>Except for the background parsing, all methods must be called on the
+ * JavaFX application thread.</p>
+ */
+public class SceneManager {
+
+    // parses FXML files ahead of time; a daemon, so it does not keep the application alive
+    private static final ExecutorService PRELOADER = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("scene-preloader").factory());
+    private static final LatencyHistogram LOAD_TIME = MetricsRegistry.getDefault().histogram("ui_scene_load_seconds");
+    private static final LatencyHistogram FIRST_FRAME_TIME = MetricsRegistry.getDefault().histogram("ui_scene_first_frame_seconds");
+    // prints the time to first frame of every scene shown, e.g. -Dscene.debug=true
+    private static final boolean DEBUG = Boolean.getBoolean("scene.debug");
+
+    private final Stage stage;
+    // FXML files being parsed or parsed in the background, not yet shown
+    private final Map<String, CompletableFuture<FXMLLoader>> pending = new HashMap<>();
+    // scenes built so far, by FXML file
+    private final Map<String, Scene> scenes = new HashMap<>();
+    // controllers of the scenes, by FXML file
+    private final Map<String, Object> controllers = new HashMap<>();
+    private long lastTimeToFirstFrame;
+
+    /**
+     * Constructs a scene manager for the given stage.
+     *
+     * @param stage the stage whose scene is changed
+     */
+    public SceneManager(Stage stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Starts parsing an FXML file on a background thread, unless it has been
+     * loaded or started loading before.
+     *
+     * @param fxml the name of the FXML file, relative to this class
+     */
+    public void preload(String fxml) {
+        if (!scenes.containsKey(fxml)) {
+            pending.computeIfAbsent(fxml, name -> CompletableFuture.supplyAsync(() -> parse(name), PRELOADER));
+        }
+    }
+
+    /**
+     * Shows the scene of an FXML file, loading it first if it has not been
+     * loaded yet. The controller is prepared before the scene is shown.
+     *
+     * @param fxml the name of the FXML file, relative to this class
+     * @param title the title of the stage
+     * @param prepare prepares the controller of the scene for showing
+     * @param <C> the type of the controller
+     * @return the controller of the scene
+     */
+    public <C> C show(String fxml, String title, Consumer<? super C> prepare) {
+        SceneShowEvent event = new SceneShowEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean cached = scenes.containsKey(fxml);
+        Scene scene = scenes.computeIfAbsent(fxml, this::createScene);
+        @SuppressWarnings("unchecked")
+        C controller = (C) controllers.get(fxml);
+        prepare.accept(controller);
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                lastTimeToFirstFrame = System.nanoTime() - start;
+                FIRST_FRAME_TIME.record(lastTimeToFirstFrame);
+                event.fxml = fxml;
+                event.cached = cached;
+                event.commit();
+                if (DEBUG) {
+                    System.out.printf("%s shown in %.1f ms%n", title, lastTimeToFirstFrame / 1e6);
+                }
+            }
+        });
+        stage.setScene(scene);
+        stage.setTitle(title);
+        return controller;
+    }
+
+    /**
+     * Gets the time the last scene took from the request to show it to its
+     * first layout pulse.
+     *
+     * @return the time to first frame of the last scene, in nanoseconds, or 0
+     * if no scene has been drawn yet
+     */
+    public long getLastTimeToFirstFrame() {
+        return lastTimeToFirstFrame;
+    }
+
+    /**
+     * Closes the controllers of the loaded scenes that hold resources, i.e.,
+     * implement {@link AutoCloseable}. Called when the application stops.
+     *
+     * @throws Exception if a controller cannot be closed
+     */
+    public void close() throws Exception {
+        for (Object controller : controllers.values()) {
+            if (controller instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Builds the scene of an FXML file, waiting for the background parsing if
+     * it was preloaded and parsing it now otherwise.
+     *
+     * @param fxml the name of the FXML file
+     * @return the new scene
+     */
+    private Scene createScene(String fxml) {
+        CompletableFuture<FXMLLoader> preloaded = pending.remove(fxml);
+        FXMLLoader loader = preloaded != null ? preloaded.join() : parse(fxml);
+        controllers.put(fxml, loader.getController());
+        return new Scene(loader.<Parent>getRoot());
+    }
+
+    /**
+     * Parses an FXML file. Safe to call on any thread, as the nodes are not
+     * yet part of a scene.
+     *
+     * @param fxml the name of the FXML file
+     * @return the loader holding the root node and the controller
+     */
+    private static FXMLLoader parse(String fxml) {
+        SceneLoadEvent event = new SceneLoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        FXMLLoader loader = new FXMLLoader(SceneManager.class.getResource(fxml));
+        try {
+            loader.load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load " + fxml, e);
+        }
+        LOAD_TIME.record(System.nanoTime() - start);
+        event.fxml = fxml;
+        event.commit();
+        return loader;
+    }
+}
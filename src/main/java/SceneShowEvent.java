@@ -0,0 +1,26 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for a change of screen. The duration of the event
+ * is the time from the request to the first layout pulse of the new scene,
+ * including any loading that was not done ahead of time.
+ */
+@Name("game.SceneShow")
+@Label("Scene Show")
+@Category({"Game", "UI"})
+@Description("A scene shown on the stage, up to its first frame")
+@StackTrace(false)
+class SceneShowEvent extends Event {
+
+    @Label("FXML File")
+    String fxml;
+
+    @Label("Cached")
+    @Description("Whether the scene had been built before")
+    boolean cached;
+}
@@ -0,0 +1,22 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for the handling of one click on the game screen.
+ * The duration of the event is the time the JavaFX thread spent handling it.
+ */
+@Name("game.UiAction")
+@Label("UI Action")
+@Category({"Game", "UI"})
+@Description("A click handled on the game screen")
+@StackTrace(false)
+class UiActionEvent extends Event {
+
+    @Label("Action")
+    @Description("What was clicked, e.g. cell 1 2 or end turn")
+    String action;
+}
@@ -0,0 +1,212 @@
+package game;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Replays move scripts on a board without any interaction, for checking
+ * recorded games in bulk. See {@link MoveScriptReader} for the format.
+ *
+ * <p>Illegal moves are counted and skipped, like the console game rejects
+ * them. When a game is over, its winner is counted and the board is reset for
+ * the next game, so a script can hold any number of games one after the
+ * other.</p>
+ *
+ * <p>Boards up to {@link Moves#MAX_SIZE} rows and columns are replayed on a
+ * {@link GameState} with packed moves. Larger boards are replayed on a
+ * {@link LargeGameState}, whose native memory is released by
+ * {@link #close()}.</p>
+ */
+public class BatchReplay implements AutoCloseable {
+
+    // exactly one of the two states is used, depending on the board size
+    private final GameState state;
+    private final LargeGameState largeState;
+    private long moves;
+    private long illegalMoves;
+    private long games;
+    private long playerOneWins;
+    // the number of legal moves of the current game
+    private long gameMoves;
+    private long nanos;
+
+    /**
+     * Constructs a replay on a full board of the given size.
+     *
+     * @param size the size of the board (size x size)
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public BatchReplay(int size) {
+        if (size > Moves.MAX_SIZE) {
+            state = null;
+            largeState = new LargeGameState(size, size);
+        } else {
+            state = new GameState(size);
+            largeState = null;
+        }
+    }
+
+    /**
+     * Replays all moves of a script, continuing from where the previous
+     * script left off.
+     *
+     * @param in the script
+     * @throws IOException if the script cannot be read
+     * @throws IllegalArgumentException if the script is malformed, or ends
+     * within a move
+     */
+    public void replay(InputStream in) throws IOException {
+        MoveScriptReader script = new MoveScriptReader(in);
+        long start = System.nanoTime();
+        try {
+            int fromRow;
+            while ((fromRow = script.nextInt()) >= 0) {
+                int fromCol = next(script);
+                int toRow = next(script);
+                int toCol = next(script);
+                moves++;
+                if (!makeMove(fromRow, fromCol, toRow, toCol)) {
+                    illegalMoves++;
+                    continue;
+                }
+                gameMoves++;
+                if (isGameOver()) {
+                    finishGame();
+                }
+            }
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Makes a move if it is legal.
+     *
+     * @param fromRow the row index of one end of the move
+     * @param fromCol the column index of one end of the move
+     * @param toRow the row index of the other end of the move
+     * @param toCol the column index of the other end of the move
+     * @return true if the move was legal and made, false otherwise
+     */
+    private boolean makeMove(int fromRow, int fromCol, int toRow, int toCol) {
+        if (largeState != null) {
+            if (!largeState.isLegalMove(fromRow, fromCol, toRow, toCol)) {
+                return false;
+            }
+            largeState.makeMove(fromRow, fromCol, toRow, toCol);
+            return true;
+        }
+        // Check the bounds before packing, as packing keeps only the lowest byte of each index
+        if (fromRow >= state.getRows() || fromCol >= state.getCols() || toRow >= state.getRows() || toCol >= state.getCols()) {
+            return false;
+        }
+        int move = Moves.pack(fromRow, fromCol, toRow, toCol);
+        if (!state.isLegalMove(move)) {
+            return false;
+        }
+        state.makeMove(move);
+        return true;
+    }
+
+    private boolean isGameOver() {
+        return largeState != null ? largeState.isGameOver() : state.isGameOver();
+    }
+
+    private boolean isPlayerOneTurn() {
+        return largeState != null ? largeState.isPlayerOneTurn() : state.isPlayerOneTurn();
+    }
+
+    /**
+     * Reads a number that must follow within the current move.
+     *
+     * @param script the script
+     * @return the number
+     * @throws IOException if the script cannot be read
+     * @throws IllegalArgumentException if the script ends
+     */
+    private static int next(MoveScriptReader script) throws IOException {
+        int value = script.nextInt();
+        if (value < 0) {
+            throw new IllegalArgumentException("Incomplete move at the end of the script, line " + script.getLine());
+        }
+        return value;
+    }
+
+    /**
+     * Counts the winner of the finished game and starts a new one.
+     */
+    private void finishGame() {
+        games++;
+        // The player who removed the last stone wins, i.e., the one not to move now
+        if (!isPlayerOneTurn()) {
+            playerOneWins++;
+        }
+        gameMoves = 0;
+        if (largeState != null) {
+            // A reset large board always starts with Player One
+            largeState.resetBoard();
+            return;
+        }
+        state.resetBoard();
+        if (!state.isPlayerOneTurn()) {
+            state.switchTurn();
+        }
+    }
+
+    /**
+     * Gets the game being played at the end of the replay.
+     *
+     * @return the current state, or {@code null} if the board is larger than
+     * {@link Moves#MAX_SIZE} and is replayed on a {@link LargeGameState}
+     * @see #getLargeState()
+     */
+    public GameState getState() {
+        return state;
+    }
+
+    /**
+     * Gets the game being played at the end of the replay on a board larger
+     * than {@link Moves#MAX_SIZE}.
+     *
+     * @return the current state, or {@code null} if the board is replayed on a {@link GameState}
+     */
+    public LargeGameState getLargeState() {
+        return largeState;
+    }
+
+    /**
+     * Gets the status of the game being played at the end of the replay.
+     *
+     * @return the status of the current game
+     */
+    public State.Status getStatus() {
+        return largeState != null ? largeState.getStatus() : state.getStatus();
+    }
+
+    /**
+     * Returns the final status and timing of the replay.
+     *
+     * @return the number of moves and games replayed, the winners, the status
+     * of the last game and the replay speed
+     */
+    public String report() {
+        return String.format("""
+                        %d moves (%d illegal) in %.1f ms, %.2f million moves/s
+                        %d games finished: Player 1 won %d, Player 2 won %d
+                        Last game: %s after %d moves
+                        """,
+                moves, illegalMoves, nanos / 1e6, nanos == 0 ? 0 : moves * 1e3 / nanos,
+                games, playerOneWins, games - playerOneWins,
+                getStatus(), gameMoves);
+    }
+
+    /**
+     * Releases the native memory of a {@link LargeGameState}, if one is used.
+     */
+    @Override
+    public void close() {
+        if (largeState != null) {
+            largeState.close();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package game;
+
+/**
+ * Represents the state of the game on a board of up to 8x8 cells, stored as a
+ * bitboard in a single {@code long}. Follows the same rules as {@link GameState},
+ * but emptiness checks, segment checks and removals are single mask operations.
+ *
+ * @see Bitboards
+ */
+public class BitboardGameState implements TwoPhaseMoveState<Position> {
+
+    private final int size;
+    private final long fullMask;
+    private long stones;
+    private boolean isPlayerOneTurn = true;
+
+    /**
+     * Constructs a BitboardGameState with a specified board size and a stone
+     * in every cell.
+     *
+     * @param size the size of the board (size x size)
+     * @throws IllegalArgumentException if the board does not fit into a bitboard
+     */
+    public BitboardGameState(int size) {
+        Bitboards.checkSize(size);
+        this.size = size;
+        fullMask = Bitboards.fullMask(size);
+        stones = fullMask;
+    }
+
+    /**
+     * Constructs a BitboardGameState with the same board and turn as the given state.
+     *
+     * @param state the state to copy
+     * @throws IllegalArgumentException if the board is not square or does not
+     * fit into a bitboard
+     */
+    public BitboardGameState(GameState state) {
+        this(state.getRows());
+        if (state.getCols() != size) {
+            throw new IllegalArgumentException("Bitboards hold square boards only: " + state.getRows() + "x" + state.getCols());
+        }
+        stones = Bitboards.fromBoard(state.getBoard());
+        isPlayerOneTurn = state.isPlayerOneTurn();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Player getNextPlayer() {
+        return isPlayerOneTurn ? Player.PLAYER_1 : Player.PLAYER_2;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isGameOver() {
+        return stones == 0L;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Status getStatus() {
+        if (!isGameOver()) {
+            return Status.IN_PROGRESS;
+        }
+        return isPlayerOneTurn ? Status.PLAYER_2_WINS : Status.PLAYER_1_WINS;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLegalToMoveFrom(Position position) {
+        return isOnBoard(position) && (stones & (1L << Bitboards.index(size, position.row(), position.col()))) != 0L;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLegalMove(Position from, Position to) {
+        if (!isOnBoard(from) || !isOnBoard(to)) return false;
+        long mask = Bitboards.segmentMask(size, from, to);
+        return mask != 0L && (stones & mask) == mask;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void makeMove(Position from, Position to) {
+        if (isLegalMove(from, to)) {
+            stones &= ~Bitboards.segmentMask(size, from, to);
+        }
+        isPlayerOneTurn = !isPlayerOneTurn;
+    }
+
+    /**
+     * Checks if the position is on the board.
+     *
+     * @param p the position to check
+     * @return true if the position is on the board, false otherwise
+     */
+    private boolean isOnBoard(Position p) {
+        int row = p.row();
+        int col = p.col();
+        return row >= 0 && row < size && col >= 0 && col < size;
+    }
+
+    /**
+     * Resets the board to its initial state.
+     */
+    public void resetBoard() {
+        stones = fullMask;
+    }
+
+    /**
+     * Gets the size of the board.
+     *
+     * @return the size of the board (size x size)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the current state of the board as a bitboard.
+     *
+     * @return the bitboard of the cells that contain a stone
+     */
+    public long getStones() {
+        return stones;
+    }
+
+    /**
+     * Checks if it is Player One's turn.
+     *
+     * @return true if it is Player One's turn, false otherwise
+     */
+    public boolean isPlayerOneTurn() {
+        return isPlayerOneTurn;
+    }
+
+    /**
+     * Switches the turn to the next player.
+     */
+    public void switchTurn() {
+        isPlayerOneTurn = !isPlayerOneTurn;
+    }
+
+    @Override
+    public String toString() {
+        return Bitboards.toString(stones, size);
+    }
+}
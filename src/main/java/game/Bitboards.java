@@ -0,0 +1,186 @@
+package game;
+
+/**
+ * Utility methods for boards stored as bitboards. A bitboard keeps the whole
+ * board in a single {@code long}, where bit {@code row * size + col} is set if
+ * the cell at {@code (row, col)} contains a stone. Boards of up to 8x8 cells
+ * fit into a bitboard.
+ */
+public final class Bitboards {
+
+    /**
+     * The size of the largest square board that fits into a bitboard.
+     */
+    public static final int MAX_SIZE = 8;
+
+    // COLUMN_MASKS[size] has one bit set in column 0 of every row
+    private static final long[] COLUMN_MASKS = new long[MAX_SIZE + 1];
+
+    static {
+        for (int size = 1; size <= MAX_SIZE; size++) {
+            long mask = 0L;
+            for (int row = 0; row < size; row++) {
+                mask |= 1L << (row * size);
+            }
+            COLUMN_MASKS[size] = mask;
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    /**
+     * Checks that a board of the given size fits into a bitboard.
+     *
+     * @param size the size of the board (size x size)
+     * @throws IllegalArgumentException if the size is not between 1 and
+     * {@link #MAX_SIZE}
+     */
+    public static void checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + MAX_SIZE + ": " + size);
+        }
+    }
+
+    /**
+     * Returns the index of the bit that represents the given cell.
+     *
+     * @param size the size of the board
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @return the bit index of the cell
+     */
+    public static int index(int size, int row, int col) {
+        return row * size + col;
+    }
+
+    /**
+     * Returns the bitboard of a full board, i.e., a board with a stone in every cell.
+     *
+     * @param size the size of the board
+     * @return the bitboard with all {@code size * size} cells set
+     */
+    public static long fullMask(int size) {
+        int cells = size * size;
+        return cells == Long.SIZE ? -1L : (1L << cells) - 1;
+    }
+
+    /**
+     * Returns the mask of the cells {@code startCol..endCol} (inclusive) of a row.
+     *
+     * @param size the size of the board
+     * @param row the row index
+     * @param startCol the first column of the segment
+     * @param endCol the last column of the segment
+     * @return the mask of the row segment
+     */
+    public static long rowSegmentMask(int size, int row, int startCol, int endCol) {
+        return bitsBetween(index(size, row, startCol), index(size, row, endCol));
+    }
+
+    /**
+     * Returns the mask of the cells {@code startRow..endRow} (inclusive) of a column.
+     *
+     * @param size the size of the board
+     * @param col the column index
+     * @param startRow the first row of the segment
+     * @param endRow the last row of the segment
+     * @return the mask of the column segment
+     */
+    public static long columnSegmentMask(int size, int col, int startRow, int endRow) {
+        return (COLUMN_MASKS[size] << col) & bitsBetween(index(size, startRow, col), index(size, endRow, col));
+    }
+
+    /**
+     * Returns the mask of the row or column segment between two positions.
+     * The positions must be on the board.
+     *
+     * @param size the size of the board
+     * @param from one end of the segment
+     * @param to the other end of the segment
+     * @return the mask of the segment, or {@code 0} if the positions are in
+     * neither the same row nor the same column
+     */
+    public static long segmentMask(int size, Position from, Position to) {
+        if (from.row() == to.row()) {
+            return rowSegmentMask(size, from.row(), Math.min(from.col(), to.col()), Math.max(from.col(), to.col()));
+        }
+        if (from.col() == to.col()) {
+            return columnSegmentMask(size, from.col(), Math.min(from.row(), to.row()), Math.max(from.row(), to.row()));
+        }
+        return 0L;
+    }
+
+    /**
+     * Converts a square board of {@code int} cells to a bitboard. Every nonzero
+     * cell is treated as a stone.
+     *
+     * @param board the board to convert
+     * @return the bitboard of the board
+     * @throws IllegalArgumentException if the board does not fit into a bitboard
+     */
+    public static long fromBoard(int[][] board) {
+        int size = board.length;
+        checkSize(size);
+        long bits = 0L;
+        for (int row = 0; row < size; row++) {
+            if (board[row].length != size) {
+                throw new IllegalArgumentException("Board must be square");
+            }
+            for (int col = 0; col < size; col++) {
+                if (board[row][col] != 0) {
+                    bits |= 1L << index(size, row, col);
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Converts a bitboard to a square board of {@code int} cells, where a stone
+     * is represented by {@code 1} and an empty cell by {@code 0}.
+     *
+     * @param bits the bitboard
+     * @param size the size of the board
+     * @return the board
+     */
+    public static int[][] toBoard(long bits, int size) {
+        int[][] board = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                board[row][col] = (int) (bits >>> index(size, row, col)) & 1;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Returns a string representation of a bitboard in the same format as
+     * {@link GameState#toString()}.
+     *
+     * @param bits the bitboard
+     * @param size the size of the board
+     * @return the string representation of the board
+     */
+    public static String toString(long bits, int size) {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                sb.append((bits >>> index(size, row, col)) & 1).append(' ');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the mask of the bits {@code lo..hi} (inclusive).
+     *
+     * @param lo the lowest bit index
+     * @param hi the highest bit index
+     * @return the mask of the bit range
+     */
+    private static long bitsBetween(int lo, int hi) {
+        return (-1L >>> (Long.SIZE - 1 - hi)) & (-1L << lo);
+    }
+}
@@ -1,7 +1,14 @@
 package game;
 
+import game.ai.MctsPlayer;
 import game.console.TwoPhaseMoveGame;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Scanner;
 
 /**
@@ -9,12 +16,106 @@ import java.util.Scanner;
  */
 public class ConsoleGame {
 
+    // time the computer opponent may think about each move
+    private static final long COMPUTER_MOVE_MILLIS = 50;
+
+    /**
+     * Starts a game on the console. With {@code --ai [size]}, the user plays
+     * against the computer on a board of the given size (default 4). With
+     * {@code --batch [size] [file...]}, the move scripts in the files, or on
+     * the standard input if none are given, are replayed without interaction
+     * and only the final status and timing are printed; see
+     * {@link MoveScriptReader} for the format. Boards larger than
+     * {@link Moves#MAX_SIZE} are replayed on a {@link LargeGameState}.
+     *
+     * @param args the command line arguments
+     */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--ai")) {
+            playAgainstComputer(args.length > 1 ? Integer.parseInt(args[1]) : 4);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--batch")) {
+            int size = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+            replay(size, args.length > 2 ? Arrays.copyOfRange(args, 2, args.length) : new String[0]);
+            return;
+        }
         var state = new GameState(4); // Adjust the board size if needed
         var game = new TwoPhaseMoveGame<>(state, ConsoleGame::parseMove);
         game.start();
     }
 
+    /**
+     * Plays a game where the user is Player 1 and an {@link MctsPlayer} is Player 2.
+     *
+     * @param size the size of the board
+     */
+    private static void playAgainstComputer(int size) {
+        var state = new GameState(size);
+        var scanner = new Scanner(System.in);
+        try (var computer = new MctsPlayer(COMPUTER_MOVE_MILLIS)) {
+            while (!state.isGameOver()) {
+                System.out.println(state);
+                if (state.isPlayerOneTurn()) {
+                    Position from;
+                    Position to;
+                    try {
+                        System.out.print("Enter the first stone to remove: ");
+                        if (!scanner.hasNextLine()) return;
+                        from = parseMove(scanner.nextLine());
+                        System.out.print("Enter the last stone to remove: ");
+                        if (!scanner.hasNextLine()) return;
+                        to = parseMove(scanner.nextLine());
+                    } catch (IllegalArgumentException e) {
+                        System.out.println(e.getMessage());
+                        continue;
+                    }
+                    if (!state.isLegalMove(from, to)) {
+                        System.out.println("Illegal move. Choose a segment of stones in one row or column.");
+                        continue;
+                    }
+                    state.makeMove(from, to);
+                } else {
+                    int move = computer.chooseMove(state);
+                    System.out.println("Computer removes " + Moves.from(move) + " to " + Moves.to(move));
+                    state.makeMove(move);
+                }
+            }
+        }
+        System.out.println(state);
+        // The player who removed the last stone wins, i.e., the one not to move now
+        System.out.println(!state.isPlayerOneTurn() ? "You win!" : "Computer wins!");
+    }
+
+    /**
+     * Replays move scripts and prints the final status and timing. Exits with
+     * status 1 if a script is malformed.
+     *
+     * @param size the size of the board
+     * @param files the scripts to replay one after the other, or none to
+     * read the standard input
+     */
+    private static void replay(int size, String[] files) {
+        String name = "standard input";
+        try (var replay = new BatchReplay(size)) {
+            if (files.length == 0) {
+                replay.replay(System.in);
+            }
+            for (String file : files) {
+                name = file;
+                try (InputStream in = Files.newInputStream(Path.of(file))) {
+                    replay.replay(in);
+                }
+            }
+            System.out.print(replay.report());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (IllegalArgumentException e) {
+            System.err.println(name + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
     /**
      * Converts a string containing the position of a move to a {@code Position}
      * object.
@@ -25,12 +126,49 @@ public class ConsoleGame {
      * i.e., its content is not two integers separated with spaces
      */
     public static Position parseMove(String s) {
-        s = s.trim();
-        if (!s.matches("\\d+\\s+\\d+")) {
-            throw new IllegalArgumentException("Invalid input format. Please enter two space-separated integers.");
+        // Scanned by hand, as the server parses every move it receives with this method
+        int end = s.length();
+        int i = skipWhitespace(s, 0);
+        int rowStart = i;
+        int row = 0;
+        for (; i < end && isDigit(s.charAt(i)); i++) {
+            row = appendDigit(row, s.charAt(i));
+        }
+        int rowEnd = i;
+        i = skipWhitespace(s, i);
+        int colStart = i;
+        int col = 0;
+        for (; i < end && isDigit(s.charAt(i)); i++) {
+            col = appendDigit(col, s.charAt(i));
+        }
+        int colEnd = i;
+        if (rowEnd == rowStart || colStart == rowEnd || colEnd == colStart || skipWhitespace(s, i) != end) {
+            throw invalidMove();
+        }
+        return new Position(row, col);
+    }
+
+    private static int skipWhitespace(String s, int i) {
+        while (i < s.length() && s.charAt(i) <= ' ') {
+            i++;
         }
-        var scanner = new Scanner(s);
-        return new Position(scanner.nextInt(), scanner.nextInt());
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int appendDigit(int value, char c) {
+        int digit = c - '0';
+        if (value > (Integer.MAX_VALUE - digit) / 10) {
+            throw invalidMove();
+        }
+        return value * 10 + digit;
+    }
+
+    private static IllegalArgumentException invalidMove() {
+        return new IllegalArgumentException("Invalid input format. Please enter two space-separated integers.");
     }
 
 }
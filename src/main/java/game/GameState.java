@@ -1,6 +1,9 @@
 package game;
 
-import java.util.List;
+import game.metrics.LegalityCheckEvent;
+import game.metrics.MoveEvent;
+
+import java.util.Arrays;
 
 /**
  * Represents the state of the game, including the board and turn management.
@@ -14,27 +17,88 @@ public class GameState implements TwoPhaseMoveState<Position> {
     private int keyTurnRow = 99;
     private int keyTurnCol = 99;
 
+    // Undo records of the moves made so far: the cell indices of both ends of
+    // the removed segment, or NO_MOVE if the move did not remove any stones
+    private static final long NO_MOVE = -1L;
+    private long[] undoStack = new long[16];
+    private int undoSize;
+    private long[] redoStack = new long[16];
+    private int redoSize;
+
+    // Zobrist hash of the stones on the board and the side to move
+    private final long[] zobristKeys;
+    private long hash;
+
+    // the runs of stones in every row and column, kept in step with the board
+    private final RunIndex runs;
+
     /**
      * Constructs a GameState with a specified board size.
      *
      * @param size the size of the board (size x size)
+     * @throws IllegalArgumentException if the size is not positive
      */
     public GameState(int size) {
-        board = createBoard(size);
+        this(size, size);
+    }
+
+    /**
+     * Constructs a GameState with a rectangular board.
+     *
+     * @param rows the number of rows of the board
+     * @param cols the number of columns of the board
+     * @throws IllegalArgumentException if either dimension is not positive, or
+     * the number of cells does not fit into an {@code int}; see
+     * {@link LargeGameState} for larger boards
+     */
+    public GameState(int rows, int cols) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Invalid board size: " + rows + "x" + cols);
+        }
+        if ((long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Board too large: " + rows + "x" + cols + " has more than "
+                    + Integer.MAX_VALUE + " cells");
+        }
+        board = createBoard(rows, cols);
+        zobristKeys = Zobrist.cellKeys(rows * cols);
+        hash = fullBoardHash();
+        runs = new RunIndex(rows, cols);
+    }
+
+    /**
+     * Constructs a GameState with the same board, turn and move history as
+     * the given state. The copy does not share any data with the original.
+     *
+     * @param other the state to copy
+     */
+    public GameState(GameState other) {
+        board = new int[other.board.length][];
+        for (int i = 0; i < board.length; i++) {
+            board[i] = other.board[i].clone();
+        }
+        isPlayerOneTurn = other.isPlayerOneTurn;
+        keyTurnRow = other.keyTurnRow;
+        keyTurnCol = other.keyTurnCol;
+        undoStack = other.undoStack.clone();
+        undoSize = other.undoSize;
+        redoStack = other.redoStack.clone();
+        redoSize = other.redoSize;
+        zobristKeys = other.zobristKeys;
+        hash = other.hash;
+        runs = new RunIndex(other.runs);
     }
 
     /**
      * Creates a new game board with all cells initialized to 1.
      *
-     * @param n the size of the board (n x n)
+     * @param rows the number of rows of the board
+     * @param cols the number of columns of the board
      * @return the initialized game board
      */
-    private int[][] createBoard(int n) {
-        int[][] board = new int[n][n];
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                board[i][j] = 1;
-            }
+    private int[][] createBoard(int rows, int cols) {
+        int[][] board = new int[rows][cols];
+        for (int[] row : board) {
+            Arrays.fill(row, 1);
         }
         return board;
     }
@@ -53,9 +117,7 @@ public class GameState implements TwoPhaseMoveState<Position> {
     @Override
     public boolean isGameOver() {
         for (int[] row : board) {
-            for (int cell : row) {
-                if (cell != 0) return false;
-            }
+            if (!RowScans.isEmpty(row, 0, row.length)) return false;
         }
         return true;
     }
@@ -92,38 +154,160 @@ public class GameState implements TwoPhaseMoveState<Position> {
      */
     @Override
     public boolean isLegalMove(Position from, Position to) {
-        if (!isOnBoard(from) || !isOnBoard(to)) return false;
+        LegalityCheckEvent event = new LegalityCheckEvent();
+        event.begin();
+        boolean legal = isLegal(from.row(), from.col(), to.row(), to.col());
+        event.record(from.row(), from.col(), to.row(), to.col(), legal);
+        return legal;
+    }
 
-        // Check if the move is in the same row
-        if (from.row() == to.row()) {
-            int row = from.row();
-            int startCol = Math.min(from.col(), to.col());
-            int endCol = Math.max(from.col(), to.col());
+    /**
+     * Checks if a packed move is legal.
+     *
+     * @param move the packed move
+     * @return true if the move is legal, false otherwise
+     * @see Moves
+     */
+    public boolean isLegalMove(int move) {
+        LegalityCheckEvent event = new LegalityCheckEvent();
+        event.begin();
+        int fromRow = Moves.fromRow(move);
+        int fromCol = Moves.fromCol(move);
+        int toRow = Moves.toRow(move);
+        int toCol = Moves.toCol(move);
+        boolean legal = isLegal(fromRow, fromCol, toRow, toCol);
+        event.record(fromRow, fromCol, toRow, toCol, legal);
+        return legal;
+    }
 
-            for (int col = startCol; col <= endCol; col++) {
-                if (board[row][col] == 0) {
-                    return false;
-                }
-            }
-            return true;
+    /**
+     * Checks if a move is legal without recording a {@link LegalityCheckEvent},
+     * so that {@code makeMove} records only its own event.
+     *
+     * @param fromRow the row index of one end of the move
+     * @param fromCol the column index of one end of the move
+     * @param toRow the row index of the other end of the move
+     * @param toCol the column index of the other end of the move
+     * @return true if both cells are on the board and the segment between them is legal
+     */
+    private boolean isLegal(int fromRow, int fromCol, int toRow, int toCol) {
+        return isOnBoard(fromRow, fromCol) && isOnBoard(toRow, toCol) && isLegalSegment(fromRow, fromCol, toRow, toCol);
+    }
+
+    /**
+     * Checks if every cell of the segment between two cells on the board contains a stone.
+     *
+     * @param fromRow the row index of one end of the segment
+     * @param fromCol the column index of one end of the segment
+     * @param toRow the row index of the other end of the segment
+     * @param toCol the column index of the other end of the segment
+     * @return true if the cells are in the same row or column and the segment
+     * between them is fully occupied, false otherwise
+     */
+    private boolean isLegalSegment(int fromRow, int fromCol, int toRow, int toCol) {
+        // Check if the move is in the same row; the run index answers without scanning the cells
+        if (fromRow == toRow) {
+            return runs.isRowSegmentFull(fromRow, Math.min(fromCol, toCol), Math.max(fromCol, toCol));
         }
 
         // Check if the move is in the same column
-        if (from.col() == to.col()) {
-            int col = from.col();
-            int startRow = Math.min(from.row(), to.row());
-            int endRow = Math.max(from.row(), to.row());
+        if (fromCol == toCol) {
+            return runs.isColSegmentFull(fromCol, Math.min(fromRow, toRow), Math.max(fromRow, toRow));
+        }
 
-            for (int row = startRow; row <= endRow; row++) {
+        // If the move is neither in the same row nor the same column, it's illegal
+        return false;
+    }
+
+    /**
+     * Writes every legal move into the given buffer as packed moves, without
+     * allocating. A move removes a fully occupied row or column segment; a
+     * single stone is listed once, as a row segment.
+     *
+     * @param moves the buffer to fill, which must have room for all legal moves;
+     * {@link #maxMoveCount()} elements are always enough
+     * @return the number of moves written
+     * @throws IllegalStateException if the board is too large for packed moves
+     * @see Moves
+     */
+    public int generateMoves(int[] moves) {
+        int rows = board.length;
+        int cols = board[0].length;
+        if (rows > Moves.MAX_SIZE || cols > Moves.MAX_SIZE) {
+            throw new IllegalStateException("Board is too large for packed moves");
+        }
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            int[] cells = board[row];
+            int col = 0;
+            while (col < cols) {
+                if (cells[col] == 0) {
+                    col++;
+                    continue;
+                }
+                int end = runs.runEnd(row, col, true);
+                for (int start = col; start <= end; start++) {
+                    for (int stop = start; stop <= end; stop++) {
+                        moves[count++] = Moves.pack(row, start, row, stop);
+                    }
+                }
+                col = end + 1;
+            }
+        }
+        for (int col = 0; col < cols; col++) {
+            int row = 0;
+            while (row < rows) {
                 if (board[row][col] == 0) {
-                    return false;
+                    row++;
+                    continue;
+                }
+                int end = runs.runEnd(row, col, false);
+                for (int start = row; start < end; start++) {
+                    for (int stop = start + 1; stop <= end; stop++) {
+                        moves[count++] = Moves.pack(start, col, stop, col);
+                    }
                 }
+                row = end + 1;
             }
-            return true;
         }
+        return count;
+    }
 
-        // If the move is neither in the same row nor the same column, it's illegal
-        return false;
+    /**
+     * Returns the longest legal move through a cell along its row or column,
+     * i.e., the whole run of stones the cell belongs to, without scanning the
+     * board.
+     *
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @param isRow whether to look along the row or along the column
+     * @return the packed move that removes the run, or {@link Moves#PASS} if
+     * the cell is not on the board or is empty
+     * @throws IllegalStateException if the board is too large for packed moves
+     * @see Moves
+     */
+    public int getMaximalSegment(int row, int col, boolean isRow) {
+        if (board.length > Moves.MAX_SIZE || board[0].length > Moves.MAX_SIZE) {
+            throw new IllegalStateException("Board is too large for packed moves");
+        }
+        if (!isOnBoard(row, col) || board[row][col] == 0) {
+            return Moves.PASS;
+        }
+        int start = runs.runStart(row, col, isRow);
+        int end = runs.runEnd(row, col, isRow);
+        return isRow ? Moves.pack(row, start, row, end) : Moves.pack(start, col, end, col);
+    }
+
+    /**
+     * Returns the largest number of legal moves a position on this board can
+     * have, which is the number of moves on a full board.
+     *
+     * @return the size of a buffer that is always large enough for {@link #generateMoves(int[])}
+     */
+    public int maxMoveCount() {
+        int rows = board.length;
+        int cols = board[0].length;
+        return rows * cols * (cols + 1) / 2 + cols * rows * (rows - 1) / 2;
     }
 
     /**
@@ -187,7 +371,7 @@ public class GameState implements TwoPhaseMoveState<Position> {
             setKeyTurn(row, col);
             return true;
         }
-        if (col < board.length - 1 && col + 1 == keyTurnCol) {
+        if (col < getCols() - 1 && col + 1 == keyTurnCol) {
             setKeyTurn(row, col);
             return true;
         }
@@ -206,7 +390,7 @@ public class GameState implements TwoPhaseMoveState<Position> {
             setKeyTurn(row, col);
             return true;
         }
-        if (row < board.length - 1 && row + 1 == keyTurnRow) {
+        if (row < getRows() - 1 && row + 1 == keyTurnRow) {
             setKeyTurn(row, col);
             return true;
         }
@@ -229,23 +413,240 @@ public class GameState implements TwoPhaseMoveState<Position> {
      */
     @Override
     public void makeMove(Position from, Position to) {
-        if (isLegalMove(from, to)) {
-            if (from.row() == to.row()) {
-                int start = Math.min(from.col(), to.col());
-                int end = Math.max(from.col(), to.col());
-                for (int col = start; col <= end; col++) {
-                    board[from.row()][col] = 0; // Remove stones in the selected range
-                }
-            } else if (from.col() == to.col()) {
-                int start = Math.min(from.row(), to.row());
-                int end = Math.max(from.row(), to.row());
-                for (int row = start; row <= end; row++) {
-                    board[row][from.col()] = 0; // Remove stones in the selected range
-                }
-            }
+        MoveEvent event = new MoveEvent();
+        event.begin();
+        long record = NO_MOVE;
+        if (isLegal(from.row(), from.col(), to.row(), to.col())) {
+            fillSegment(from.row(), from.col(), to.row(), to.col(), 0);
+            record = undoRecord(from.row(), from.col(), to.row(), to.col());
+        }
+
+        isPlayerOneTurn = !isPlayerOneTurn;
+        hash ^= Zobrist.SIDE_TO_MOVE;
+        undoStack = push(undoStack, undoSize++, record);
+        redoSize = 0;
+        event.record(from.row(), from.col(), to.row(), to.col(), record != NO_MOVE);
+    }
+
+    /**
+     * Makes a packed move. Like {@link #makeMove(Position, Position)}, the
+     * stones are only removed if the move is legal, but the turn always passes.
+     *
+     * @param move the packed move
+     * @see Moves
+     */
+    public void makeMove(int move) {
+        MoveEvent event = new MoveEvent();
+        event.begin();
+        long record = NO_MOVE;
+        if (isLegal(Moves.fromRow(move), Moves.fromCol(move), Moves.toRow(move), Moves.toCol(move))) {
+            fillSegment(Moves.fromRow(move), Moves.fromCol(move), Moves.toRow(move), Moves.toCol(move), 0);
+            record = undoRecord(Moves.fromRow(move), Moves.fromCol(move), Moves.toRow(move), Moves.toCol(move));
         }
 
         isPlayerOneTurn = !isPlayerOneTurn;
+        hash ^= Zobrist.SIDE_TO_MOVE;
+        undoStack = push(undoStack, undoSize++, record);
+        redoSize = 0;
+        event.record(Moves.fromRow(move), Moves.fromCol(move), Moves.toRow(move), Moves.toCol(move), record != NO_MOVE);
+    }
+
+    /**
+     * Takes back the last move made with {@code makeMove}: puts back the stones it
+     * removed and gives the turn back to the player who made it. The move can be
+     * made again with {@link #redoMove()}.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void unmakeMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        long record = undoStack[--undoSize];
+        applyRecord(record, 1);
+        isPlayerOneTurn = !isPlayerOneTurn;
+        hash ^= Zobrist.SIDE_TO_MOVE;
+        redoStack = push(redoStack, redoSize++, record);
+    }
+
+    /**
+     * Makes the last move taken back with {@link #unmakeMove()} again. Making a
+     * new move discards the moves that could be redone.
+     *
+     * @throws IllegalStateException if there is no move to redo
+     */
+    public void redoMove() {
+        if (redoSize == 0) {
+            throw new IllegalStateException("No move to redo");
+        }
+        long record = redoStack[--redoSize];
+        applyRecord(record, 0);
+        isPlayerOneTurn = !isPlayerOneTurn;
+        hash ^= Zobrist.SIDE_TO_MOVE;
+        undoStack = push(undoStack, undoSize++, record);
+    }
+
+    /**
+     * Checks if there is a move that {@link #unmakeMove()} can take back.
+     *
+     * @return true if a move can be undone, false otherwise
+     */
+    public boolean canUndo() {
+        return undoSize > 0;
+    }
+
+    /**
+     * Checks if there is a move that {@link #redoMove()} can make again.
+     *
+     * @return true if a move can be redone, false otherwise
+     */
+    public boolean canRedo() {
+        return redoSize > 0;
+    }
+
+    /**
+     * Gets the number of moves made since the board was last reset, not
+     * counting moves that were taken back.
+     *
+     * @return the number of moves that can be undone
+     */
+    public int getMoveCount() {
+        return undoSize;
+    }
+
+    /**
+     * Gets a move of the move history as a packed move.
+     *
+     * @param index the index of the move, from 0 (the first move since the
+     * board was last reset) to {@code getMoveCount() - 1}
+     * @return the packed move, or {@link Moves#PASS} if the move removed no stones
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalStateException if the board is too large for packed moves
+     */
+    public int getMove(int index) {
+        if (index < 0 || index >= undoSize) {
+            throw new IndexOutOfBoundsException("Move index " + index + " out of range for " + undoSize + " moves");
+        }
+        if (board.length > Moves.MAX_SIZE || board[0].length > Moves.MAX_SIZE) {
+            throw new IllegalStateException("Board is too large for packed moves");
+        }
+        long record = undoStack[index];
+        if (record == NO_MOVE) {
+            return Moves.PASS;
+        }
+        int cols = board[0].length;
+        int from = (int) (record >>> 32);
+        int to = (int) record;
+        return Moves.pack(from / cols, from % cols, to / cols, to % cols);
+    }
+
+    /**
+     * Creates the undo record of a move that removed a segment.
+     *
+     * @param fromRow the row index of one end of the segment
+     * @param fromCol the column index of one end of the segment
+     * @param toRow the row index of the other end of the segment
+     * @param toCol the column index of the other end of the segment
+     * @return the cell indices of both ends packed into a {@code long}
+     */
+    private long undoRecord(int fromRow, int fromCol, int toRow, int toCol) {
+        int cols = board[0].length;
+        return (long) (fromRow * cols + fromCol) << 32 | (toRow * cols + toCol);
+    }
+
+    /**
+     * Sets every cell of the segment stored in an undo record to the given value.
+     *
+     * @param record the undo record
+     * @param value {@code 1} to put the stones back, {@code 0} to remove them
+     */
+    private void applyRecord(long record, int value) {
+        if (record == NO_MOVE) {
+            return;
+        }
+        int cols = board[0].length;
+        int from = (int) (record >>> 32);
+        int to = (int) record;
+        fillSegment(from / cols, from % cols, to / cols, to % cols, value);
+    }
+
+    /**
+     * Pushes a value onto a stack, growing the stack if it is full.
+     *
+     * @param stack the array that holds the stack
+     * @param size the number of values on the stack
+     * @param value the value to push
+     * @return the array that holds the stack, which is a new array if the stack grew
+     */
+    private static long[] push(long[] stack, int size, long value) {
+        if (size == stack.length) {
+            stack = Arrays.copyOf(stack, size * 2);
+        }
+        stack[size] = value;
+        return stack;
+    }
+
+    /**
+     * Sets every cell of the segment between two cells in the same row or
+     * column. Every cell of the segment must hold the other value, as it does
+     * when a legal move is made, undone or redone.
+     *
+     * @param fromRow the row index of one end of the segment
+     * @param fromCol the column index of one end of the segment
+     * @param toRow the row index of the other end of the segment
+     * @param toCol the column index of the other end of the segment
+     * @param value {@code 0} to remove the stones, {@code 1} to put them back
+     */
+    private void fillSegment(int fromRow, int fromCol, int toRow, int toCol, int value) {
+        if (fromRow == toRow) {
+            int start = Math.min(fromCol, toCol);
+            int end = Math.max(fromCol, toCol);
+            // Set the stones in the selected range
+            hash ^= RowScans.fill(board[fromRow], start, end + 1, value, zobristKeys, fromRow * board[0].length);
+            updateRuns(fromRow, start, fromRow, end, value);
+        } else if (fromCol == toCol) {
+            int start = Math.min(fromRow, toRow);
+            int end = Math.max(fromRow, toRow);
+            for (int row = start; row <= end; row++) {
+                setCell(row, fromCol, value); // Set the stones in the selected range
+            }
+            updateRuns(start, fromCol, end, fromCol, value);
+        }
+    }
+
+    private void updateRuns(int fromRow, int fromCol, int toRow, int toCol, int value) {
+        if (value == 0) {
+            runs.remove(fromRow, fromCol, toRow, toCol);
+        } else {
+            runs.restore(fromRow, fromCol, toRow, toCol);
+        }
+    }
+
+    /**
+     * Sets a cell and updates the hash if the cell changes.
+     *
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @param value {@code 0} to remove the stone, {@code 1} to put it back
+     */
+    private void setCell(int row, int col, int value) {
+        if (board[row][col] != value) {
+            board[row][col] = value;
+            hash ^= zobristKeys[row * board[0].length + col];
+        }
+    }
+
+    /**
+     * Computes the hash of a full board with the current side to move.
+     *
+     * @return the Zobrist hash of the full board
+     */
+    private long fullBoardHash() {
+        long h = isPlayerOneTurn ? 0L : Zobrist.SIDE_TO_MOVE;
+        for (int i = 0; i < board.length * board[0].length; i++) {
+            h ^= zobristKeys[i];
+        }
+        return h;
     }
 
     /**
@@ -255,25 +656,55 @@ public class GameState implements TwoPhaseMoveState<Position> {
      * @return true if the position is on the board, false otherwise
      */
     private boolean isOnBoard(Position p) {
-        int row = p.row();
-        int col = p.col();
+        return isOnBoard(p.row(), p.col());
+    }
+
+    /**
+     * Checks if a cell is on the board.
+     *
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @return true if the cell is on the board, false otherwise
+     */
+    private boolean isOnBoard(int row, int col) {
         return row >= 0 && row < board.length && col >= 0 && col < board[0].length;
     }
 
     /**
-     * Resets the board to its initial state.
+     * Resets the board to its initial state and clears the move history.
      */
     public void resetBoard() {
-        int size = board.length;
-        for (int i = 0; i < size; ++i) {
-            for (int j = 0; j < size; ++j) {
-                board[i][j] = 1;
-            }
+        undoSize = 0;
+        redoSize = 0;
+        for (int[] row : board) {
+            Arrays.fill(row, 1);
         }
+        hash = fullBoardHash();
+        runs.reset();
+    }
+
+    /**
+     * Gets the number of rows of the board.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return board.length;
+    }
+
+    /**
+     * Gets the number of columns of the board.
+     *
+     * @return the number of columns
+     */
+    public int getCols() {
+        return board[0].length;
     }
 
     /**
-     * Gets the current state of the board.
+     * Gets the current state of the board. The array must not be changed
+     * directly, as the legality of moves is looked up in an index that is
+     * only updated by moves, undo, redo and reset.
      *
      * @return the game board
      */
@@ -281,6 +712,18 @@ public class GameState implements TwoPhaseMoveState<Position> {
         return board;
     }
 
+    /**
+     * Gets the Zobrist hash of the position, which covers the stones on the
+     * board and the player to move. The hash is updated incrementally by every
+     * move, undo, redo, turn switch and reset. Changes made directly to the
+     * array returned by {@link #getBoard()} are not reflected in the hash.
+     *
+     * @return the 64-bit hash of the position
+     */
+    public long getHash() {
+        return hash;
+    }
+
     /**
      * Checks if it is Player One's turn.
      *
@@ -295,6 +738,7 @@ public class GameState implements TwoPhaseMoveState<Position> {
      */
     public void switchTurn() {
         isPlayerOneTurn = !isPlayerOneTurn;
+        hash ^= Zobrist.SIDE_TO_MOVE;
     }
 
     /**
@@ -0,0 +1,318 @@
+package game;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Represents the state of the game on a board of any number of rows and
+ * columns, up to billions of cells. Follows the same rules as
+ * {@link GameState}, but stores one bit per cell in native memory, outside
+ * the Java heap, so even giant boards neither fill the heap nor slow down
+ * garbage collection.
+ *
+ * <p>The cells are numbered row by row, and cell {@code i} is bit
+ * {@code i % 64} of the {@code i / 64}th 64-bit word. A row segment is thus a
+ * run of consecutive bits, which is checked and cleared a whole word at a
+ * time. The number of stones left is counted, so checking whether the game
+ * is over takes constant time.</p>
+ *
+ * <p>The memory is released by {@link #close()}; the state must not be used
+ * afterwards. Native memory counts against the limit of direct memory, which
+ * is the maximum heap size unless set with {@code -XX:MaxDirectMemorySize}, so
+ * giant boards may need a higher limit.</p>
+ */
+public class LargeGameState implements TwoPhaseMoveState<Position>, AutoCloseable {
+
+    private final int rows;
+    private final int cols;
+    private final long cells;
+    private final long wordCount;
+    private final Arena arena;
+    private final MemorySegment words;
+    private long stones;
+    private boolean isPlayerOneTurn = true;
+
+    /**
+     * Constructs a LargeGameState with a stone in every cell.
+     *
+     * @param rows the number of rows of the board
+     * @param cols the number of columns of the board
+     * @throws IllegalArgumentException if either dimension is not positive
+     * @throws OutOfMemoryError if the native memory cannot be allocated
+     */
+    public LargeGameState(int rows, int cols) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Invalid board size: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        cells = (long) rows * cols;
+        wordCount = (cells + Long.SIZE - 1) / Long.SIZE;
+        arena = Arena.ofShared();
+        words = arena.allocate(wordCount * Long.BYTES, Long.BYTES);
+        fill();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Player getNextPlayer() {
+        return isPlayerOneTurn ? Player.PLAYER_1 : Player.PLAYER_2;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isGameOver() {
+        return stones == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Status getStatus() {
+        if (!isGameOver()) {
+            return Status.IN_PROGRESS;
+        }
+        return isPlayerOneTurn ? Status.PLAYER_2_WINS : Status.PLAYER_1_WINS;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLegalToMoveFrom(Position position) {
+        return hasStone(position.row(), position.col());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLegalMove(Position from, Position to) {
+        return isLegalMove(from.row(), from.col(), to.row(), to.col());
+    }
+
+    /**
+     * Checks if removing the segment between two cells is legal, i.e., the
+     * cells are on the board, in the same row or column, and every cell
+     * between them contains a stone.
+     *
+     * @param fromRow the row index of one end of the segment
+     * @param fromCol the column index of one end of the segment
+     * @param toRow the row index of the other end of the segment
+     * @param toCol the column index of the other end of the segment
+     * @return true if the move is legal, false otherwise
+     */
+    public boolean isLegalMove(int fromRow, int fromCol, int toRow, int toCol) {
+        if (!isOnBoard(fromRow, fromCol) || !isOnBoard(toRow, toCol)) {
+            return false;
+        }
+        if (fromRow == toRow) {
+            return isRunFull(index(fromRow, Math.min(fromCol, toCol)), index(fromRow, Math.max(fromCol, toCol)));
+        }
+        if (fromCol == toCol) {
+            for (int row = Math.min(fromRow, toRow); row <= Math.max(fromRow, toRow); row++) {
+                if (!isSet(index(row, fromCol))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void makeMove(Position from, Position to) {
+        makeMove(from.row(), from.col(), to.row(), to.col());
+    }
+
+    /**
+     * Removes the stones of the segment between two cells if the move is
+     * legal. Like {@link GameState#makeMove(Position, Position)}, the turn
+     * always passes.
+     *
+     * @param fromRow the row index of one end of the segment
+     * @param fromCol the column index of one end of the segment
+     * @param toRow the row index of the other end of the segment
+     * @param toCol the column index of the other end of the segment
+     */
+    public void makeMove(int fromRow, int fromCol, int toRow, int toCol) {
+        if (isLegalMove(fromRow, fromCol, toRow, toCol)) {
+            if (fromRow == toRow) {
+                clearRun(index(fromRow, Math.min(fromCol, toCol)), index(fromRow, Math.max(fromCol, toCol)));
+            } else {
+                for (int row = Math.min(fromRow, toRow); row <= Math.max(fromRow, toRow); row++) {
+                    clear(index(row, fromCol));
+                }
+            }
+            stones -= Math.abs(toRow - fromRow) + Math.abs(toCol - fromCol) + 1;
+        }
+        isPlayerOneTurn = !isPlayerOneTurn;
+    }
+
+    /**
+     * Checks if a cell contains a stone.
+     *
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @return true if the cell is on the board and contains a stone, false otherwise
+     */
+    public boolean hasStone(int row, int col) {
+        return isOnBoard(row, col) && isSet(index(row, col));
+    }
+
+    /**
+     * Puts a stone back into every cell and gives the turn to Player One.
+     */
+    public void resetBoard() {
+        fill();
+        isPlayerOneTurn = true;
+    }
+
+    /**
+     * Puts a stone into every cell.
+     */
+    private void fill() {
+        words.fill((byte) -1);
+        // Clear the bits past the last cell, so they never count as stones
+        int used = (int) (cells % Long.SIZE);
+        if (used != 0) {
+            words.setAtIndex(ValueLayout.JAVA_LONG, wordCount - 1, -1L >>> (Long.SIZE - used));
+        }
+        stones = cells;
+    }
+
+    /**
+     * Gets the number of rows of the board.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns of the board.
+     *
+     * @return the number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Gets the number of stones left on the board.
+     *
+     * @return the number of stones
+     */
+    public long getStoneCount() {
+        return stones;
+    }
+
+    /**
+     * Checks if it is Player One's turn.
+     *
+     * @return true if it is Player One's turn, false otherwise
+     */
+    public boolean isPlayerOneTurn() {
+        return isPlayerOneTurn;
+    }
+
+    /**
+     * Switches the turn to the next player.
+     */
+    public void switchTurn() {
+        isPlayerOneTurn = !isPlayerOneTurn;
+    }
+
+    /**
+     * Releases the native memory of the board.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private boolean isOnBoard(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    private long index(int row, int col) {
+        return (long) row * cols + col;
+    }
+
+    private long word(long index) {
+        return words.getAtIndex(ValueLayout.JAVA_LONG, index);
+    }
+
+    private boolean isSet(long cell) {
+        return (word(cell >>> 6) & 1L << cell) != 0;
+    }
+
+    private void clear(long cell) {
+        words.setAtIndex(ValueLayout.JAVA_LONG, cell >>> 6, word(cell >>> 6) & ~(1L << cell));
+    }
+
+    /**
+     * Checks if every cell of a run of consecutive cells contains a stone.
+     *
+     * @param first the index of the first cell of the run
+     * @param last the index of the last cell of the run, inclusive
+     * @return true if the run is full, false otherwise
+     */
+    private boolean isRunFull(long first, long last) {
+        long firstWord = first >>> 6;
+        long lastWord = last >>> 6;
+        long firstMask = -1L << first;
+        long lastMask = -1L >>> ~last;
+        if (firstWord == lastWord) {
+            long mask = firstMask & lastMask;
+            return (word(firstWord) & mask) == mask;
+        }
+        if ((word(firstWord) & firstMask) != firstMask) {
+            return false;
+        }
+        for (long w = firstWord + 1; w < lastWord; w++) {
+            if (word(w) != -1L) {
+                return false;
+            }
+        }
+        return (word(lastWord) & lastMask) == lastMask;
+    }
+
+    /**
+     * Removes the stones of a run of consecutive cells.
+     *
+     * @param first the index of the first cell of the run
+     * @param last the index of the last cell of the run, inclusive
+     */
+    private void clearRun(long first, long last) {
+        long firstWord = first >>> 6;
+        long lastWord = last >>> 6;
+        long firstMask = -1L << first;
+        long lastMask = -1L >>> ~last;
+        if (firstWord == lastWord) {
+            words.setAtIndex(ValueLayout.JAVA_LONG, firstWord, word(firstWord) & ~(firstMask & lastMask));
+            return;
+        }
+        words.setAtIndex(ValueLayout.JAVA_LONG, firstWord, word(firstWord) & ~firstMask);
+        for (long w = firstWord + 1; w < lastWord; w++) {
+            words.setAtIndex(ValueLayout.JAVA_LONG, w, 0L);
+        }
+        words.setAtIndex(ValueLayout.JAVA_LONG, lastWord, word(lastWord) & ~lastMask);
+    }
+
+    @Override
+    public String toString() {
+        return rows + "x" + cols + " board, " + stones + " stones, "
+                + (isPlayerOneTurn ? "Player 1" : "Player 2") + " to move";
+    }
+}
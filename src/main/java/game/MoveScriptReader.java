@@ -0,0 +1,135 @@
+package game;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the numbers of a move script from a stream of bytes, without
+ * allocating per number.
+ *
+ * <p>A move script is a sequence of non-negative decimal integers separated by
+ * whitespace or commas, four per move: the row and column of one end of the
+ * removed segment, then of the other end. A {@code #} starts a comment that
+ * runs to the end of the line. For example:</p>
+ *
+ * <pre>
+ * # game 1
+ * 0 0 0 3
+ * 1 1, 3 1
+ * </pre>
+ */
+public class MoveScriptReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long line = 1;
+
+    /**
+     * Constructs a reader of the given stream. The reader buffers the stream
+     * itself, so it need not be buffered.
+     *
+     * @param in the stream to read
+     */
+    public MoveScriptReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the next number of the script.
+     *
+     * @return the number, or -1 at the end of the stream
+     * @throws IOException if the stream cannot be read
+     * @throws IllegalArgumentException if the script contains anything other
+     * than numbers, separators and comments, or a number does not fit into an
+     * {@code int}
+     */
+    public int nextInt() throws IOException {
+        int c = skipSeparators();
+        if (c < 0) {
+            return -1;
+        }
+        if (!isDigit(c)) {
+            throw new IllegalArgumentException("Unexpected character '" + (char) c + "' on line " + line);
+        }
+        int value = 0;
+        do {
+            int digit = c - '0';
+            if (value > (Integer.MAX_VALUE - digit) / 10) {
+                throw new IllegalArgumentException("Number too large on line " + line);
+            }
+            value = value * 10 + digit;
+            c = read();
+        } while (isDigit(c));
+        if (c == '#' || c == '\n') {
+            // Leave the comment or line break to the next call, so it is skipped and counted there
+            position--;
+        } else if (c >= 0 && !isSeparator(c)) {
+            throw new IllegalArgumentException("Unexpected character '" + (char) c + "' on line " + line);
+        }
+        return value;
+    }
+
+    /**
+     * Gets the line of the script the reader is at.
+     *
+     * @return the line number, starting from 1
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Skips separators and comments.
+     *
+     * @return the first byte after them, or -1 at the end of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    private int skipSeparators() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == '\n') {
+                line++;
+            } else if (c == '#') {
+                do {
+                    c = read();
+                } while (c >= 0 && c != '\n');
+                if (c < 0) {
+                    return -1;
+                }
+                line++;
+            } else if (c < 0 || !isSeparator(c)) {
+                return c;
+            }
+        }
+    }
+
+    /**
+     * Reads the next byte, refilling the buffer when it runs out.
+     *
+     * @return the byte, or -1 at the end of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    private int read() throws IOException {
+        if (position == limit) {
+            int count = in.read(buffer, 0, BUFFER_SIZE);
+            if (count <= 0) {
+                return -1;
+            }
+            position = 0;
+            limit = count;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSeparator(int c) {
+        return c == ' ' || c == ',' || c == '\t' || c == '\r' || c == '\n' || c == '\f' || c == 0x0B;
+    }
+}
@@ -0,0 +1,132 @@
+package game;
+
+/**
+ * Utility methods for moves packed into a single {@code int}. A packed move
+ * holds the row and column of both ends of the removed segment, one byte
+ * each, so moves can be generated and stored without allocating
+ * {@link Position} objects. Packed moves support boards of up to
+ * {@link #MAX_SIZE} rows and columns.
+ *
+ * @see GameState#generateMoves(int[])
+ */
+public final class Moves {
+
+    /**
+     * The largest number of rows or columns a board may have for its moves to be packed.
+     */
+    public static final int MAX_SIZE = 255;
+
+    /**
+     * Stands for a move that removed no stones, i.e., an illegal move after
+     * which only the turn passed. It is not a valid packed move on any board,
+     * as its coordinates are all 255.
+     */
+    public static final int PASS = -1;
+
+    private Moves() {
+    }
+
+    /**
+     * Packs a move into an {@code int}.
+     *
+     * @param fromRow the row index of one end of the segment
+     * @param fromCol the column index of one end of the segment
+     * @param toRow the row index of the other end of the segment
+     * @param toCol the column index of the other end of the segment
+     * @return the packed move
+     */
+    public static int pack(int fromRow, int fromCol, int toRow, int toCol) {
+        return fromRow << 24 | fromCol << 16 | toRow << 8 | toCol;
+    }
+
+    /**
+     * Packs a move given by two positions into an {@code int}.
+     *
+     * @param from one end of the segment
+     * @param to the other end of the segment
+     * @return the packed move
+     */
+    public static int pack(Position from, Position to) {
+        return pack(from.row(), from.col(), to.row(), to.col());
+    }
+
+    /**
+     * Returns the row index of the first end of a packed move.
+     *
+     * @param move the packed move
+     * @return the row index
+     */
+    public static int fromRow(int move) {
+        return move >>> 24;
+    }
+
+    /**
+     * Returns the column index of the first end of a packed move.
+     *
+     * @param move the packed move
+     * @return the column index
+     */
+    public static int fromCol(int move) {
+        return (move >>> 16) & 0xFF;
+    }
+
+    /**
+     * Returns the row index of the second end of a packed move.
+     *
+     * @param move the packed move
+     * @return the row index
+     */
+    public static int toRow(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    /**
+     * Returns the column index of the second end of a packed move.
+     *
+     * @param move the packed move
+     * @return the column index
+     */
+    public static int toCol(int move) {
+        return move & 0xFF;
+    }
+
+    /**
+     * Returns the first end of a packed move as a {@code Position}.
+     *
+     * @param move the packed move
+     * @return the position of the first end
+     */
+    public static Position from(int move) {
+        return new Position(fromRow(move), fromCol(move));
+    }
+
+    /**
+     * Returns the second end of a packed move as a {@code Position}.
+     *
+     * @param move the packed move
+     * @return the position of the second end
+     */
+    public static Position to(int move) {
+        return new Position(toRow(move), toCol(move));
+    }
+
+    /**
+     * Returns the number of stones a packed move removes.
+     *
+     * @param move the packed move
+     * @return the length of the segment
+     */
+    public static int length(int move) {
+        return Math.abs(toRow(move) - fromRow(move)) + Math.abs(toCol(move) - fromCol(move)) + 1;
+    }
+
+    /**
+     * Returns a string representation of a packed move.
+     *
+     * @param move the packed move
+     * @return the two ends of the move, e.g., {@code "(0,1)-(0,3)"}
+     */
+    public static String toString(int move) {
+        return "(" + fromRow(move) + "," + fromCol(move) + ")-(" + toRow(move) + "," + toCol(move) + ")";
+    }
+}
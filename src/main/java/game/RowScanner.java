@@ -0,0 +1,42 @@
+package game;
+
+/**
+ * Scans and fills runs of cells within one row of an {@code int[][]} board,
+ * where 0 is an empty cell. {@link RowScans} picks the implementation to use.
+ */
+public interface RowScanner {
+
+    /**
+     * Checks if every cell of a run is empty.
+     *
+     * @param cells the cells of the row
+     * @param from the index of the first cell of the run
+     * @param to the index after the last cell of the run
+     * @return true if all cells of the run are 0, false otherwise
+     */
+    boolean isEmpty(int[] cells, int from, int to);
+
+    /**
+     * Checks if every cell of a run contains a stone.
+     *
+     * @param cells the cells of the row
+     * @param from the index of the first cell of the run
+     * @param to the index after the last cell of the run
+     * @return true if no cell of the run is 0, false otherwise
+     */
+    boolean isFull(int[] cells, int from, int to);
+
+    /**
+     * Sets every cell of a run to a value that none of them holds yet, and
+     * returns the combined Zobrist key of the cells, which all change.
+     *
+     * @param cells the cells of the row
+     * @param from the index of the first cell of the run
+     * @param to the index after the last cell of the run
+     * @param value the new value of the cells
+     * @param keys the Zobrist keys of the cells of the board
+     * @param keyOffset the index of the key of the first cell of the row
+     * @return the XOR of the keys of the cells of the run
+     */
+    long fill(int[] cells, int from, int to, int value, long[] keys, int keyOffset);
+}
@@ -0,0 +1,110 @@
+package game;
+
+import java.util.Optional;
+
+/**
+ * Picks between the scalar and the vectorized {@link RowScanner} for each
+ * scan, by the length of the run.
+ *
+ * <p>The vectorized scanner is used when the {@code jdk.incubator.vector}
+ * module is present, i.e., the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, and {@code -Dgame.vector=false}
+ * was not given. Even then, runs shorter than {@link #VECTOR_MIN_LENGTH}
+ * cells are scanned one cell at a time, as setting up vectors costs more than
+ * it saves on them ({@code RowScanBenchmark} measures the crossover).</p>
+ */
+public final class RowScans {
+
+    /**
+     * The shortest run that is scanned with vectors, e.g. {@code -Dgame.vector.minLength=32}.
+     */
+    public static final int VECTOR_MIN_LENGTH = Integer.getInteger("game.vector.minLength", 32);
+
+    private static final RowScanner VECTOR = loadVectorScanner();
+
+    private RowScans() {
+    }
+
+    /**
+     * Loads the vectorized scanner by name, so that its class, and with it the
+     * incubating module, is only linked if the module is present.
+     *
+     * @return the vectorized scanner, or {@code null} if it is not available or disabled
+     */
+    private static RowScanner loadVectorScanner() {
+        if (!Boolean.parseBoolean(System.getProperty("game.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (RowScanner) Class.forName("game.VectorRowScanner").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the scanner that checks one cell at a time.
+     *
+     * @return the scalar scanner
+     */
+    public static RowScanner scalar() {
+        return ScalarRowScanner.INSTANCE;
+    }
+
+    /**
+     * Gets the scanner that uses the Vector API.
+     *
+     * @return the vectorized scanner, or an empty optional if the
+     * {@code jdk.incubator.vector} module is not present or vectors are disabled
+     */
+    public static Optional<RowScanner> vector() {
+        return Optional.ofNullable(VECTOR);
+    }
+
+    /**
+     * Checks if every cell of a run is empty.
+     *
+     * @param cells the cells of the row
+     * @param from the index of the first cell of the run
+     * @param to the index after the last cell of the run
+     * @return true if all cells of the run are 0, false otherwise
+     * @see RowScanner#isEmpty(int[], int, int)
+     */
+    public static boolean isEmpty(int[] cells, int from, int to) {
+        return scanner(to - from).isEmpty(cells, from, to);
+    }
+
+    /**
+     * Checks if every cell of a run contains a stone.
+     *
+     * @param cells the cells of the row
+     * @param from the index of the first cell of the run
+     * @param to the index after the last cell of the run
+     * @return true if no cell of the run is 0, false otherwise
+     * @see RowScanner#isFull(int[], int, int)
+     */
+    public static boolean isFull(int[] cells, int from, int to) {
+        return scanner(to - from).isFull(cells, from, to);
+    }
+
+    /**
+     * Sets every cell of a run to a value that none of them holds yet.
+     *
+     * @param cells the cells of the row
+     * @param from the index of the first cell of the run
+     * @param to the index after the last cell of the run
+     * @param value the new value of the cells
+     * @param keys the Zobrist keys of the cells of the board
+     * @param keyOffset the index of the key of the first cell of the row
+     * @return the XOR of the keys of the cells of the run
+     * @see RowScanner#fill(int[], int, int, int, long[], int)
+     */
+    public static long fill(int[] cells, int from, int to, int value, long[] keys, int keyOffset) {
+        return scanner(to - from).fill(cells, from, to, value, keys, keyOffset);
+    }
+
+    private static RowScanner scanner(int length) {
+        return VECTOR != null && length >= VECTOR_MIN_LENGTH ? VECTOR : ScalarRowScanner.INSTANCE;
+    }
+}
@@ -0,0 +1,234 @@
+package game;
+
+/**
+ * Indexes the runs of stones in every row and column of a board, so whether a
+ * segment is fully occupied, and the longest segment through a cell, can be
+ * looked up without walking the cells.
+ *
+ * <p>Every row and every column has a bitmap of its cells, a set bit meaning a
+ * stone, kept in 64-bit words. A lookup finds the empty cells bounding a run
+ * with a few word operations: one word per line on boards up to 64 cells wide,
+ * and at most four on any board whose moves can be packed (see
+ * {@link Moves#MAX_SIZE}). Removing or putting back a segment of {@code k}
+ * stones changes the bits of the segment along its line and one bit in each
+ * of the {@code k} lines across it, so the index follows every move in time
+ * proportional to the move.</p>
+ */
+final class RunIndex {
+
+    private final int rows;
+    private final int cols;
+    // words per row bitmap, and per column bitmap
+    private final int rowWords;
+    private final int colWords;
+    // bit c of the bitmap of row r is set if cell (r, c) contains a stone
+    private final long[] rowBits;
+    // bit r of the bitmap of column c is set if cell (r, c) contains a stone
+    private final long[] colBits;
+
+    /**
+     * Constructs the index of a full board.
+     *
+     * @param rows the number of rows of the board
+     * @param cols the number of columns of the board
+     */
+    RunIndex(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        rowWords = (cols + Long.SIZE - 1) / Long.SIZE;
+        colWords = (rows + Long.SIZE - 1) / Long.SIZE;
+        rowBits = new long[rows * rowWords];
+        colBits = new long[cols * colWords];
+        reset();
+    }
+
+    /**
+     * Constructs a copy of an index that does not share any data with it.
+     *
+     * @param other the index to copy
+     */
+    RunIndex(RunIndex other) {
+        rows = other.rows;
+        cols = other.cols;
+        rowWords = other.rowWords;
+        colWords = other.colWords;
+        rowBits = other.rowBits.clone();
+        colBits = other.colBits.clone();
+    }
+
+    /**
+     * Sets the index back to a full board, where every run is a whole row or column.
+     */
+    void reset() {
+        for (int row = 0; row < rows; row++) {
+            setRange(rowBits, row * rowWords, 0, cols - 1, true);
+        }
+        for (int col = 0; col < cols; col++) {
+            setRange(colBits, col * colWords, 0, rows - 1, true);
+        }
+    }
+
+    /**
+     * Checks if every cell between two columns of a row contains a stone.
+     *
+     * @param row the row index
+     * @param fromCol the column index of the first cell
+     * @param toCol the column index of the last cell, not less than {@code fromCol}
+     * @return true if the segment is fully occupied, false otherwise
+     */
+    boolean isRowSegmentFull(int row, int fromCol, int toCol) {
+        return nextEmpty(rowBits, row * rowWords, fromCol, cols) > toCol;
+    }
+
+    /**
+     * Checks if every cell between two rows of a column contains a stone.
+     *
+     * @param col the column index
+     * @param fromRow the row index of the first cell
+     * @param toRow the row index of the last cell, not less than {@code fromRow}
+     * @return true if the segment is fully occupied, false otherwise
+     */
+    boolean isColSegmentFull(int col, int fromRow, int toRow) {
+        return nextEmpty(colBits, col * colWords, fromRow, rows) > toRow;
+    }
+
+    /**
+     * Gets the first cell of the run through a cell, which must contain a stone.
+     *
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @param isRow whether to look along the row or along the column
+     * @return the column index (along the row) or row index (along the
+     * column) of the first cell of the run
+     */
+    int runStart(int row, int col, boolean isRow) {
+        return isRow
+                ? previousEmpty(rowBits, row * rowWords, col) + 1
+                : previousEmpty(colBits, col * colWords, row) + 1;
+    }
+
+    /**
+     * Gets the last cell of the run through a cell, which must contain a stone.
+     *
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @param isRow whether to look along the row or along the column
+     * @return the column index (along the row) or row index (along the
+     * column) of the last cell of the run
+     */
+    int runEnd(int row, int col, boolean isRow) {
+        return isRow
+                ? nextEmpty(rowBits, row * rowWords, col, cols) - 1
+                : nextEmpty(colBits, col * colWords, row, rows) - 1;
+    }
+
+    /**
+     * Updates the index after the stones of a segment were removed.
+     *
+     * @param fromRow the row index of one end of the segment
+     * @param fromCol the column index of one end of the segment
+     * @param toRow the row index of the other end of the segment
+     * @param toCol the column index of the other end of the segment
+     */
+    void remove(int fromRow, int fromCol, int toRow, int toCol) {
+        update(fromRow, fromCol, toRow, toCol, false);
+    }
+
+    /**
+     * Updates the index after the stones of a segment were put back.
+     *
+     * @param fromRow the row index of one end of the segment
+     * @param fromCol the column index of one end of the segment
+     * @param toRow the row index of the other end of the segment
+     * @param toCol the column index of the other end of the segment
+     */
+    void restore(int fromRow, int fromCol, int toRow, int toCol) {
+        update(fromRow, fromCol, toRow, toCol, true);
+    }
+
+    /**
+     * Sets or clears the bits of a segment in the bitmaps of the rows and of
+     * the columns it covers.
+     *
+     * @param fromRow the row index of one end of the segment
+     * @param fromCol the column index of one end of the segment
+     * @param toRow the row index of the other end of the segment
+     * @param toCol the column index of the other end of the segment
+     * @param stone true if the stones were put back, false if they were removed
+     */
+    private void update(int fromRow, int fromCol, int toRow, int toCol, boolean stone) {
+        int minRow = Math.min(fromRow, toRow);
+        int maxRow = Math.max(fromRow, toRow);
+        int minCol = Math.min(fromCol, toCol);
+        int maxCol = Math.max(fromCol, toCol);
+        for (int row = minRow; row <= maxRow; row++) {
+            setRange(rowBits, row * rowWords, minCol, maxCol, stone);
+        }
+        for (int col = minCol; col <= maxCol; col++) {
+            setRange(colBits, col * colWords, minRow, maxRow, stone);
+        }
+    }
+
+    /**
+     * Sets or clears the bits between two positions of a line.
+     *
+     * @param bits the bitmaps of the lines in one direction
+     * @param base the index of the first word of the line
+     * @param from the position of the first bit
+     * @param to the position of the last bit, inclusive
+     * @param value true to set the bits, false to clear them
+     */
+    private static void setRange(long[] bits, int base, int from, int to, boolean value) {
+        int firstWord = base + (from >>> 6);
+        int lastWord = base + (to >>> 6);
+        for (int w = firstWord; w <= lastWord; w++) {
+            long mask = (w == firstWord ? -1L << from : -1L) & (w == lastWord ? -1L >>> ~to : -1L);
+            bits[w] = value ? bits[w] | mask : bits[w] & ~mask;
+        }
+    }
+
+    /**
+     * Finds the first empty cell of a line at or after a position.
+     *
+     * @param bits the bitmaps of the lines in one direction
+     * @param base the index of the first word of the line
+     * @param from the position to start at
+     * @param length the number of cells of the line
+     * @return the position of the empty cell, or {@code length} if the line is
+     * full from {@code from} on
+     */
+    private static int nextEmpty(long[] bits, int base, int from, int length) {
+        int w = from >>> 6;
+        int lastWord = (length - 1) >>> 6;
+        long empty = ~bits[base + w] & -1L << from;
+        while (empty == 0) {
+            if (++w > lastWord) {
+                return length;
+            }
+            empty = ~bits[base + w];
+        }
+        // The bits past the end of the line are never set, so they count as empty
+        return Math.min(w * Long.SIZE + Long.numberOfTrailingZeros(empty), length);
+    }
+
+    /**
+     * Finds the last empty cell of a line at or before a position.
+     *
+     * @param bits the bitmaps of the lines in one direction
+     * @param base the index of the first word of the line
+     * @param from the position to start at
+     * @return the position of the empty cell, or -1 if the line is full up to
+     * {@code from}
+     */
+    private static int previousEmpty(long[] bits, int base, int from) {
+        int w = from >>> 6;
+        long empty = ~bits[base + w] & -1L >>> ~from;
+        while (empty == 0) {
+            if (--w < 0) {
+                return -1;
+            }
+            empty = ~bits[base + w];
+        }
+        return w * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(empty);
+    }
+}
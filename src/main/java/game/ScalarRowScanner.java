@@ -0,0 +1,42 @@
+package game;
+
+/**
+ * Scans rows one cell at a time. Fastest on short rows, and always available.
+ */
+final class ScalarRowScanner implements RowScanner {
+
+    static final ScalarRowScanner INSTANCE = new ScalarRowScanner();
+
+    private ScalarRowScanner() {
+    }
+
+    @Override
+    public boolean isEmpty(int[] cells, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (cells[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isFull(int[] cells, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (cells[i] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long fill(int[] cells, int from, int to, int value, long[] keys, int keyOffset) {
+        long key = 0;
+        for (int i = from; i < to; i++) {
+            cells[i] = value;
+            key ^= keys[keyOffset + i];
+        }
+        return key;
+    }
+}
@@ -0,0 +1,67 @@
+package game;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scans rows many cells at a time with the Vector API, using the widest
+ * vectors the processor supports. Cells past the last whole vector are
+ * handled one at a time.
+ *
+ * <p>This is the only class that uses the incubating {@code jdk.incubator.vector}
+ * module. {@link RowScans} loads it by name only when the module is present,
+ * so the game runs without the module, falling back to
+ * {@link ScalarRowScanner}.</p>
+ */
+final class VectorRowScanner implements RowScanner {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public boolean isEmpty(int[] cells, int from, int to) {
+        int i = from;
+        for (int bound = from + INTS.loopBound(to - from); i < bound; i += INTS.length()) {
+            if (IntVector.fromArray(INTS, cells, i).compare(VectorOperators.NE, 0).anyTrue()) {
+                return false;
+            }
+        }
+        return ScalarRowScanner.INSTANCE.isEmpty(cells, i, to);
+    }
+
+    @Override
+    public boolean isFull(int[] cells, int from, int to) {
+        int i = from;
+        for (int bound = from + INTS.loopBound(to - from); i < bound; i += INTS.length()) {
+            if (IntVector.fromArray(INTS, cells, i).compare(VectorOperators.EQ, 0).anyTrue()) {
+                return false;
+            }
+        }
+        return ScalarRowScanner.INSTANCE.isFull(cells, i, to);
+    }
+
+    @Override
+    public long fill(int[] cells, int from, int to, int value, long[] keys, int keyOffset) {
+        IntVector values = IntVector.broadcast(INTS, value);
+        int i = from;
+        for (int bound = from + INTS.loopBound(to - from); i < bound; i += INTS.length()) {
+            values.intoArray(cells, i);
+        }
+        for (; i < to; i++) {
+            cells[i] = value;
+        }
+        LongVector combined = LongVector.zero(LONGS);
+        int k = keyOffset + from;
+        int end = keyOffset + to;
+        for (int bound = k + LONGS.loopBound(end - k); k < bound; k += LONGS.length()) {
+            combined = combined.lanewise(VectorOperators.XOR, LongVector.fromArray(LONGS, keys, k));
+        }
+        long key = combined.reduceLanes(VectorOperators.XOR);
+        for (; k < end; k++) {
+            key ^= keys[k];
+        }
+        return key;
+    }
+}
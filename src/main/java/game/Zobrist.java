@@ -0,0 +1,40 @@
+package game;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the random keys of Zobrist hashing. The hash of a position is the
+ * XOR of the keys of the cells that contain a stone, and of
+ * {@link #SIDE_TO_MOVE} if Player Two is to move, so it can be updated in
+ * constant time per stone removed or put back.
+ *
+ * <p>Keys are generated from a fixed seed, and the key of a cell depends only
+ * on its index, so hashes are stable across runs and board instances.</p>
+ */
+final class Zobrist {
+
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    /**
+     * The key that is part of the hash when Player Two is to move.
+     */
+    static final long SIDE_TO_MOVE = new SplittableRandom(~SEED).nextLong();
+
+    private static final Map<Integer, long[]> CELL_KEYS = new ConcurrentHashMap<>();
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the keys of the cells of a board. The returned array is shared
+     * and must not be modified.
+     *
+     * @param cells the number of cells of the board
+     * @return the keys, indexed by {@code row * cols + col}
+     */
+    static long[] cellKeys(int cells) {
+        return CELL_KEYS.computeIfAbsent(cells, n -> new SplittableRandom(SEED).longs(n).toArray());
+    }
+}
@@ -0,0 +1,463 @@
+package game.ai;
+
+import game.GameState;
+import game.Moves;
+import game.metrics.LatencyHistogram;
+import game.metrics.MetricsRegistry;
+import game.metrics.SearchEvent;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chooses moves with an iterative-deepening alpha-beta (negamax) search
+ * within a fixed wall-clock budget.
+ *
+ * <p>Each iteration searches one ply deeper than the previous one, so a
+ * completed result is always available when the deadline arrives; the
+ * unfinished iteration is discarded. Earlier iterations also order the moves
+ * of later ones: the best move stored in the transposition table is tried
+ * first, then the two killer moves of the ply (moves that caused a cutoff in a
+ * sibling position), then the remaining moves by their history score.</p>
+ *
+ * <p>The transposition table is keyed by {@link GameState#getHash()} and kept
+ * between calls. Positions beyond the search horizon are scored by the parity
+ * of the remaining stones: if every following move removed a single stone,
+ * the player to move would win exactly if an odd number of stones remained.
+ * Proven wins and losses score beyond {@link #WIN_THRESHOLD}, closer wins
+ * scoring higher.</p>
+ *
+ * <p>Moves are packed as described in {@link game.Moves}. An instance is not
+ * thread-safe.</p>
+ */
+public class AlphaBetaPlayer {
+
+    /**
+     * The score of a win at the root; a win {@code n} plies away scores {@code WIN - n}.
+     */
+    public static final int WIN = 1_000_000;
+
+    /**
+     * Scores above this value are proven wins, and below its negation proven losses.
+     */
+    public static final int WIN_THRESHOLD = WIN - 100_000;
+
+    private static final int INFINITY = WIN + 1;
+    private static final int PARITY_SCORE = 100;
+
+    private static final int EXACT = 0;
+    private static final int LOWER_BOUND = 1;
+    private static final int UPPER_BOUND = 2;
+
+    // move ordering priorities above any history score
+    private static final int TABLE_MOVE_PRIORITY = Integer.MAX_VALUE;
+    private static final int KILLER_PRIORITY = Integer.MAX_VALUE - 2;
+
+    private static final int HISTORY_BITS = 16;
+    // the deadline is checked every this many nodes
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private static final LongAdder SEARCH_NODES = MetricsRegistry.getDefault().counter("alphabeta_nodes_total");
+    private static final LongAdder TABLE_PROBES = MetricsRegistry.getDefault().counter("alphabeta_table_probes_total");
+    private static final LongAdder TABLE_HITS = MetricsRegistry.getDefault().counter("alphabeta_table_hits_total");
+    private static final LatencyHistogram SEARCH_TIME = MetricsRegistry.getDefault().histogram("alphabeta_search_seconds");
+
+    private final long budgetNanos;
+    private final int tableMask;
+    private final long[] tableKeys;
+    // move of the entry, and score, depth and bound type packed into one long
+    private final int[] tableMoves;
+    private final long[] tableData;
+    private final int[] history = new int[1 << HISTORY_BITS];
+
+    private GameState state;
+    private long deadline;
+    private boolean aborted;
+    private long nodes;
+    private long tableProbes;
+    private long tableHits;
+    private int[][] moveBuffers = new int[0][];
+    private int[][] priorityBuffers = new int[0][];
+    private int[][] killers = new int[0][];
+    // pv[ply] is the principal variation from ply onwards, pvLength[ply] its length
+    private int[][] pv = new int[0][];
+    private int[] pvLength = new int[0];
+
+    /**
+     * Constructs a player with a transposition table of about one million entries.
+     *
+     * @param budgetMillis the time to spend on each move, in milliseconds
+     */
+    public AlphaBetaPlayer(long budgetMillis) {
+        this(budgetMillis, 20);
+    }
+
+    /**
+     * Constructs a player.
+     *
+     * @param budgetMillis the time to spend on each move, in milliseconds
+     * @param tableBits the base 2 logarithm of the number of transposition table entries
+     * @throws IllegalArgumentException if {@code tableBits} is not between 1 and 28
+     */
+    public AlphaBetaPlayer(long budgetMillis, int tableBits) {
+        if (tableBits < 1 || tableBits > 28) {
+            throw new IllegalArgumentException("Table bits must be between 1 and 28: " + tableBits);
+        }
+        this.budgetNanos = budgetMillis * 1_000_000;
+        tableMask = (1 << tableBits) - 1;
+        tableKeys = new long[1 << tableBits];
+        tableMoves = new int[1 << tableBits];
+        Arrays.fill(tableMoves, Moves.PASS);
+        tableData = new long[1 << tableBits];
+    }
+
+    /**
+     * Chooses a move for the player to move in the given state. The state is
+     * not modified.
+     *
+     * @param state the current state, which must not be over
+     * @return the chosen packed move
+     * @throws IllegalArgumentException if the game is already over
+     */
+    public int chooseMove(GameState state) {
+        return search(state).move();
+    }
+
+    /**
+     * Searches the given state until the time budget runs out or the result
+     * is proven. The state is not modified.
+     *
+     * @param state the current state, which must not be over
+     * @return the result of the last completed iteration
+     * @throws IllegalArgumentException if the game is already over
+     */
+    public SearchResult search(GameState state) {
+        return search(state, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Searches the given state until the time budget runs out, the result is
+     * proven, or the given depth is completed. The state is not modified.
+     *
+     * @param state the current state, which must not be over
+     * @param maxDepth the maximum depth to search, in plies
+     * @return the result of the last completed iteration
+     * @throws IllegalArgumentException if the game is already over or {@code maxDepth} is not positive
+     */
+    public SearchResult search(GameState state, int maxDepth) {
+        if (state.isGameOver()) {
+            throw new IllegalArgumentException("The game is over");
+        }
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Depth must be positive: " + maxDepth);
+        }
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        this.state = new GameState(state);
+        deadline = start + budgetNanos;
+        aborted = false;
+        nodes = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        Arrays.fill(history, 0);
+        int stones = countStones(this.state.getBoard());
+        int plies = Math.min(maxDepth, stones);
+        ensureCapacity(plies + 1);
+
+        int bestMove = Moves.PASS;
+        int bestScore = 0;
+        int completedDepth = 0;
+        int[] principalVariation = new int[0];
+        long previousNodes = 0;
+        double branchingFactor = 0;
+        for (int depth = 1; depth <= plies; depth++) {
+            long iterationStart = nodes;
+            int score = negamax(depth, -INFINITY, INFINITY, 0, stones);
+            if (aborted) {
+                break;
+            }
+            long iterationNodes = nodes - iterationStart;
+            if (previousNodes > 0) {
+                branchingFactor = (double) iterationNodes / previousNodes;
+            }
+            previousNodes = iterationNodes;
+            completedDepth = depth;
+            bestScore = score;
+            bestMove = pv[0][0];
+            principalVariation = Arrays.copyOf(pv[0], pvLength[0]);
+            if (Math.abs(score) > WIN_THRESHOLD) {
+                break;
+            }
+        }
+        if (completedDepth == 0) {
+            // Not even one ply fitted into the budget, so play any legal move
+            this.state.generateMoves(moveBuffers[0]);
+            bestMove = moveBuffers[0][0];
+            principalVariation = new int[]{bestMove};
+        }
+        this.state = null;
+        SearchResult result = new SearchResult(bestMove, bestScore, completedDepth, principalVariation, nodes,
+                System.nanoTime() - start, branchingFactor, tableProbes, tableHits);
+        record(result, event);
+        return result;
+    }
+
+    /**
+     * Adds a finished search to the metrics and commits its Flight Recorder event.
+     *
+     * @param result the result of the search
+     * @param event the event begun at the start of the search
+     */
+    private static void record(SearchResult result, SearchEvent event) {
+        SEARCH_NODES.add(result.nodes());
+        TABLE_PROBES.add(result.tableProbes());
+        TABLE_HITS.add(result.tableHits());
+        SEARCH_TIME.record(result.nanos());
+        if (event.shouldCommit()) {
+            event.engine = "alphabeta";
+            event.move = Moves.toString(result.move());
+            event.depth = result.depth();
+            event.nodes = result.nodes();
+            event.tableProbes = result.tableProbes();
+            event.tableHits = result.tableHits();
+            event.tableHitRate = result.tableHitRate();
+            event.commit();
+        }
+    }
+
+    /**
+     * Searches a position to the given depth.
+     *
+     * @param depth the remaining depth, in plies
+     * @param alpha the score the player to move is already guaranteed
+     * @param beta the score the opponent is already guaranteed, negated
+     * @param ply the distance from the root
+     * @param stones the number of stones on the board
+     * @return the score of the position for the player to move, or 0 if the
+     * search was aborted
+     */
+    private int negamax(int depth, int alpha, int beta, int ply, int stones) {
+        pvLength[ply] = 0;
+        if (++nodes % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+            return 0;
+        }
+        if (stones == 0) {
+            // The opponent removed the last stone
+            return -(WIN - ply);
+        }
+        if (depth == 0) {
+            return (stones & 1) != 0 ? PARITY_SCORE : -PARITY_SCORE;
+        }
+
+        long hash = state.getHash();
+        int slot = (int) (hash ^ (hash >>> 32)) & tableMask;
+        // Moves.PASS, not 0, which is the legal move (0,0)-(0,0)
+        int tableMove = Moves.PASS;
+        tableProbes++;
+        if (tableKeys[slot] == hash && tableData[slot] != 0) {
+            tableHits++;
+            tableMove = tableMoves[slot];
+            long data = tableData[slot];
+            if (entryDepth(data) >= depth && ply > 0) {
+                int score = fromTableScore(entryScore(data), ply);
+                int bound = entryBound(data);
+                if (bound == EXACT || (bound == LOWER_BOUND && score >= beta) || (bound == UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int[] priorities = priorityBuffers[ply];
+        int count = state.generateMoves(moves);
+        int[] plyKillers = killers[ply];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == tableMove) {
+                priorities[i] = TABLE_MOVE_PRIORITY;
+            } else if (move == plyKillers[0]) {
+                priorities[i] = KILLER_PRIORITY;
+            } else if (move == plyKillers[1]) {
+                priorities[i] = KILLER_PRIORITY - 1;
+            } else {
+                priorities[i] = history[historyIndex(move)];
+            }
+        }
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Moves.PASS;
+        for (int i = 0; i < count; i++) {
+            // Selection sort step: most moves are never reached after a cutoff
+            int best = i;
+            for (int j = i + 1; j < count; j++) {
+                if (priorities[j] > priorities[best]) {
+                    best = j;
+                }
+            }
+            int move = moves[best];
+            moves[best] = moves[i];
+            priorities[best] = priorities[i];
+            moves[i] = move;
+
+            state.makeMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1, stones - Moves.length(move));
+            state.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    pv[ply][0] = move;
+                    System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+                    pvLength[ply] = pvLength[ply + 1] + 1;
+                }
+            }
+            if (alpha >= beta) {
+                if (move != plyKillers[0]) {
+                    plyKillers[1] = plyKillers[0];
+                    plyKillers[0] = move;
+                }
+                history[historyIndex(move)] += depth * depth;
+                break;
+            }
+        }
+
+        int bound = bestScore <= originalAlpha ? UPPER_BOUND : bestScore >= beta ? LOWER_BOUND : EXACT;
+        tableKeys[slot] = hash;
+        tableMoves[slot] = bestMove;
+        tableData[slot] = packEntry(toTableScore(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Counts the stones on a board.
+     *
+     * @param board the board
+     * @return the number of nonzero cells
+     */
+    private static int countStones(int[][] board) {
+        int count = 0;
+        for (int[] row : board) {
+            for (int cell : row) {
+                if (cell != 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Makes sure the per-ply buffers cover the given number of plies. Buffers
+     * are kept between searches, and grown only as deeper searches need them.
+     *
+     * @param plies the number of plies to cover
+     */
+    private void ensureCapacity(int plies) {
+        int maxMoves = state.maxMoveCount();
+        if (moveBuffers.length > 0 && moveBuffers[0].length != maxMoves) {
+            // The board size changed, so the old buffers do not fit
+            moveBuffers = new int[0][];
+            priorityBuffers = new int[0][];
+            killers = new int[0][];
+        }
+        int old = moveBuffers.length;
+        if (old >= plies + 1) {
+            return;
+        }
+        moveBuffers = Arrays.copyOf(moveBuffers, plies + 1);
+        priorityBuffers = Arrays.copyOf(priorityBuffers, plies + 1);
+        killers = Arrays.copyOf(killers, plies + 1);
+        pv = new int[plies + 1][plies + 1];
+        pvLength = new int[plies + 1];
+        for (int ply = old; ply <= plies; ply++) {
+            moveBuffers[ply] = new int[maxMoves];
+            priorityBuffers[ply] = new int[maxMoves];
+            killers[ply] = new int[]{Moves.PASS, Moves.PASS};
+        }
+    }
+
+    /**
+     * Returns the history table slot of a move.
+     *
+     * @param move a packed move
+     * @return the slot index
+     */
+    private static int historyIndex(int move) {
+        return (move * 0x9E3779B1) >>> (Integer.SIZE - HISTORY_BITS);
+    }
+
+    /**
+     * Converts a score relative to the root into one relative to the current
+     * position, so a stored win keeps its distance when reached by another path.
+     *
+     * @param score the score relative to the root
+     * @param ply the distance of the position from the root
+     * @return the score to store
+     */
+    private static int toTableScore(int score, int ply) {
+        return score > WIN_THRESHOLD ? score + ply : score < -WIN_THRESHOLD ? score - ply : score;
+    }
+
+    /**
+     * Converts a stored score back into one relative to the root.
+     *
+     * @param score the stored score
+     * @param ply the distance of the position from the root
+     * @return the score relative to the root
+     */
+    private static int fromTableScore(int score, int ply) {
+        return score > WIN_THRESHOLD ? score - ply : score < -WIN_THRESHOLD ? score + ply : score;
+    }
+
+    /**
+     * Packs the data of a table entry. The depth of a stored entry is at least
+     * one, so a packed entry is never zero, which marks an empty slot.
+     *
+     * @param score the score
+     * @param depth the depth the score was searched to
+     * @param bound whether the score is exact, a lower bound or an upper bound
+     * @return the packed entry
+     */
+    private static long packEntry(int score, int depth, int bound) {
+        return ((long) score << 32) | ((long) depth << 2) | bound;
+    }
+
+    private static int entryScore(long data) {
+        return (int) (data >> 32);
+    }
+
+    private static int entryDepth(long data) {
+        return (int) data >>> 2;
+    }
+
+    private static int entryBound(long data) {
+        return (int) data & 3;
+    }
+
+    /**
+     * Empties the transposition table.
+     */
+    public void clear() {
+        Arrays.fill(tableKeys, 0L);
+        Arrays.fill(tableMoves, Moves.PASS);
+        Arrays.fill(tableData, 0L);
+    }
+
+    /**
+     * Searches the opening of the given board size and prints the result.
+     *
+     * @param args the board size (default 5) and the time budget in milliseconds (default 1000)
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        System.out.println(new AlphaBetaPlayer(millis).search(new GameState(size)));
+    }
+}
@@ -0,0 +1,434 @@
+package game.ai;
+
+import game.GameState;
+import game.Moves;
+import game.metrics.LatencyHistogram;
+import game.metrics.MetricsRegistry;
+import game.metrics.SearchEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chooses moves with Monte Carlo Tree Search within a fixed wall-clock budget.
+ *
+ * <p>Several threads grow one shared search tree. Each iteration walks down
+ * the tree choosing children by UCT, expands the leaf, finishes the game with
+ * random moves, and credits the result to every node on the path. While a
+ * thread is inside a node, the node carries a virtual loss, so other threads
+ * prefer different branches instead of repeating the same line.</p>
+ *
+ * <p>The tree is kept between calls: when asked for the next move, the player
+ * looks for the new position among the grandchildren of the previous root
+ * (its own move and the opponent's reply) and continues from that subtree.</p>
+ *
+ * <p>Moves are packed as described in {@link game.Moves}, so boards of up to
+ * 255x255 cells are supported. Call {@link #close()} to stop the worker
+ * threads.</p>
+ */
+public class MctsPlayer implements AutoCloseable {
+
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final int VIRTUAL_LOSS = 1;
+    // random cells tried by a playout step before it falls back to listing all moves
+    private static final int PLAYOUT_SAMPLES = 16;
+
+    private static final LongAdder ITERATIONS = MetricsRegistry.getDefault().counter("mcts_iterations_total");
+    private static final LatencyHistogram SEARCH_TIME = MetricsRegistry.getDefault().histogram("mcts_search_seconds");
+
+    private final long budgetNanos;
+    private final int threads;
+    private final ExecutorService pool;
+    private final SplittableRandom seeds = new SplittableRandom();
+
+    private Node root;
+
+    /**
+     * Constructs a player that uses all available processors.
+     *
+     * @param budgetMillis the time to spend on each move, in milliseconds
+     */
+    public MctsPlayer(long budgetMillis) {
+        this(budgetMillis, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a player.
+     *
+     * @param budgetMillis the time to spend on each move, in milliseconds
+     * @param threads the number of search threads; with a single thread the
+     * search runs on the calling thread
+     */
+    public MctsPlayer(long budgetMillis, int threads) {
+        this.budgetNanos = budgetMillis * 1_000_000;
+        this.threads = threads;
+        pool = threads > 1 ? Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "mcts-worker");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * A node of the search tree. The statistics are kept from the point of
+     * view of the player who made the move leading to the node. An expanded
+     * node knows its legal moves, but creates the child of a move only when
+     * the move is first tried, since most moves on a large board never are.
+     */
+    private static final class Node {
+
+        private final int move;
+        private final long hash;
+        private final boolean moverIsPlayerOne;
+        private Node parent;
+        private volatile int[] moves;
+        private Node[] children;
+        private final AtomicInteger visits = new AtomicInteger();
+        private final AtomicInteger wins = new AtomicInteger();
+        private final AtomicInteger virtualLoss = new AtomicInteger();
+
+        private Node(int move, long hash, boolean moverIsPlayerOne, Node parent) {
+            this.move = move;
+            this.hash = hash;
+            this.moverIsPlayerOne = moverIsPlayerOne;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * Chooses a move for the player to move in the given state. The state is
+     * not modified.
+     *
+     * @param state the current state, which must not be over
+     * @return the chosen packed move
+     * @throws IllegalArgumentException if the game is already over
+     */
+    public synchronized int chooseMove(GameState state) {
+        if (state.isGameOver()) {
+            throw new IllegalArgumentException("The game is over");
+        }
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        root = reuseOrCreateRoot(state);
+        int reusedVisits = root.visits.get();
+        long deadline = start + budgetNanos;
+
+        if (pool == null) {
+            search(new GameState(state), deadline, seeds.split());
+        } else {
+            List<Callable<Void>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                GameState copy = new GameState(state);
+                SplittableRandom random = seeds.split();
+                workers.add(() -> {
+                    search(copy, deadline, random);
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> future : pool.invokeAll(workers)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search worker failed", e.getCause());
+            }
+        }
+
+        Node best = null;
+        if (root.moves != null) {
+            for (Node child : root.children) {
+                if (child != null && (best == null || child.visits.get() > best.visits.get())) {
+                    best = child;
+                }
+            }
+        }
+        // An interrupt can stop the search before any move was tried
+        int move = best != null ? best.move : firstMove(state);
+        int iterations = root.visits.get() - reusedVisits;
+        ITERATIONS.add(iterations);
+        SEARCH_TIME.record(System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.engine = "mcts";
+            event.move = Moves.toString(move);
+            event.nodes = iterations;
+            event.commit();
+        }
+        return move;
+    }
+
+    /**
+     * Returns the first legal move of a position, for when the search was
+     * stopped before it tried any move.
+     *
+     * @param state the current state, which must not be over
+     * @return the first packed move listed by {@link GameState#generateMoves(int[])}
+     */
+    private static int firstMove(GameState state) {
+        int[] moves = new int[state.maxMoveCount()];
+        state.generateMoves(moves);
+        return moves[0];
+    }
+
+    /**
+     * Returns the node of the previous search tree that matches the given
+     * state, or a new root if there is none.
+     *
+     * @param state the current state
+     * @return the root to search from, detached from its parent
+     */
+    private Node reuseOrCreateRoot(GameState state) {
+        long hash = state.getHash();
+        if (root != null) {
+            if (root.hash == hash) {
+                return root;
+            }
+            Node match = findChild(root, hash);
+            if (match == null && root.moves != null) {
+                for (Node child : root.children) {
+                    match = child == null ? null : findChild(child, hash);
+                    if (match != null) {
+                        break;
+                    }
+                }
+            }
+            if (match != null) {
+                match.parent = null;
+                return match;
+            }
+        }
+        return new Node(0, hash, !state.isPlayerOneTurn(), null);
+    }
+
+    /**
+     * Finds the child of a node with the given position hash.
+     *
+     * @param node the node whose children to search
+     * @param hash the hash of the position to find
+     * @return the matching child, or {@code null} if there is none
+     */
+    private static Node findChild(Node node, long hash) {
+        if (node.moves != null) {
+            for (Node child : node.children) {
+                if (child != null && child.hash == hash) {
+                    return child;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs search iterations until the deadline, or until the thread is
+     * interrupted. At least one iteration is run. The state is the root
+     * position, and is back at the root position when this method returns.
+     *
+     * @param state a private copy of the root position
+     * @param deadline the value of {@link System#nanoTime()} at which to stop
+     * @param random the random number generator of this thread
+     */
+    private void search(GameState state, long deadline, SplittableRandom random) {
+        int[] moves = new int[state.maxMoveCount()];
+        Node[] path = new Node[state.getRows() * state.getCols() + 1];
+        do {
+            // Selection: walk down while the nodes are expanded
+            int depth = 0;
+            Node node = root;
+            path[depth++] = node;
+            node.virtualLoss.addAndGet(VIRTUAL_LOSS);
+            while (node.moves != null && node.moves.length > 0) {
+                node = child(node, select(node, random), state);
+                path[depth++] = node;
+                node.virtualLoss.addAndGet(VIRTUAL_LOSS);
+            }
+
+            // Expansion: list the moves of the leaf, then step into one of them
+            if (!state.isGameOver()) {
+                expand(node, state, moves);
+                node = child(node, random.nextInt(node.moves.length), state);
+                path[depth++] = node;
+                node.virtualLoss.addAndGet(VIRTUAL_LOSS);
+            }
+
+            // Simulation: finish the game with random moves, then take them back
+            int playoutMoves = 0;
+            while (!state.isGameOver()) {
+                state.makeMove(randomMove(state, moves, random));
+                playoutMoves++;
+            }
+            // The player who made the last move wins, i.e., the one not to move now
+            boolean playerOneWon = !state.isPlayerOneTurn();
+            for (int i = 0; i < playoutMoves; i++) {
+                state.unmakeMove();
+            }
+
+            // Backpropagation
+            for (int i = depth - 1; i >= 0; i--) {
+                Node n = path[i];
+                n.visits.incrementAndGet();
+                if (n.moverIsPlayerOne == playerOneWon) {
+                    n.wins.incrementAndGet();
+                }
+                n.virtualLoss.addAndGet(-VIRTUAL_LOSS);
+                if (i > 0) {
+                    state.unmakeMove();
+                }
+            }
+        } while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted());
+    }
+
+    /**
+     * Chooses a random legal move for a playout. Picks a random stone and a
+     * random segment through it in a random direction, which takes time
+     * proportional to the length of the segment rather than the size of the
+     * board. Listing all moves is only needed when few stones are left.
+     *
+     * @param state the current position, which must not be over
+     * @param moves a buffer for the legal moves
+     * @param random the random number generator of this thread
+     * @return a legal packed move
+     */
+    private static int randomMove(GameState state, int[] moves, SplittableRandom random) {
+        int[][] board = state.getBoard();
+        int rows = board.length;
+        int cols = board[0].length;
+        for (int attempt = 0; attempt < PLAYOUT_SAMPLES; attempt++) {
+            int row = random.nextInt(rows);
+            int col = random.nextInt(cols);
+            if (board[row][col] == 0) {
+                continue;
+            }
+            if (random.nextBoolean()) {
+                int start = col;
+                int end = col;
+                while (start > 0 && board[row][start - 1] != 0) {
+                    start--;
+                }
+                while (end < cols - 1 && board[row][end + 1] != 0) {
+                    end++;
+                }
+                return Moves.pack(row, random.nextInt(start, col + 1), row, random.nextInt(col, end + 1));
+            }
+            int start = row;
+            int end = row;
+            while (start > 0 && board[start - 1][col] != 0) {
+                start--;
+            }
+            while (end < rows - 1 && board[end + 1][col] != 0) {
+                end++;
+            }
+            return Moves.pack(random.nextInt(start, row + 1), col, random.nextInt(row, end + 1), col);
+        }
+        int count = state.generateMoves(moves);
+        return moves[random.nextInt(count)];
+    }
+
+    /**
+     * Chooses the move with the highest UCT value, counting virtual losses as
+     * visits without a win. Moves that were never tried come first; the scan
+     * starts at a random move, so they are tried in random order.
+     *
+     * @param node an expanded node
+     * @param random the random number generator of this thread
+     * @return the index of the selected move
+     */
+    private static int select(Node node, SplittableRandom random) {
+        Node[] children = node.children;
+        int count = children.length;
+        double logVisits = Math.log(Math.max(1, node.visits.get() + node.virtualLoss.get()));
+        int best = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        int offset = random.nextInt(count);
+        for (int k = 0; k < count; k++) {
+            int i = offset + k < count ? offset + k : offset + k - count;
+            Node child = children[i];
+            if (child == null) {
+                return i;
+            }
+            int visits = child.visits.get() + child.virtualLoss.get();
+            if (visits == 0) {
+                return i;
+            }
+            double value = (double) child.wins.get() / visits + EXPLORATION * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Makes a move of an expanded node and returns the child it leads to,
+     * creating the child if the move is tried for the first time.
+     *
+     * @param node an expanded node
+     * @param index the index of the move
+     * @param state the position of the node, which is advanced by the move
+     * @return the child of the move
+     */
+    private static Node child(Node node, int index, GameState state) {
+        boolean moverIsPlayerOne = state.isPlayerOneTurn();
+        state.makeMove(node.moves[index]);
+        Node child = node.children[index];
+        if (child == null) {
+            synchronized (node) {
+                child = node.children[index];
+                if (child == null) {
+                    child = new Node(node.moves[index], state.getHash(), moverIsPlayerOne, node);
+                    node.children[index] = child;
+                }
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Lists the moves of a leaf. If another thread expands the same leaf
+     * first, its moves are kept.
+     *
+     * @param node the leaf to expand
+     * @param state the position of the leaf
+     * @param moves a buffer for the legal moves
+     */
+    private static void expand(Node node, GameState state, int[] moves) {
+        synchronized (node) {
+            if (node.moves != null) {
+                return;
+            }
+            int count = state.generateMoves(moves);
+            node.children = new Node[count];
+            node.moves = Arrays.copyOf(moves, count);
+        }
+    }
+
+    /**
+     * Gets the number of iterations that went through the current root.
+     *
+     * @return the number of visits of the root, or 0 before the first search
+     */
+    public int getRootVisits() {
+        return root == null ? 0 : root.visits.get();
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
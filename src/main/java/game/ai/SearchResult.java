@@ -0,0 +1,123 @@
+package game.ai;
+
+import game.Moves;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * The outcome of a search by {@link AlphaBetaPlayer}: the best move found,
+ * the line of play the engine expects, and statistics of the search.
+ *
+ * @param move the best packed move found
+ * @param score the score of the move for the player to move; scores above
+ * {@link AlphaBetaPlayer#WIN_THRESHOLD} are proven wins, and below its
+ * negation proven losses
+ * @param depth the depth of the last completed iteration, in plies
+ * @param principalVariation the expected line of play starting with {@code move};
+ * the array is copied, so the result cannot be changed through it
+ * @param nodes the number of positions visited by all iterations
+ * @param nanos the time the search took, in nanoseconds
+ * @param effectiveBranchingFactor the number of nodes of the last completed
+ * iteration divided by the number of nodes of the one before
+ * @param tableProbes the number of transposition table lookups
+ * @param tableHits the number of lookups that found an entry for the position
+ */
+public record SearchResult(int move, int score, int depth, int[] principalVariation, long nodes, long nanos,
+                           double effectiveBranchingFactor, long tableProbes, long tableHits) {
+
+    /**
+     * Constructs a search result, copying the principal variation.
+     */
+    public SearchResult {
+        principalVariation = principalVariation.clone();
+    }
+
+    /**
+     * Returns the expected line of play starting with {@code move}.
+     *
+     * @return a copy of the principal variation as packed moves
+     */
+    @Override
+    public int[] principalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * Returns the number of positions visited per second.
+     *
+     * @return the search speed in nodes per second
+     */
+    public double nodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1e9 / nanos;
+    }
+
+    /**
+     * Returns the fraction of transposition table lookups that found an entry.
+     *
+     * @return the hit rate between 0 and 1
+     */
+    public double tableHitRate() {
+        return tableProbes == 0 ? 0 : (double) tableHits / tableProbes;
+    }
+
+    /**
+     * Checks whether the search proved that the player to move wins.
+     *
+     * @return true if the score is a proven win, false otherwise
+     */
+    public boolean isProvenWin() {
+        return score > AlphaBetaPlayer.WIN_THRESHOLD;
+    }
+
+    /**
+     * Checks whether the search proved that the player to move loses.
+     *
+     * @return true if the score is a proven loss, false otherwise
+     */
+    public boolean isProvenLoss() {
+        return score < -AlphaBetaPlayer.WIN_THRESHOLD;
+    }
+
+    /**
+     * Compares the components of two results, the principal variations by
+     * their moves rather than by identity.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SearchResult other
+                && move == other.move
+                && score == other.score
+                && depth == other.depth
+                && Arrays.equals(principalVariation, other.principalVariation)
+                && nodes == other.nodes
+                && nanos == other.nanos
+                && Double.compare(effectiveBranchingFactor, other.effectiveBranchingFactor) == 0
+                && tableProbes == other.tableProbes
+                && tableHits == other.tableHits;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Integer.hashCode(move);
+        result = 31 * result + Integer.hashCode(score);
+        result = 31 * result + Integer.hashCode(depth);
+        result = 31 * result + Arrays.hashCode(principalVariation);
+        result = 31 * result + Long.hashCode(nodes);
+        result = 31 * result + Long.hashCode(nanos);
+        result = 31 * result + Double.hashCode(effectiveBranchingFactor);
+        result = 31 * result + Long.hashCode(tableProbes);
+        result = 31 * result + Long.hashCode(tableHits);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner pv = new StringJoiner(" ");
+        for (int m : principalVariation) {
+            pv.add(Moves.toString(m));
+        }
+        return String.format("depth %d score %d nodes %d (%.0f nodes/s, EBF %.2f, TT hits %.1f%%) pv %s",
+                depth, score, nodes, nodesPerSecond(), effectiveBranchingFactor, 100 * tableHitRate(), pv);
+    }
+}
@@ -0,0 +1,63 @@
+package game.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for a check whether a move is legal on a
+ * {@link game.GameState}.
+ *
+ * <p>Searches check millions of moves, so the event is disabled by default.
+ * Enable it for a recording with e.g.
+ * {@code -XX:StartFlightRecording:game.LegalityCheck#enabled=true}.</p>
+ */
+@Name("game.LegalityCheck")
+@Label("Legality Check")
+@Category({"Game", "Rules"})
+@Description("A check whether a move is legal")
+@Enabled(false)
+@StackTrace(false)
+public class LegalityCheckEvent extends Event {
+
+    @Label("From Row")
+    public int fromRow;
+
+    @Label("From Column")
+    public int fromCol;
+
+    @Label("To Row")
+    public int toRow;
+
+    @Label("To Column")
+    public int toCol;
+
+    @Label("Legal")
+    @Description("Whether the move is legal")
+    public boolean legal;
+
+    /**
+     * Fills in the event and commits it, if it is enabled and passes the
+     * threshold; otherwise does nothing.
+     *
+     * @param fromRow the row index of one end of the move
+     * @param fromCol the column index of one end of the move
+     * @param toRow the row index of the other end of the move
+     * @param toCol the column index of the other end of the move
+     * @param legal whether the move is legal
+     */
+    public void record(int fromRow, int fromCol, int toRow, int toCol, boolean legal) {
+        if (shouldCommit()) {
+            this.fromRow = fromRow;
+            this.fromCol = fromCol;
+            this.toRow = toRow;
+            this.toCol = toCol;
+            this.legal = legal;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package game.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named counters and latency histograms that any thread can update without
+ * locking, and that can be written to a file in the Prometheus text format,
+ * e.g. for the textfile collector of a node exporter.
+ *
+ * <p>Look a metric up once, e.g. into a static field, and update it on the
+ * hot path: looking up is a map access, while updating is a single
+ * {@link LongAdder} or {@link LatencyHistogram} operation. Names should follow
+ * the Prometheus conventions, e.g. {@code search_nodes_total}; histograms are
+ * written as summaries in seconds.</p>
+ */
+public class MetricsRegistry {
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private ScheduledExecutorService exporter;
+
+    /**
+     * Gets the registry shared by the whole application.
+     *
+     * @return the default registry
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets the counter with the given name, creating it if needed.
+     *
+     * @param name the name of the counter
+     * @return the counter
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Gets the latency histogram with the given name, creating it if needed.
+     *
+     * @param name the name of the histogram
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Formats the current values of all metrics in the Prometheus text format.
+     *
+     * @return the metrics, one sample per line
+     */
+    public String format() {
+        StringBuilder out = new StringBuilder();
+        counters.forEach((name, counter) -> {
+            out.append("# TYPE ").append(name).append(" counter\n");
+            out.append(name).append(' ').append(counter.sum()).append('\n');
+        });
+        histograms.forEach((name, histogram) -> {
+            out.append("# TYPE ").append(name).append(" summary\n");
+            for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+                out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                        .append(histogram.getValueAtPercentile(quantile * 100) / 1e9).append('\n');
+            }
+            out.append(name).append("_sum ").append(histogram.getSum() / 1e9).append('\n');
+            out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+        });
+        return out.toString();
+    }
+
+    /**
+     * Writes the current values of all metrics to a file. The file is
+     * replaced as a whole, so readers never see a partly written file.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void exportTo(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temporary, format(), StandardCharsets.UTF_8);
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Starts writing the metrics to a file periodically on a daemon thread,
+     * replacing any earlier export schedule.
+     *
+     * @param file the file to write
+     * @param periodMillis the time between two exports, in milliseconds
+     */
+    public synchronized void startExporting(Path file, long periodMillis) {
+        stopExporting();
+        exporter = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("metrics-exporter").factory());
+        exporter.scheduleAtFixedRate(() -> {
+            try {
+                exportTo(file);
+            } catch (IOException e) {
+                System.err.println("Could not export metrics to " + file + ": " + e);
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic export, if it was started.
+     */
+    public synchronized void stopExporting() {
+        if (exporter != null) {
+            exporter.shutdownNow();
+            exporter = null;
+        }
+    }
+
+    /**
+     * Stops the periodic export and writes the metrics one last time.
+     *
+     * @param file the file to write
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public void finishExporting(Path file) {
+        stopExporting();
+        try {
+            exportTo(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package game.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for a move made on a {@link game.GameState}.
+ *
+ * <p>Searches make millions of moves, so the event is disabled by default.
+ * Enable it for a recording with e.g.
+ * {@code -XX:StartFlightRecording:game.Move#enabled=true}.</p>
+ */
+@Name("game.Move")
+@Label("Move")
+@Category({"Game", "Rules"})
+@Description("A move made on the board, legal or not")
+@Enabled(false)
+@StackTrace(false)
+public class MoveEvent extends Event {
+
+    @Label("From Row")
+    public int fromRow;
+
+    @Label("From Column")
+    public int fromCol;
+
+    @Label("To Row")
+    public int toRow;
+
+    @Label("To Column")
+    public int toCol;
+
+    @Label("Legal")
+    @Description("Whether stones were removed; an illegal move only passes the turn")
+    public boolean legal;
+
+    /**
+     * Fills in the event and commits it, if it is enabled and passes the
+     * threshold; otherwise does nothing.
+     *
+     * @param fromRow the row index of one end of the move
+     * @param fromCol the column index of one end of the move
+     * @param toRow the row index of the other end of the move
+     * @param toCol the column index of the other end of the move
+     * @param legal whether the move is legal
+     */
+    public void record(int fromRow, int fromCol, int toRow, int toCol, boolean legal) {
+        if (shouldCommit()) {
+            this.fromRow = fromRow;
+            this.fromCol = fromCol;
+            this.toRow = toRow;
+            this.toCol = toCol;
+            this.legal = legal;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package game.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for one move chosen by a search engine. The
+ * duration of the event is the time the engine took to choose the move.
+ */
+@Name("game.Search")
+@Label("Search")
+@Category({"Game", "Search"})
+@Description("A move chosen by a search engine")
+@StackTrace(false)
+public class SearchEvent extends Event {
+
+    @Label("Engine")
+    public String engine;
+
+    @Label("Move")
+    public String move;
+
+    @Label("Depth")
+    @Description("The depth of the last completed iteration, in plies, or 0 if the engine has no fixed depth")
+    public int depth;
+
+    @Label("Nodes")
+    @Description("The number of positions searched, or of iterations for Monte Carlo searches")
+    public long nodes;
+
+    @Label("Table Probes")
+    public long tableProbes;
+
+    @Label("Table Hits")
+    public long tableHits;
+
+    @Label("Table Hit Rate")
+    @Percentage
+    public double tableHitRate;
+}
@@ -0,0 +1,58 @@
+package game.record;
+
+import game.GameState;
+import game.Moves;
+
+/**
+ * A recorded game: the board it was played on, the names of the players and
+ * the moves made, as packed moves (see {@link Moves}). Moves that removed no
+ * stones are recorded as {@link Moves#PASS}.
+ *
+ * @param rows the number of rows of the board
+ * @param cols the number of columns of the board
+ * @param playerOne the name of Player One
+ * @param playerTwo the name of Player Two
+ * @param moves the moves in the order they were made, starting with Player One
+ */
+public record GameRecord(int rows, int cols, String playerOne, String playerTwo, int[] moves) {
+
+    /**
+     * Creates the record of the moves made in a state since its board was last reset.
+     *
+     * @param state the state whose move history to record
+     * @param playerOne the name of Player One
+     * @param playerTwo the name of Player Two
+     * @return the record of the game
+     */
+    public static GameRecord of(GameState state, String playerOne, String playerTwo) {
+        int[] moves = new int[state.getMoveCount()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = state.getMove(i);
+        }
+        return new GameRecord(state.getRows(), state.getCols(), playerOne, playerTwo, moves);
+    }
+
+    /**
+     * Replays the game on a new board.
+     *
+     * @return the state after all recorded moves
+     */
+    public GameState replay() {
+        GameState state = new GameState(rows, cols);
+        for (int move : moves) {
+            // A pass is never legal, so making it only passes the turn, as it did in the game
+            state.makeMove(move);
+        }
+        return state;
+    }
+
+    /**
+     * Checks whether Player One made the last move, and therefore won if the
+     * game was played to the end.
+     *
+     * @return true if the number of moves is odd, false otherwise
+     */
+    public boolean isPlayerOneWinner() {
+        return moves.length % 2 == 1;
+    }
+}
@@ -0,0 +1,255 @@
+package game.record;
+
+import game.Moves;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads games written by {@link GameRecordWriter} from a channel, one game at
+ * a time. Only a fixed-size buffer is held in memory, so files of any size can
+ * be streamed.
+ *
+ * @see GameRecordWriter
+ */
+public class GameRecordReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private boolean endOfInput;
+
+    /**
+     * Creates a reader of a record file.
+     *
+     * @param file the file to read
+     * @throws IOException if the file cannot be opened or is not a record file
+     */
+    public GameRecordReader(Path file) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Creates a reader that reads the file header and then the games from a
+     * channel. Closing the reader closes the channel.
+     *
+     * @param channel the channel to read from
+     * @throws IOException if the channel cannot be read or does not start with a record file header
+     */
+    public GameRecordReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.flip();
+        byte[] magic = new byte[GameRecordWriter.MAGIC.length];
+        for (int i = 0; i < magic.length; i++) {
+            magic[i] = readByte();
+        }
+        if (!Arrays.equals(magic, GameRecordWriter.MAGIC)) {
+            throw new IOException("Not a game record file");
+        }
+        int version = readByte();
+        if (version != GameRecordWriter.VERSION) {
+            throw new IOException("Unsupported game record version " + version);
+        }
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return the next game, or {@code null} if there are no more games
+     * @throws IOException if the channel cannot be read or the game is malformed
+     * @throws EOFException if the input ends in the middle of a game
+     */
+    public GameRecord read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return null;
+        }
+        int rows = readVarint();
+        int cols = readVarint();
+        if (rows < 1 || rows > Moves.MAX_SIZE || cols < 1 || cols > Moves.MAX_SIZE) {
+            throw new IOException("Invalid board size " + rows + "x" + cols + " in game record");
+        }
+        String playerOne = readString();
+        String playerTwo = readString();
+        int count = readVarint();
+        // Trust the count only as far as the input goes: a corrupt count ends in an EOFException
+        // once the moves run out, rather than in a huge allocation up front
+        int[] moves = new int[Math.min(count, rows * cols)];
+        int n = Math.max(rows, cols);
+        for (int i = 0; i < count; i++) {
+            if (i == moves.length) {
+                moves = Arrays.copyOf(moves, (int) Math.min(count, 2L * moves.length));
+            }
+            moves[i] = decode(readVarint(), cols, n);
+        }
+        return new GameRecord(rows, cols, playerOne, playerTwo, moves);
+    }
+
+    /**
+     * Returns a sequential stream of the remaining games. The stream reads the
+     * channel lazily; an {@code IOException} while reading is rethrown as an
+     * {@link UncheckedIOException}.
+     *
+     * @return the stream of games
+     */
+    public Stream<GameRecord> stream() {
+        Iterator<GameRecord> iterator = new Iterator<>() {
+
+            private GameRecord next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = read();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public GameRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                GameRecord game = next;
+                next = null;
+                return game;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Decodes a move code written by {@link GameRecordWriter}.
+     *
+     * @param code the code of the move
+     * @param cols the number of columns of the board
+     * @param n the larger of the number of rows and columns
+     * @return the packed move, or {@link Moves#PASS}
+     */
+    static int decode(int code, int cols, int n) {
+        if (code == 0) {
+            return Moves.PASS;
+        }
+        int value = code - 1;
+        boolean vertical = (value & 1) != 0;
+        value >>>= 1;
+        int length = value % n + 1;
+        int cell = value / n;
+        int row = cell / cols;
+        int col = cell % cols;
+        return vertical ? Moves.pack(row, col, row + length - 1, col) : Moves.pack(row, col, row, col + length - 1);
+    }
+
+    /**
+     * Reads a string written as its UTF-8 byte length followed by the bytes.
+     *
+     * @return the string
+     * @throws IOException if the channel cannot be read or the input ends
+     */
+    private String readString() throws IOException {
+        int size = readVarint();
+        // Like the moves, the bytes are allocated as they arrive
+        byte[] bytes = new byte[Math.min(size, BUFFER_SIZE)];
+        int offset = 0;
+        while (offset < size) {
+            if (!buffer.hasRemaining() && !fill()) {
+                throw new EOFException("Game record ends in a player name");
+            }
+            if (offset == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(size, 2L * bytes.length));
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.get(bytes, offset, length);
+            offset += length;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads an unsigned varint of a non-negative {@code int}. Only the low
+     * three bits of the fifth byte fit, so a fifth byte with any other bit set
+     * is rejected rather than truncated.
+     *
+     * @return the value
+     * @throws IOException if the channel cannot be read, the input ends, or the varint is malformed
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = readByte();
+            if (shift == 28 && (b & ~0x07) != 0) {
+                break;
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in game record");
+    }
+
+    /**
+     * Reads one byte.
+     *
+     * @return the byte
+     * @throws IOException if the channel cannot be read or the input ends
+     */
+    private byte readByte() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            throw new EOFException("Game record ends in the middle of a game");
+        }
+        return buffer.get();
+    }
+
+    /**
+     * Reads more bytes from the channel into the empty buffer.
+     *
+     * @return true if at least one byte was read, false at the end of the input
+     * @throws IOException if the channel cannot be read
+     */
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        if (read < 0) {
+            endOfInput = true;
+        }
+        return buffer.hasRemaining();
+    }
+
+    /**
+     * Closes the channel.
+     *
+     * @throws IOException if the channel cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
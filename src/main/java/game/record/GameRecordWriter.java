@@ -0,0 +1,290 @@
+package game.record;
+
+import game.GameState;
+import game.Moves;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes games in the compact binary record format to a channel.
+ *
+ * <p>A record file starts with the magic bytes {@code SGRC} and a format
+ * version byte, followed by the games one after the other. Every number is an
+ * unsigned LEB128 varint, which takes one byte below 128. A game consists of
+ * the number of rows and columns, the two player names (byte length followed
+ * by UTF-8 bytes), the number of moves, and the moves. A move is encoded as
+ * {@code 0} if it removed no stones, and otherwise as
+ * {@code 1 + ((cell * n + length - 1) * 2 + vertical)}, where {@code cell}
+ * is the row-major index of the top or left end of the segment, {@code n} the
+ * larger of the row and column count, and {@code vertical} is {@code 1} for
+ * column segments of at least two stones. On a 4x4 board every move fits into
+ * one byte.</p>
+ *
+ * <p>Output is collected in a direct buffer and written to the channel when
+ * the buffer is full, so writing a game does not allocate. The methods are
+ * synchronized, so several threads may write to the same writer; each game is
+ * written as a unit.</p>
+ *
+ * @see GameRecordReader
+ */
+public class GameRecordWriter implements Closeable {
+
+    static final byte[] MAGIC = {'S', 'G', 'R', 'C'};
+    static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    // the largest number of bytes of an int varint
+    private static final int MAX_VARINT_BYTES = 5;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long games;
+
+    /**
+     * Creates a writer that writes a new record file, replacing the file if it exists.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be created
+     */
+    public GameRecordWriter(Path file) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * Creates a writer that writes the file header and then the games to a
+     * channel. Closing the writer closes the channel.
+     *
+     * @param channel the channel to write to
+     */
+    public GameRecordWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        buffer.put(MAGIC).put((byte) VERSION);
+    }
+
+    /**
+     * Writes a game.
+     *
+     * @param game the game to write
+     * @throws IllegalArgumentException if the board is too large for packed moves
+     * @throws IOException if the channel cannot be written
+     */
+    public synchronized void write(GameRecord game) throws IOException {
+        checkSize(game.rows(), game.cols());
+        writeHeader(game.rows(), game.cols(), game.playerOne(), game.playerTwo(), game.moves().length);
+        int n = Math.max(game.rows(), game.cols());
+        for (int move : game.moves()) {
+            writeVarint(encode(move, game.cols(), n));
+        }
+        games++;
+    }
+
+    /**
+     * Writes the moves made in a state since its board was last reset as a
+     * game, without copying the move history.
+     *
+     * @param state the state whose move history to write
+     * @param playerOne the name of Player One
+     * @param playerTwo the name of Player Two
+     * @throws IllegalArgumentException if the board is too large for packed moves
+     * @throws IOException if the channel cannot be written
+     */
+    public synchronized void write(GameState state, String playerOne, String playerTwo) throws IOException {
+        int rows = state.getRows();
+        int cols = state.getCols();
+        checkSize(rows, cols);
+        int count = state.getMoveCount();
+        writeHeader(rows, cols, playerOne, playerTwo, count);
+        int n = Math.max(rows, cols);
+        for (int i = 0; i < count; i++) {
+            writeVarint(encode(state.getMove(i), cols, n));
+        }
+        games++;
+    }
+
+    /**
+     * Checks that the moves of a board can be recorded, before anything of
+     * the game is written.
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @throws IllegalArgumentException if the board is too large for packed moves
+     */
+    private static void checkSize(int rows, int cols) {
+        if (rows > Moves.MAX_SIZE || cols > Moves.MAX_SIZE) {
+            throw new IllegalArgumentException("Board of " + rows + "x" + cols + " is too large for packed moves");
+        }
+    }
+
+    /**
+     * Writes everything but the moves of a game.
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param playerOne the name of Player One
+     * @param playerTwo the name of Player Two
+     * @param moveCount the number of moves
+     * @throws IOException if the channel cannot be written
+     */
+    private void writeHeader(int rows, int cols, String playerOne, String playerTwo, int moveCount) throws IOException {
+        writeVarint(rows);
+        writeVarint(cols);
+        writeString(playerOne);
+        writeString(playerTwo);
+        writeVarint(moveCount);
+    }
+
+    /**
+     * Encodes a packed move as described in the class documentation.
+     *
+     * @param move the packed move, or {@link Moves#PASS}
+     * @param cols the number of columns of the board
+     * @param n the larger of the number of rows and columns
+     * @return the code of the move
+     */
+    static int encode(int move, int cols, int n) {
+        if (move == Moves.PASS) {
+            return 0;
+        }
+        int row = Math.min(Moves.fromRow(move), Moves.toRow(move));
+        int col = Math.min(Moves.fromCol(move), Moves.toCol(move));
+        int vertical = Moves.fromRow(move) != Moves.toRow(move) ? 1 : 0;
+        return 1 + (((row * cols + col) * n + Moves.length(move) - 1) << 1 | vertical);
+    }
+
+    /**
+     * Writes a string as its UTF-8 byte length followed by the bytes. The
+     * bytes are encoded straight into the buffer; like
+     * {@link String#getBytes(java.nio.charset.Charset)}, an unpaired surrogate
+     * is written as {@code '?'}.
+     *
+     * @param s the string to write
+     * @throws IOException if the channel cannot be written
+     */
+    private void writeString(String s) throws IOException {
+        writeVarint(utf8Length(s));
+        for (int i = 0; i < s.length(); i++) {
+            if (buffer.remaining() < 4) {
+                flushBuffer();
+            }
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >>> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                buffer.put((byte) (0xE0 | c >>> 12)).put((byte) (0x80 | c >>> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            } else if (isSurrogatePair(s, i)) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >>> 18)).put((byte) (0x80 | codePoint >>> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >>> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+            } else {
+                buffer.put((byte) '?');
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes of the UTF-8 encoding written by {@link #writeString(String)}.
+     *
+     * @param s the string to measure
+     * @return the number of bytes
+     */
+    static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (!Character.isSurrogate(c)) {
+                length += 3;
+            } else if (isSurrogatePair(s, i)) {
+                length += 4;
+                i++;
+            } else {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Checks whether a high surrogate followed by a low surrogate starts at an index.
+     *
+     * @param s the string to check
+     * @param i the index of a surrogate
+     * @return true if the characters at {@code i} and {@code i + 1} form a surrogate pair
+     */
+    private static boolean isSurrogatePair(String s, int i) {
+        return Character.isHighSurrogate(s.charAt(i)) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1));
+    }
+
+    /**
+     * Writes an unsigned varint.
+     *
+     * @param value the value to write, treated as unsigned
+     * @throws IOException if the channel cannot be written
+     */
+    private void writeVarint(int value) throws IOException {
+        if (buffer.remaining() < MAX_VARINT_BYTES) {
+            flushBuffer();
+        }
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes all buffered games to the channel.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        flushBuffer();
+    }
+
+    /**
+     * Gets the number of games written so far.
+     *
+     * @return the number of games
+     */
+    public synchronized long getGameCount() {
+        return games;
+    }
+
+    /**
+     * Writes all buffered games and closes the channel.
+     *
+     * @throws IOException if the channel cannot be written or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+}
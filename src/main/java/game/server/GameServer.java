@@ -0,0 +1,596 @@
+package game.server;
+
+import game.GameState;
+import game.metrics.LatencyHistogram;
+import game.metrics.MetricsRegistry;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hosts many independent games over TCP, speaking the line protocol described
+ * in {@link Protocol}.
+ *
+ * <p>Every connection is served by its own virtual thread, so thousands of
+ * mostly idle clients cost little more than their sockets. Each game has its
+ * own {@link GameState}, guarded by a {@link ReentrantLock} rather than a
+ * {@code synchronized} block, so a virtual thread waiting for a game does not
+ * pin its carrier thread. Clients that {@code JOIN} with the same board size
+ * are paired in arrival order.</p>
+ *
+ * <p>Replies are not written while a game is locked: every connection queues
+ * its outgoing lines and has a second virtual thread that writes them, so a
+ * client that reads slowly cannot stall its opponent. Lines are queued under
+ * the game lock, so both players see the moves in the order they were made.</p>
+ *
+ * <p>The time from reading a {@code MOVE} line to queueing the reply is
+ * recorded in a {@link LatencyHistogram}, see {@link #getMoveLatencies()}.
+ * Failed accepts and connections that fail with an I/O error other than a
+ * disconnect are counted in the default {@link MetricsRegistry}.</p>
+ *
+ * <p>A client must keep up with its replies and send short lines: a client
+ * that sends a line longer than 256 characters, or has more than 1024 replies
+ * queued, is dropped and counted. This bounds the memory a single client can
+ * make the server hold.</p>
+ */
+public class GameServer implements Closeable {
+
+    // the largest board a client may ask for, which keeps the games small
+    private static final int MAX_BOARD_SIZE = 64;
+    // the longest command line, far longer than any valid command
+    private static final int MAX_LINE_LENGTH = 256;
+    // the most replies queued for a client before it is dropped
+    private static final int MAX_QUEUED_LINES = 1024;
+
+    private static final LongAdder ACCEPT_FAILURES = MetricsRegistry.getDefault().counter("server_accept_failures_total");
+    private static final LongAdder CONNECTION_FAILURES = MetricsRegistry.getDefault().counter("server_connection_failures_total");
+    private static final LongAdder DROPPED_CLIENTS = MetricsRegistry.getDefault().counter("server_dropped_clients_total");
+
+    private final ServerSocket serverSocket;
+    private final LatencyHistogram moveLatencies = new LatencyHistogram();
+    // the client waiting for an opponent, by board size
+    private final Map<Integer, Connection> waiting = new HashMap<>();
+    private final ReentrantLock lobbyLock = new ReentrantLock();
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong gamesStarted = new AtomicLong();
+    private final AtomicLong gamesFinished = new AtomicLong();
+    private Thread acceptor;
+
+    /**
+     * Constructs a server listening on the given port of the loopback address.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Constructs a server listening on the given address.
+     *
+     * @param address the address to listen on
+     * @throws IOException if the address cannot be bound
+     */
+    public GameServer(InetSocketAddress address) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(address, 1024);
+    }
+
+    /**
+     * Starts accepting connections on a background thread.
+     */
+    public synchronized void start() {
+        if (acceptor == null) {
+            acceptor = Thread.ofPlatform().name("game-server-acceptor").daemon().start(this::acceptLoop);
+        }
+    }
+
+    /**
+     * Accepts connections until the server socket is closed, starting a
+     * virtual thread for each.
+     */
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                Thread.ofVirtual().name("game-client").start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    ACCEPT_FAILURES.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * A game between one or two connections.
+     */
+    private final class Match {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final GameState state;
+        // the connections playing Player One and Player Two; the same one in a solo game
+        private final Connection one;
+        private final Connection two;
+        private boolean over;
+
+        private Match(int size, Connection one, Connection two) {
+            state = new GameState(size);
+            this.one = one;
+            this.two = two;
+        }
+
+        private boolean isSolo() {
+            return one == two;
+        }
+
+        /**
+         * Makes a move for a connection and tells both players about it.
+         *
+         * @param player the connection making the move
+         * @param move the packed move
+         */
+        private void move(Connection player, int move) {
+            Connection opponent = null;
+            String reply;
+            boolean moved = false;
+            lock.lock();
+            try {
+                if (over) {
+                    reply = Protocol.ERROR + " game is over";
+                } else if (!isSolo() && (player == one) != state.isPlayerOneTurn()) {
+                    reply = Protocol.ILLEGAL + " not your turn";
+                } else if (!state.isLegalMove(move)) {
+                    reply = Protocol.ILLEGAL + " choose a segment of stones in one row or column";
+                } else {
+                    state.makeMove(move);
+                    opponent = isSolo() ? null : player == one ? two : one;
+                    if (state.isGameOver()) {
+                        over = true;
+                        gamesFinished.incrementAndGet();
+                    }
+                    reply = Protocol.OK;
+                    moved = true;
+                }
+                // Queue while holding the lock, so the opponent sees the moves in order
+                if (opponent != null) {
+                    opponent.send(Protocol.MOVED + " " + Protocol.formatMove(move));
+                }
+                player.send(reply);
+                if (moved && over) {
+                    // Free both players before they learn the result, so they can start a new game at once
+                    player.match = null;
+                    if (opponent != null) {
+                        opponent.match = null;
+                    }
+                    // The player who removed the last stone wins, i.e., the one not to move now
+                    String result = Protocol.OVER + " " + (state.isPlayerOneTurn() ? 2 : 1);
+                    if (opponent != null) {
+                        opponent.send(result);
+                    }
+                    player.send(result);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Ends the game because a player disconnected.
+         *
+         * @param player the connection that left
+         */
+        private void abandon(Connection player) {
+            lock.lock();
+            try {
+                if (over) {
+                    return;
+                }
+                over = true;
+                gamesFinished.incrementAndGet();
+                if (!isSolo()) {
+                    Connection opponent = player == one ? two : one;
+                    opponent.match = null;
+                    opponent.send(Protocol.ABANDONED);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A client connection. Replies may be sent by the connection's own thread
+     * and by the opponent's thread, so they are queued and written by a
+     * writer thread of the connection.
+     */
+    private static final class Connection {
+
+        // queued after the last line to stop the writer thread; compared by identity
+        private static final String END = new String("END");
+
+        private final Socket socket;
+        private final BufferedReader in;
+        private final BufferedWriter out;
+        private final BlockingQueue<String> outbox = new LinkedBlockingQueue<>(MAX_QUEUED_LINES);
+        private final Thread writer;
+        private final AtomicBoolean dropped = new AtomicBoolean();
+        private final StringBuilder line = new StringBuilder();
+        // assigned under lobbyLock when a joined game starts, so leave() sees it
+        private volatile Match match;
+        // the board size the client waits for an opponent on, or 0; guarded by lobbyLock
+        private int waitingSize;
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            writer = Thread.ofVirtual().name("game-client-writer").start(this::writeLoop);
+        }
+
+        /**
+         * Queues a line for the client. Never blocks; if the connection is
+         * broken, the line is dropped and the reading thread cleans up. If the
+         * queue is full, the client is dropped.
+         *
+         * @param line the line to send, without the line terminator
+         */
+        private void send(String line) {
+            if (!dropped.get() && !outbox.offer(line)) {
+                drop();
+            }
+        }
+
+        /**
+         * Drops a client that does not read its replies: discards the queued
+         * lines and closes the socket, so the reading thread stops too.
+         */
+        private void drop() {
+            if (dropped.compareAndSet(false, true)) {
+                DROPPED_CLIENTS.increment();
+                outbox.clear();
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // already broken
+                }
+            }
+        }
+
+        /**
+         * Reads a line like {@link BufferedReader#readLine()}, but stops after
+         * {@link #MAX_LINE_LENGTH} + 1 characters, so a client cannot make the
+         * server buffer an endless line.
+         *
+         * @return the line without the line terminator, longer than
+         * {@link #MAX_LINE_LENGTH} if it was cut off, or {@code null} at the end of the input
+         * @throws IOException if the line cannot be read
+         */
+        private String readLine() throws IOException {
+            line.setLength(0);
+            int c;
+            while ((c = in.read()) >= 0) {
+                if (c == '\n') {
+                    return line.toString();
+                }
+                line.append((char) c);
+                if (line.length() > MAX_LINE_LENGTH) {
+                    return line.toString();
+                }
+            }
+            return line.isEmpty() ? null : line.toString();
+        }
+
+        /**
+         * Writes queued lines until {@link #END} is taken, flushing whenever
+         * the queue runs empty. A write failure closes the socket, so the
+         * reading thread stops too.
+         */
+        private void writeLoop() {
+            try {
+                String line;
+                while ((line = outbox.take()) != END) {
+                    out.write(line);
+                    out.write('\n');
+                    if (outbox.isEmpty()) {
+                        out.flush();
+                    }
+                }
+                out.flush();
+            } catch (IOException | InterruptedException e) {
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // already broken
+                }
+            }
+        }
+
+        /**
+         * Writes the lines queued so far and stops the writer thread.
+         *
+         * @throws InterruptedException if interrupted while waiting for the writer
+         */
+        private void finish() throws InterruptedException {
+            while (!outbox.offer(END)) {
+                // No room for END: the client has not read its replies
+                drop();
+            }
+            writer.join();
+        }
+    }
+
+    /**
+     * Serves one connection until the client quits or disconnects.
+     *
+     * @param socket the socket of the client
+     */
+    private void serve(Socket socket) {
+        Connection connection = null;
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            connection = new Connection(socket);
+            try {
+                readLoop(connection);
+            } finally {
+                leave(connection);
+                connection.finish();
+            }
+        } catch (SocketException e) {
+            // The client disconnected abruptly
+        } catch (IOException e) {
+            CONNECTION_FAILURES.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Handles the commands of a client until it quits or disconnects.
+     *
+     * @param connection the client
+     * @throws IOException if the command cannot be read
+     */
+    private void readLoop(Connection connection) throws IOException {
+        String line;
+        while ((line = connection.readLine()) != null) {
+            if (line.length() > MAX_LINE_LENGTH) {
+                connection.send(Protocol.ERROR + " line too long");
+                DROPPED_CLIENTS.increment();
+                return;
+            }
+            long start = System.nanoTime();
+            String command = line.strip();
+            int space = command.indexOf(' ');
+            String verb = space < 0 ? command : command.substring(0, space);
+            String argument = space < 0 ? "" : command.substring(space + 1);
+            switch (verb) {
+                case Protocol.MOVE -> {
+                    handleMove(connection, argument);
+                    moveLatencies.record(System.nanoTime() - start);
+                }
+                case Protocol.SOLO -> handleSolo(connection, argument);
+                case Protocol.JOIN -> handleJoin(connection, argument);
+                case Protocol.QUIT -> {
+                    return;
+                }
+                default -> connection.send(Protocol.ERROR + " unknown command");
+            }
+        }
+    }
+
+    /**
+     * Handles a {@code MOVE} command.
+     *
+     * @param connection the client
+     * @param argument the two cells of the move
+     */
+    private void handleMove(Connection connection, String argument) {
+        Match match = connection.match;
+        if (match == null) {
+            connection.send(Protocol.ERROR + " no game in progress");
+            return;
+        }
+        int move;
+        try {
+            move = Protocol.parseMove(argument);
+        } catch (RuntimeException e) {
+            connection.send(Protocol.ILLEGAL + " expected two cells like 0 1, 0 3");
+            return;
+        }
+        match.move(connection, move);
+    }
+
+    /**
+     * Handles a {@code SOLO} command.
+     *
+     * @param connection the client
+     * @param argument the board size
+     */
+    private void handleSolo(Connection connection, String argument) {
+        int size = parseSize(connection, argument);
+        if (size > 0) {
+            connection.match = new Match(size, connection, connection);
+            gamesStarted.incrementAndGet();
+            connection.send(Protocol.START + " " + size + " 0");
+        }
+    }
+
+    /**
+     * Handles a {@code JOIN} command: pairs the client with the client waiting
+     * for the same board size, or makes it the waiting one.
+     *
+     * @param connection the client
+     * @param argument the board size
+     */
+    private void handleJoin(Connection connection, String argument) {
+        int size = parseSize(connection, argument);
+        if (size <= 0) {
+            return;
+        }
+        lobbyLock.lock();
+        try {
+            Connection opponent = waiting.remove(size);
+            if (opponent == null) {
+                waiting.put(size, connection);
+                connection.waitingSize = size;
+                return;
+            }
+            opponent.waitingSize = 0;
+            // Start the game before releasing the lobby, so an opponent that leaves
+            // now finds either its waiting entry or the game to abandon
+            Match match = new Match(size, opponent, connection);
+            gamesStarted.incrementAndGet();
+            opponent.match = match;
+            connection.match = match;
+            opponent.send(Protocol.START + " " + size + " 1");
+            connection.send(Protocol.START + " " + size + " 2");
+        } finally {
+            lobbyLock.unlock();
+        }
+    }
+
+    /**
+     * Parses a board size and reports errors to the client. A client that is
+     * still in a game or waiting for an opponent cannot start another game.
+     *
+     * @param connection the client
+     * @param argument the board size
+     * @return the board size, or 0 if the request was rejected
+     */
+    private int parseSize(Connection connection, String argument) {
+        if (connection.match != null) {
+            connection.send(Protocol.ERROR + " game in progress");
+            return 0;
+        }
+        lobbyLock.lock();
+        try {
+            if (connection.waitingSize != 0) {
+                connection.send(Protocol.ERROR + " already waiting for an opponent");
+                return 0;
+            }
+        } finally {
+            lobbyLock.unlock();
+        }
+        try {
+            int size = Integer.parseInt(argument.strip());
+            if (size >= 1 && size <= MAX_BOARD_SIZE) {
+                return size;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        connection.send(Protocol.ERROR + " board size must be between 1 and " + MAX_BOARD_SIZE);
+        return 0;
+    }
+
+    /**
+     * Cleans up after a connection ends: stops waiting for an opponent and
+     * abandons the current game.
+     *
+     * @param connection the client that left
+     */
+    private void leave(Connection connection) {
+        Match match;
+        lobbyLock.lock();
+        try {
+            if (connection.waitingSize != 0) {
+                waiting.remove(connection.waitingSize);
+            }
+            match = connection.match;
+        } finally {
+            lobbyLock.unlock();
+        }
+        if (match != null) {
+            match.abandon(connection);
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the latencies of the {@code MOVE} commands handled so far, from
+     * reading the command to queueing the reply.
+     *
+     * @return the live histogram of move latencies
+     */
+    public LatencyHistogram getMoveLatencies() {
+        return moveLatencies;
+    }
+
+    /**
+     * Returns a one-line summary of the activity of the server.
+     *
+     * @return the numbers of connections, games, failures and dropped clients, and the move latencies
+     */
+    public String report() {
+        return "connections " + connections.get() + "  games started " + gamesStarted.get()
+                + "  finished " + gamesFinished.get() + "  failures: accept " + ACCEPT_FAILURES.sum()
+                + "  connection " + CONNECTION_FAILURES.sum() + "  dropped " + DROPPED_CLIENTS.sum()
+                + "  moves: " + moveLatencies;
+    }
+
+    /**
+     * Stops accepting connections. Connections already open are served until
+     * their clients disconnect.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    /**
+     * Runs a server on the loopback address and prints a report every few
+     * seconds while moves are being made.
+     *
+     * @param args the port (default 7777) and the report interval in seconds (default 10)
+     * @throws IOException if the port cannot be bound
+     * @throws InterruptedException if interrupted while waiting between reports
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        int interval = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        try (GameServer server = new GameServer(port)) {
+            server.start();
+            System.out.println("Game server listening on port " + server.getPort());
+            long reportedMoves = 0;
+            while (true) {
+                Thread.sleep(interval * 1000L);
+                long moves = server.getMoveLatencies().getCount();
+                if (moves != reportedMoves) {
+                    System.out.println(server.report());
+                    reportedMoves = moves;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package game.server;
+
+import game.GameState;
+import game.metrics.LatencyHistogram;
+import game.sim.Policy;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Drives a {@link GameServer} with many simulated players to find out how much
+ * load a single server can take.
+ *
+ * <p>Every simulated player runs on its own virtual thread and holds one
+ * connection. It plays {@code SOLO} games, choosing both sides' moves with a
+ * {@link Policy} on a local copy of the game, and sends them at a fixed rate.
+ * The round trip of each move, from sending the {@code MOVE} line to reading
+ * the reply, is recorded in a {@link LatencyHistogram}. Rejected moves, other
+ * unexpected replies, failed connections, broken connections and policies that
+ * fail to choose a move are counted as errors; a player whose connection
+ * breaks or whose policy fails reconnects and starts a new game.</p>
+ *
+ * <p>The virtual threads of the players share a few carrier threads, which
+ * also read the replies. A policy that searches, such as {@code mcts} or
+ * {@code alphabeta}, would keep the carriers busy and inflate the measured
+ * round trips, so such policies choose their moves on a separate, bounded pool
+ * of platform threads; see {@link #LoadGenerator(InetSocketAddress, int, int,
+ * double, Supplier, int)}. Even then the searches compete with the server for
+ * the cores when both run on one machine, so only the {@code random} and
+ * {@code greedy} policies measure the server alone.</p>
+ */
+public class LoadGenerator {
+
+    // time to wait before reconnecting after a connection or the policy failed
+    private static final long RECONNECT_DELAY_MILLIS = 100;
+    // time to wait for a connection to be established
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    private final InetSocketAddress address;
+    private final int players;
+    private final int size;
+    private final long moveIntervalNanos;
+    private final Supplier<Policy> policy;
+    private final int thinkers;
+
+    private final LatencyHistogram roundTrips = new LatencyHistogram();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder rejectedMoves = new LongAdder();
+    private final LongAdder unexpectedReplies = new LongAdder();
+    private final LongAdder connectionErrors = new LongAdder();
+    private final LongAdder policyFailures = new LongAdder();
+
+    /**
+     * Constructs a load generator whose players choose their moves on their
+     * own virtual threads, which suits cheap policies.
+     *
+     * @param address the address of the server
+     * @param players the number of simulated players
+     * @param size the board size of the games
+     * @param movesPerSecond the number of moves each player sends per second,
+     * or 0 to send each move as soon as the previous one is answered
+     * @param policy creates the policy of each player
+     */
+    public LoadGenerator(InetSocketAddress address, int players, int size, double movesPerSecond, Supplier<Policy> policy) {
+        this(address, players, size, movesPerSecond, policy, 0);
+    }
+
+    /**
+     * Constructs a load generator.
+     *
+     * @param address the address of the server
+     * @param players the number of simulated players
+     * @param size the board size of the games
+     * @param movesPerSecond the number of moves each player sends per second,
+     * or 0 to send each move as soon as the previous one is answered
+     * @param policy creates the policy of each player
+     * @param thinkers the number of platform threads that choose the moves of
+     * all players, or 0 to choose them on the players' virtual threads
+     */
+    public LoadGenerator(InetSocketAddress address, int players, int size, double movesPerSecond, Supplier<Policy> policy,
+                         int thinkers) {
+        this.address = address;
+        this.players = players;
+        this.size = size;
+        this.moveIntervalNanos = movesPerSecond > 0 ? (long) (1e9 / movesPerSecond) : 0;
+        this.policy = policy;
+        this.thinkers = thinkers;
+    }
+
+    /**
+     * Runs the simulated players for the given time and waits for all of them to stop.
+     *
+     * @param millis the duration of the run, in milliseconds
+     * @throws InterruptedException if interrupted while waiting for the players
+     */
+    public void run(long millis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        SplittableRandom seeds = new SplittableRandom();
+        ExecutorService pool = thinkers > 0
+                ? Executors.newFixedThreadPool(thinkers, Thread.ofPlatform().daemon().name("load-thinker-", 0).factory())
+                : null;
+        try {
+            List<Thread> threads = new ArrayList<>(players);
+            for (int i = 0; i < players; i++) {
+                SplittableRandom random = seeds.split();
+                threads.add(Thread.ofVirtual().name("load-player-" + i).start(() -> play(deadline, random, pool)));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Plays games as one simulated player until the deadline, reconnecting
+     * after connection errors and policy failures. Stops early if the thread
+     * is interrupted while choosing a move.
+     *
+     * @param deadline the value of {@link System#nanoTime()} at which to stop
+     * @param random the random number generator of this player
+     * @param pool the threads to choose moves on, or {@code null} to choose them on this thread
+     */
+    private void play(long deadline, SplittableRandom random, ExecutorService pool) {
+        Policy player = policy.get();
+        GameState state = new GameState(size);
+        int[] buffer = new int[state.maxMoveCount()];
+        // Spread the first moves of the players over one interval
+        long nextMove = System.nanoTime() + (moveIntervalNanos > 0 ? random.nextLong(moveIntervalNanos) : 0);
+        while (System.nanoTime() < deadline) {
+            try (Socket socket = new Socket()) {
+                socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                while (System.nanoTime() < deadline) {
+                    send(out, Protocol.SOLO + " " + size);
+                    if (!expect(in.readLine(), Protocol.START)) {
+                        break;
+                    }
+                    state.resetBoard();
+                    if (!state.isPlayerOneTurn()) {
+                        state.switchTurn();
+                    }
+                    while (!state.isGameOver() && System.nanoTime() < deadline) {
+                        nextMove = pace(nextMove);
+                        int count = state.generateMoves(buffer);
+                        int move = chooseMove(pool, player, state, buffer, count, random);
+                        long start = System.nanoTime();
+                        send(out, Protocol.MOVE + " " + Protocol.formatMove(move));
+                        String reply = in.readLine();
+                        roundTrips.record(System.nanoTime() - start);
+                        moves.increment();
+                        if (reply != null && reply.startsWith(Protocol.ILLEGAL)) {
+                            rejectedMoves.increment();
+                            break;
+                        }
+                        if (!expect(reply, Protocol.OK)) {
+                            break;
+                        }
+                        state.makeMove(move);
+                    }
+                    if (!state.isGameOver()) {
+                        // Quit mid-game at the deadline; the server abandons the game
+                        break;
+                    }
+                    if (!expect(in.readLine(), Protocol.OVER)) {
+                        break;
+                    }
+                    games.increment();
+                }
+                send(out, Protocol.QUIT);
+            } catch (IOException e) {
+                connectionErrors.increment();
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RECONNECT_DELAY_MILLIS));
+            } catch (IllegalStateException e) {
+                // Closing the socket abandons the game; the policy may succeed in the next one
+                policyFailures.increment();
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RECONNECT_DELAY_MILLIS));
+            }
+        }
+    }
+
+    /**
+     * Waits until the time of the next move, if the rate is limited.
+     *
+     * @param nextMove the planned time of the next move
+     * @return the planned time of the move after it
+     */
+    private long pace(long nextMove) {
+        if (moveIntervalNanos == 0) {
+            return nextMove;
+        }
+        long wait = nextMove - System.nanoTime();
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+        // Plan from the schedule rather than from now, so delays do not lower the rate
+        return nextMove + moveIntervalNanos;
+    }
+
+    /**
+     * Chooses the next move of a player, on a thread of the pool if there is one.
+     *
+     * @param pool the threads to choose moves on, or {@code null} to choose on the calling thread
+     * @param player the policy of the player
+     * @param state the current state
+     * @param moves the legal moves of the state
+     * @param count the number of legal moves
+     * @param random the random number generator of the player
+     * @return the chosen packed move
+     * @throws IllegalStateException if the policy fails or the player is interrupted while waiting
+     */
+    private static int chooseMove(ExecutorService pool, Policy player, GameState state, int[] moves, int count,
+                                  SplittableRandom random) {
+        if (pool == null) {
+            try {
+                return player.chooseMove(state, moves, count, random);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Policy failed", e);
+            }
+        }
+        Future<Integer> move = pool.submit(() -> player.chooseMove(state, moves, count, random));
+        try {
+            return move.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Policy failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while choosing a move", e);
+        }
+    }
+
+    /**
+     * Checks that a reply starts with the expected word, and counts it as an
+     * unexpected reply otherwise.
+     *
+     * @param reply the line read from the server
+     * @param expected the expected first word
+     * @return true if the reply is the expected one, false otherwise
+     * @throws IOException if the connection was closed by the server
+     */
+    private boolean expect(String reply, String expected) throws IOException {
+        if (reply == null) {
+            throw new IOException("Connection closed by the server");
+        }
+        if (reply.startsWith(expected)) {
+            return true;
+        }
+        unexpectedReplies.increment();
+        return false;
+    }
+
+    private static void send(BufferedWriter out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Gets the round-trip times of the moves sent so far.
+     *
+     * @return the live histogram of round-trip times
+     */
+    public LatencyHistogram getRoundTrips() {
+        return roundTrips;
+    }
+
+    /**
+     * Returns a report of a finished run.
+     *
+     * @param seconds the duration of the run, in seconds
+     * @return the throughput, latency percentiles and error rates
+     */
+    public String report(double seconds) {
+        long moveCount = moves.sum();
+        long errors = rejectedMoves.sum() + unexpectedReplies.sum() + connectionErrors.sum() + policyFailures.sum();
+        return String.format("""
+                        %d players, %d games, %d moves in %.1f s
+                        Throughput: %.0f moves/s, %.0f games/s
+                        Round trip: p50 %.1f us  p99 %.1f us  p99.9 %.1f us  max %.1f us
+                        Errors: %d rejected moves, %d unexpected replies, %d connection errors, %d policy failures (%.3f%% of moves)
+                        """,
+                players, games.sum(), moveCount, seconds,
+                moveCount / seconds, games.sum() / seconds,
+                roundTrips.getValueAtPercentile(50) / 1e3, roundTrips.getValueAtPercentile(99) / 1e3,
+                roundTrips.getValueAtPercentile(99.9) / 1e3, roundTrips.getMax() / 1e3,
+                rejectedMoves.sum(), unexpectedReplies.sum(), connectionErrors.sum(), policyFailures.sum(),
+                moveCount == 0 ? 0 : 100.0 * errors / moveCount);
+    }
+
+    /**
+     * Runs a load test against a server on the loopback address and prints a
+     * report. With port 0, a server is started in the same JVM.
+     *
+     * @param args the port (default 0), number of players (default 1000),
+     * duration in seconds (default 10), board size (default 4), moves per
+     * second of each player (default 10, 0 for unlimited), and the policy of
+     * the players ({@code random}, {@code greedy}, {@code mcts} or
+     * {@code alphabeta}; default {@code random}); policies other than
+     * {@code random} and {@code greedy} choose their moves on one platform
+     * thread per core
+     * @throws IOException if the embedded server cannot be started
+     * @throws InterruptedException if interrupted while waiting for the players
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int size = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        double rate = args.length > 4 ? Double.parseDouble(args[4]) : 10;
+        String policy = args.length > 5 ? args[5] : "random";
+
+        GameServer server = null;
+        if (port == 0) {
+            server = new GameServer(0);
+            server.start();
+            port = server.getPort();
+        }
+        try {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            int thinkers = policy.equals("random") || policy.equals("greedy") ? 0 : Runtime.getRuntime().availableProcessors();
+            LoadGenerator generator = new LoadGenerator(address, players, size, rate, Policy.named(policy, size), thinkers);
+            System.out.println("Running " + players + " " + policy + " players on " + size + "x" + size
+                    + " boards against port " + port + " for " + seconds + " s");
+            long start = System.nanoTime();
+            generator.run(seconds * 1000L);
+            System.out.print(generator.report((System.nanoTime() - start) / 1e9));
+            if (server != null) {
+                System.out.println("Server: " + server.report());
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+}
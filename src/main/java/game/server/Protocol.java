@@ -0,0 +1,81 @@
+package game.server;
+
+import game.ConsoleGame;
+import game.Moves;
+import game.Position;
+
+/**
+ * The line protocol between {@link GameServer} and its clients. Every message
+ * is one line of UTF-8 text; words are separated by single spaces.
+ *
+ * <p>Client to server:</p>
+ * <ul>
+ *     <li>{@code SOLO <size>} starts a game in which the client plays both sides</li>
+ *     <li>{@code JOIN <size>} waits for another client to join with the same
+ *     size, then starts a game between the two</li>
+ *     <li>{@code MOVE <row> <col>, <row> <col>} removes the stones between two cells</li>
+ *     <li>{@code QUIT} ends the connection</li>
+ * </ul>
+ *
+ * <p>Server to client:</p>
+ * <ul>
+ *     <li>{@code START <size> <seat>} a game has started; the seat is {@code 1}
+ *     or {@code 2} for the player the client plays, or {@code 0} for both</li>
+ *     <li>{@code OK} the move of the client was made</li>
+ *     <li>{@code MOVED <row> <col>, <row> <col>} the opponent made a move</li>
+ *     <li>{@code OVER <winner>} the game ended; the winner is {@code 1} or {@code 2}</li>
+ *     <li>{@code ABANDONED} the opponent disconnected during the game</li>
+ *     <li>{@code ILLEGAL <reason>} the move was rejected; the client is still to move</li>
+ *     <li>{@code ERROR <reason>} the command was not understood or not allowed now</li>
+ * </ul>
+ */
+public final class Protocol {
+
+    public static final String SOLO = "SOLO";
+    public static final String JOIN = "JOIN";
+    public static final String MOVE = "MOVE";
+    public static final String QUIT = "QUIT";
+
+    public static final String START = "START";
+    public static final String OK = "OK";
+    public static final String MOVED = "MOVED";
+    public static final String OVER = "OVER";
+    public static final String ABANDONED = "ABANDONED";
+    public static final String ILLEGAL = "ILLEGAL";
+    public static final String ERROR = "ERROR";
+
+    private Protocol() {
+    }
+
+    /**
+     * Parses the argument of a {@code MOVE} or {@code MOVED} message. Each of
+     * the two cells is parsed with {@link ConsoleGame#parseMove(String)}.
+     *
+     * @param s the two cells separated by a comma, e.g., {@code "0 1, 0 3"}
+     * @return the packed move
+     * @throws IllegalArgumentException if the argument is malformed or a
+     * coordinate does not fit into a packed move
+     */
+    public static int parseMove(String s) {
+        int comma = s.indexOf(',');
+        if (comma < 0) {
+            throw new IllegalArgumentException("Expected two cells separated by a comma");
+        }
+        Position from = ConsoleGame.parseMove(s.substring(0, comma));
+        Position to = ConsoleGame.parseMove(s.substring(comma + 1));
+        if (Math.max(Math.max(from.row(), from.col()), Math.max(to.row(), to.col())) >= Moves.MAX_SIZE) {
+            throw new IllegalArgumentException("Coordinate out of range");
+        }
+        return Moves.pack(from, to);
+    }
+
+    /**
+     * Formats a packed move as the argument of a {@code MOVE} or {@code MOVED} message.
+     *
+     * @param move the packed move
+     * @return the two cells separated by a comma, e.g., {@code "0 1, 0 3"}
+     */
+    public static String formatMove(int move) {
+        return Moves.fromRow(move) + " " + Moves.fromCol(move) + ", " + Moves.toRow(move) + " " + Moves.toCol(move);
+    }
+}
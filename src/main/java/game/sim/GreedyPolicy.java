@@ -0,0 +1,35 @@
+package game.sim;
+
+import game.GameState;
+import game.Moves;
+
+import java.util.SplittableRandom;
+
+/**
+ * Removes as many stones as possible: chooses one of the longest legal
+ * segments at random.
+ */
+public class GreedyPolicy implements Policy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int chooseMove(GameState state, int[] moves, int count, SplittableRandom random) {
+        int best = 0;
+        int ties = 0;
+        int chosen = moves[0];
+        for (int i = 0; i < count; i++) {
+            int length = Moves.length(moves[i]);
+            if (length > best) {
+                best = length;
+                ties = 1;
+                chosen = moves[i];
+            } else if (length == best && random.nextInt(++ties) == 0) {
+                // Reservoir sampling keeps each of the longest moves equally likely
+                chosen = moves[i];
+            }
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,75 @@
+package game.sim;
+
+import game.GameState;
+import game.ai.AlphaBetaPlayer;
+import game.ai.MctsPlayer;
+import game.solver.Tablebase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Chooses moves for one side in self-play. A policy may keep state between
+ * calls, so every worker thread uses its own instance.
+ */
+public interface Policy {
+
+    /**
+     * The time the {@code mcts} and {@code alphabeta} policies may think about
+     * each move, in milliseconds.
+     */
+    long SEARCH_MOVE_MILLIS = 5;
+
+    /**
+     * Chooses one of the legal moves of a position.
+     *
+     * @param state the current state, which must not be modified
+     * @param moves the legal moves of the state as packed moves
+     * @param count the number of legal moves, which is at least one
+     * @param random the random number generator of the calling worker
+     * @return the chosen packed move, one of the first {@code count} elements of {@code moves}
+     * @see game.Moves
+     */
+    int chooseMove(GameState state, int[] moves, int count, SplittableRandom random);
+
+    /**
+     * Returns a factory of the built-in policy with the given name.
+     *
+     * @param name {@code random}, {@code greedy}, {@code solver}, {@code tablebase}, {@code mcts} or
+     * {@code alphabeta}; the {@code tablebase} policy reads the file
+     * {@link Tablebase#defaultPath(int)}, which is mapped once and shared by all instances
+     * @param size the size of the board the policy will play on
+     * @return a factory creating a new instance of the policy on each call
+     * @throws IllegalArgumentException if there is no policy with the given name
+     * @throws UncheckedIOException if the tablebase file cannot be opened
+     */
+    static Supplier<Policy> named(String name, int size) {
+        return switch (name) {
+            case "random" -> RandomPolicy::new;
+            case "greedy" -> GreedyPolicy::new;
+            case "solver" -> () -> new SolverPolicy(size);
+            case "tablebase" -> {
+                Tablebase tablebase;
+                try {
+                    tablebase = Tablebase.open(Tablebase.defaultPath(size));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                yield () -> new TablebasePolicy(tablebase);
+            }
+            case "mcts" -> () -> {
+                // One search thread per worker, as the workers already use every core
+                MctsPlayer player = new MctsPlayer(SEARCH_MOVE_MILLIS, 1);
+                return (state, moves, count, random) -> player.chooseMove(state);
+            };
+            case "alphabeta" -> () -> {
+                // A small table, as every worker allocates its own
+                AlphaBetaPlayer player = new AlphaBetaPlayer(SEARCH_MOVE_MILLIS, 16);
+                return (state, moves, count, random) -> player.chooseMove(state);
+            };
+            default -> throw new IllegalArgumentException("Unknown policy: " + name);
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package game.sim;
+
+import game.GameState;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses a uniformly random legal move.
+ */
+public class RandomPolicy implements Policy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int chooseMove(GameState state, int[] moves, int count, SplittableRandom random) {
+        return moves[random.nextInt(count)];
+    }
+}
@@ -0,0 +1,180 @@
+package game.sim;
+
+import game.GameState;
+import game.record.GameRecordWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Plays many games between two policies without any user interface, spread
+ * over a pool of worker threads. Each worker reuses one {@link GameState} and
+ * one move buffer for all of its games, and collects its results in its own
+ * {@link SimulationStats}, so workers share nothing while they play.
+ */
+public class SelfPlaySimulator {
+
+    private final int size;
+    private final Supplier<Policy> playerOne;
+    private final Supplier<Policy> playerTwo;
+    private final int threads;
+    private final long seed;
+    private GameRecordWriter recorder;
+    private String playerOneName;
+    private String playerTwoName;
+
+    /**
+     * Constructs a simulator.
+     *
+     * @param size the size of the board (size x size)
+     * @param playerOne creates the policy of Player One for each worker
+     * @param playerTwo creates the policy of Player Two for each worker
+     * @param threads the number of worker threads
+     * @param seed the seed from which the random number generators of the workers are derived
+     */
+    public SelfPlaySimulator(int size, Supplier<Policy> playerOne, Supplier<Policy> playerTwo, int threads, long seed) {
+        this.size = size;
+        this.playerOne = playerOne;
+        this.playerTwo = playerTwo;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    /**
+     * Makes the simulator write every game it plays to a game record writer.
+     * The workers share the writer, so the order of the games in the record
+     * depends on thread scheduling.
+     *
+     * @param writer the writer to record the games with
+     * @param playerOne the name of Player One in the records
+     * @param playerTwo the name of Player Two in the records
+     */
+    public void recordTo(GameRecordWriter writer, String playerOne, String playerTwo) {
+        recorder = writer;
+        playerOneName = playerOne;
+        playerTwoName = playerTwo;
+    }
+
+    /**
+     * Plays the given number of games and returns the merged results.
+     *
+     * @param games the number of games to play
+     * @return the results of all games
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers
+     */
+    public SimulationStats run(long games) throws InterruptedException {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SimulationStats>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long share = games / threads + (i < games % threads ? 1 : 0);
+                SplittableRandom random = seeds.split();
+                results.add(pool.submit(() -> play(share, random)));
+            }
+            SimulationStats total = new SimulationStats();
+            for (Future<SimulationStats> result : results) {
+                total.merge(result.get());
+            }
+            return total;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays games on the calling thread.
+     *
+     * @param games the number of games to play
+     * @param random the random number generator of this worker
+     * @return the results of the games
+     */
+    private SimulationStats play(long games, SplittableRandom random) {
+        Policy one = playerOne.get();
+        Policy two = playerTwo.get();
+        GameState state = new GameState(size);
+        int[] moves = new int[state.maxMoveCount()];
+        SimulationStats stats = new SimulationStats();
+
+        for (long game = 0; game < games; game++) {
+            state.resetBoard();
+            if (!state.isPlayerOneTurn()) {
+                state.switchTurn();
+            }
+            int firstMove = 0;
+            int length = 0;
+            while (!state.isGameOver()) {
+                int count = state.generateMoves(moves);
+                Policy policy = state.isPlayerOneTurn() ? one : two;
+                int move = policy.chooseMove(state, moves, count, random);
+                if (length == 0) {
+                    firstMove = move;
+                }
+                state.makeMove(move);
+                length++;
+            }
+            // The player who made the last move wins, so Player One won if Player Two is to move
+            stats.record(firstMove, length, !state.isPlayerOneTurn());
+            if (recorder != null) {
+                try {
+                    recorder.write(state, playerOneName, playerTwoName);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Runs a self-play batch and prints throughput and statistics.
+     *
+     * @param args board size (default 4), number of games (default 1000000),
+     * policy of Player One and of Player Two ({@code random}, {@code greedy},
+     * {@code solver}, {@code tablebase}, {@code mcts} or {@code alphabeta}; default {@code random}), and number of threads
+     * (default: number of available processors), and optionally a file to record the games to
+     * @throws InterruptedException if interrupted while waiting for the workers
+     * @throws IOException if the record file cannot be written
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        String one = args.length > 2 ? args[2] : "random";
+        String two = args.length > 3 ? args[3] : "random";
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        Path recordFile = args.length > 5 ? Path.of(args[5]) : null;
+
+        SelfPlaySimulator simulator = new SelfPlaySimulator(size, Policy.named(one, size), Policy.named(two, size), threads, System.nanoTime());
+        System.out.println("Playing " + games + " games of " + one + " vs " + two + " on a " + size + "x" + size + " board with " + threads + " threads");
+
+        GameRecordWriter writer = recordFile != null ? new GameRecordWriter(recordFile) : null;
+        long start = System.nanoTime();
+        SimulationStats stats;
+        try {
+            if (writer != null) {
+                simulator.recordTo(writer, one, two);
+            }
+            stats = simulator.run(games);
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games in %.2f s (%.0f games/sec)%n", stats.getGames(), seconds, stats.getGames() / seconds);
+        System.out.print(stats.report(10));
+    }
+}
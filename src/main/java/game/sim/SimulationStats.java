@@ -0,0 +1,150 @@
+package game.sim;
+
+import game.Moves;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the results of self-play games. Each worker fills its own
+ * instance, and the instances are merged when all games are done.
+ */
+public class SimulationStats {
+
+    private long games;
+    private long playerOneWins;
+    private long totalMoves;
+    private long[] lengthHistogram = new long[16];
+    // first move -> {games, wins of Player One}
+    private final Map<Integer, long[]> firstMoves = new HashMap<>();
+
+    /**
+     * Records the result of a game.
+     *
+     * @param firstMove the packed first move of the game
+     * @param length the number of moves of the game
+     * @param playerOneWon whether Player One won the game
+     */
+    public void record(int firstMove, int length, boolean playerOneWon) {
+        games++;
+        totalMoves += length;
+        if (playerOneWon) {
+            playerOneWins++;
+        }
+        if (length >= lengthHistogram.length) {
+            lengthHistogram = Arrays.copyOf(lengthHistogram, Math.max(length + 1, lengthHistogram.length * 2));
+        }
+        lengthHistogram[length]++;
+        long[] counts = firstMoves.computeIfAbsent(firstMove, m -> new long[2]);
+        counts[0]++;
+        if (playerOneWon) {
+            counts[1]++;
+        }
+    }
+
+    /**
+     * Adds the results collected by another instance to this one.
+     *
+     * @param other the results to add
+     */
+    public void merge(SimulationStats other) {
+        games += other.games;
+        playerOneWins += other.playerOneWins;
+        totalMoves += other.totalMoves;
+        if (other.lengthHistogram.length > lengthHistogram.length) {
+            lengthHistogram = Arrays.copyOf(lengthHistogram, other.lengthHistogram.length);
+        }
+        for (int i = 0; i < other.lengthHistogram.length; i++) {
+            lengthHistogram[i] += other.lengthHistogram[i];
+        }
+        other.firstMoves.forEach((move, counts) -> {
+            long[] mine = firstMoves.computeIfAbsent(move, m -> new long[2]);
+            mine[0] += counts[0];
+            mine[1] += counts[1];
+        });
+    }
+
+    /**
+     * Gets the number of games recorded.
+     *
+     * @return the number of games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the number of games won by Player One.
+     *
+     * @return the number of wins of Player One
+     */
+    public long getPlayerOneWins() {
+        return playerOneWins;
+    }
+
+    /**
+     * Gets the number of moves of all games recorded.
+     *
+     * @return the total number of moves
+     */
+    public long getTotalMoves() {
+        return totalMoves;
+    }
+
+    /**
+     * Gets the number of games of each length.
+     *
+     * @return a copy of the histogram, indexed by the number of moves of a game;
+     * lengths beyond the end of the array did not occur
+     */
+    public long[] getLengthHistogram() {
+        return lengthHistogram.clone();
+    }
+
+    /**
+     * Gets the fraction of the games won by Player One.
+     *
+     * @return the win rate of Player One, or 0 if no games were recorded
+     */
+    public double getPlayerOneWinRate() {
+        return games == 0 ? 0 : (double) playerOneWins / games;
+    }
+
+    /**
+     * Returns a report of the win rates by first move and the distribution of
+     * game lengths.
+     *
+     * @param topMoves the number of most frequent first moves to list
+     * @return the report
+     */
+    public String report(int topMoves) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Player 1 wins: %.2f%%, average length: %.2f moves%n",
+                100 * getPlayerOneWinRate(), games == 0 ? 0.0 : (double) totalMoves / games));
+
+        sb.append("Win rate of Player 1 by first move:\n");
+        List<Map.Entry<Integer, long[]>> entries = new ArrayList<>(firstMoves.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        for (Map.Entry<Integer, long[]> entry : entries.subList(0, Math.min(topMoves, entries.size()))) {
+            long[] counts = entry.getValue();
+            sb.append(String.format("  %-14s %10d games  %6.2f%%%n",
+                    Moves.toString(entry.getKey()), counts[0], 100.0 * counts[1] / counts[0]));
+        }
+        if (entries.size() > topMoves) {
+            sb.append("  ... ").append(entries.size() - topMoves).append(" more\n");
+        }
+
+        sb.append("Game length histogram:\n");
+        long max = Arrays.stream(lengthHistogram).max().orElse(0);
+        for (int length = 0; length < lengthHistogram.length; length++) {
+            if (lengthHistogram[length] > 0) {
+                int bar = (int) (50 * lengthHistogram[length] / max);
+                sb.append(String.format("  %4d %10d %s%n", length, lengthHistogram[length], "#".repeat(Math.max(1, bar))));
+            }
+        }
+        return sb.toString();
+    }
+}
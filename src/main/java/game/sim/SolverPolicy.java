@@ -0,0 +1,40 @@
+package game.sim;
+
+import game.GameState;
+import game.Moves;
+import game.solver.Move;
+import game.solver.Solver;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Plays perfectly using a {@link Solver}: makes a winning move whenever there
+ * is one, and a random move in lost positions. Supports boards of up to 8x8.
+ */
+public class SolverPolicy implements Policy {
+
+    private final Solver solver;
+
+    /**
+     * Constructs a policy for boards of the given size.
+     *
+     * @param size the size of the board
+     * @throws IllegalArgumentException if the board is too large for the solver
+     */
+    public SolverPolicy(int size) {
+        solver = new Solver(size);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int chooseMove(GameState state, int[] moves, int count, SplittableRandom random) {
+        Optional<Move> move = solver.findWinningMove(state);
+        if (move.isPresent()) {
+            return Moves.pack(move.get().from(), move.get().to());
+        }
+        return moves[random.nextInt(count)];
+    }
+}
@@ -0,0 +1,41 @@
+package game.sim;
+
+import game.GameState;
+import game.Moves;
+import game.solver.Move;
+import game.solver.Tablebase;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Plays perfectly by looking up every move in a {@link Tablebase}: wins as
+ * fast as possible in won positions and delays the loss as long as possible
+ * in lost ones. No search is needed, so a move costs one lookup per legal move.
+ */
+public class TablebasePolicy implements Policy {
+
+    private final Tablebase tablebase;
+
+    /**
+     * Constructs a policy using the given tablebase, which may be shared by
+     * several policies.
+     *
+     * @param tablebase the tablebase of the board size played
+     */
+    public TablebasePolicy(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int chooseMove(GameState state, int[] moves, int count, SplittableRandom random) {
+        Optional<Move> move = tablebase.bestMove(state);
+        if (move.isPresent()) {
+            return Moves.pack(move.get().from(), move.get().to());
+        }
+        return moves[random.nextInt(count)];
+    }
+}
@@ -0,0 +1,108 @@
+package game.solver;
+
+/**
+ * A fixed-size hash table mapping {@code long} position keys to small
+ * {@code int} values, which can be shared by search threads without locking.
+ *
+ * <p>Each slot holds a data word, with the value in its low half and a
+ * fingerprint of the key in its high half, and the key XOR-ed with the data
+ * word. A reader accepts a slot only if the two words still match the key it
+ * looks for. The data words of different keys differ in their fingerprints,
+ * so a slot that another thread is overwriting at the same time, where the
+ * words come from different entries, reads as a miss instead of a wrong value.
+ * When two keys hash to the same slot, the newer entry replaces the older
+ * one.</p>
+ */
+public class ConcurrentTranspositionTable {
+
+    /**
+     * The value returned by {@link #get(long)} for keys that are not in the table.
+     */
+    public static final int ABSENT = -1;
+
+    private final long[] checks;
+    private final long[] data;
+    private final int mask;
+
+    /**
+     * Constructs an empty table with a default capacity of 2^20 entries.
+     */
+    public ConcurrentTranspositionTable() {
+        this(1 << 20);
+    }
+
+    /**
+     * Constructs an empty table with at least the given number of slots.
+     *
+     * @param capacity the minimum number of slots
+     */
+    public ConcurrentTranspositionTable(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(16, capacity) * 2 - 1);
+        checks = new long[slots];
+        data = new long[slots];
+        mask = slots - 1;
+    }
+
+    /**
+     * Returns the value stored for a key.
+     *
+     * @param key the position key
+     * @return the value stored for the key, or {@link #ABSENT} if there is none
+     */
+    public int get(long key) {
+        int i = slot(key);
+        long d = data[i];
+        if (d != 0L && (checks[i] ^ d) == key) {
+            return (int) d - 1;
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Stores a value for a key, replacing whatever entry occupies its slot.
+     *
+     * @param key the position key
+     * @param value the value to store, which must not be negative
+     * @throws IllegalArgumentException if the value is negative
+     */
+    public void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        int i = slot(key);
+        // Never 0, which marks an empty slot, as the low half is at least 1
+        long d = (long) fingerprint(key) << 32 | value + 1L;
+        data[i] = d;
+        checks[i] = key ^ d;
+    }
+
+    /**
+     * Returns the number of slots in the table.
+     *
+     * @return the capacity of the table
+     */
+    public int capacity() {
+        return data.length;
+    }
+
+    /**
+     * Returns the slot of a key.
+     *
+     * @param key the position key
+     * @return the index of the slot
+     */
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Returns a hash of a key that is independent of its slot.
+     *
+     * @param key the position key
+     * @return the fingerprint of the key
+     */
+    private static int fingerprint(long key) {
+        return (int) ((key * 0xC2B2AE3D27D4EB4FL) >>> 32);
+    }
+}
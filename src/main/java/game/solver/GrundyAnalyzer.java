@@ -0,0 +1,358 @@
+package game.solver;
+
+import game.GameState;
+import game.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Analyzes positions by splitting them into independent components and
+ * combining their Sprague-Grundy values.
+ *
+ * <p>A move removes a segment of adjacent stones, so it never touches two
+ * groups of stones that are not connected horizontally or vertically. Each
+ * such group is therefore an independent subgame, and the position is a win
+ * for the player to move exactly if the XOR of the Grundy values of its
+ * components is nonzero.</p>
+ *
+ * <p>Components are analyzed as shapes in an 8x8 frame, translated to the
+ * top-left corner, so boards of any size can be analyzed as long as every
+ * component fits into an 8x8 bounding box. Grundy values are cached by the
+ * canonical form of the shape (see {@link Symmetry}), so shapes that differ
+ * only in position, rotation or reflection are analyzed once.</p>
+ *
+ * <p>A position with a larger component cannot be analyzed, and the results
+ * are empty. A fresh board larger than 8x8 is a single such component, so on
+ * large boards the analyzer helps once the stones have broken up into small
+ * groups, which is also when the number of positions makes other searches
+ * impractical.</p>
+ */
+public class GrundyAnalyzer {
+
+    private static final int FRAME = 8;
+    private static final long COLUMN_0 = 0x0101010101010101L;
+    private static final long COLUMN_7 = COLUMN_0 << 7;
+
+    private final Symmetry symmetry = new Symmetry(FRAME);
+    private final TranspositionTable table = new TranspositionTable();
+
+    /**
+     * A component of a position: its shape translated to the top-left corner of
+     * the 8x8 frame, and the offset of the frame on the original board.
+     *
+     * @param shape the bitboard of the stones of the component in the frame
+     * @param rowOffset the row of the board that is row 0 of the frame
+     * @param colOffset the column of the board that is column 0 of the frame
+     */
+    private record Component(long shape, int rowOffset, int colOffset) {}
+
+    /**
+     * Returns the Grundy value of the given state.
+     *
+     * @param state the state to analyze
+     * @return the XOR of the Grundy values of the components of the board,
+     * or an empty {@code OptionalInt} if a component does not fit into an 8x8 box
+     */
+    public OptionalInt grundyValue(GameState state) {
+        List<Component> components = components(state.getBoard());
+        if (components == null) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(grundyValue(components));
+    }
+
+    /**
+     * Decides whether the given state is a win for the player to move.
+     *
+     * @param state the state to analyze
+     * @return true if the player to move can force a win, false if not, or
+     * an empty {@code Optional} if a component does not fit into an 8x8 box
+     */
+    public Optional<Boolean> isWin(GameState state) {
+        OptionalInt value = grundyValue(state);
+        return value.isPresent() ? Optional.of(value.getAsInt() != 0) : Optional.empty();
+    }
+
+    /**
+     * Returns a winning move for the player to move in the given state. The
+     * move changes the Grundy value of one component so that the XOR of all
+     * components becomes zero.
+     *
+     * @param state the state to analyze
+     * @return a move after which the opponent is in a lost position, or an
+     * empty {@code Optional} if the position is lost or a component does not
+     * fit into an 8x8 box, which {@link #isWin(GameState)} tells apart
+     */
+    public Optional<Move> findWinningMove(GameState state) {
+        List<Component> components = components(state.getBoard());
+        if (components == null) {
+            return Optional.empty();
+        }
+        int total = grundyValue(components);
+        if (total == 0) {
+            return Optional.empty();
+        }
+        for (Component component : components) {
+            long shape = component.shape();
+            int target = grundy(shape) ^ total;
+            long[] moves = segments(shape);
+            for (long segment : moves) {
+                if (grundyOfAll(shape ^ segment) == target) {
+                    int first = Long.numberOfTrailingZeros(segment);
+                    int last = Long.SIZE - 1 - Long.numberOfLeadingZeros(segment);
+                    return Optional.of(new Move(
+                            new Position(component.rowOffset() + first / FRAME, component.colOffset() + first % FRAME),
+                            new Position(component.rowOffset() + last / FRAME, component.colOffset() + last % FRAME)));
+                }
+            }
+        }
+        throw new IllegalStateException("No move reaches Grundy value 0");
+    }
+
+    /**
+     * Gets the number of distinct shapes analyzed so far.
+     *
+     * @return the number of cached Grundy values
+     */
+    public int getCacheSize() {
+        return table.size();
+    }
+
+    /**
+     * Returns the XOR of the Grundy values of components.
+     *
+     * @param components the components
+     * @return the Grundy value of the position made up of the components
+     */
+    private int grundyValue(List<Component> components) {
+        int value = 0;
+        for (Component component : components) {
+            value ^= grundy(component.shape());
+        }
+        return value;
+    }
+
+    /**
+     * Splits a board into its connected components.
+     *
+     * @param board the board to split
+     * @return the components of the board, or {@code null} if a component
+     * does not fit into an 8x8 box
+     */
+    private List<Component> components(int[][] board) {
+        int rows = board.length;
+        int cols = rows == 0 ? 0 : board[0].length;
+        boolean[][] visited = new boolean[rows][cols];
+        int[] stack = new int[rows * cols];
+        int[] cells = new int[rows * cols];
+        List<Component> components = new ArrayList<>();
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (board[row][col] == 0 || visited[row][col]) {
+                    continue;
+                }
+                // Collect the cells of the component with a depth-first flood fill
+                int top = 0;
+                int count = 0;
+                stack[top++] = row * cols + col;
+                visited[row][col] = true;
+                int minRow = row;
+                int maxRow = row;
+                int minCol = col;
+                int maxCol = col;
+                while (top > 0) {
+                    int cell = stack[--top];
+                    cells[count++] = cell;
+                    int r = cell / cols;
+                    int c = cell % cols;
+                    minRow = Math.min(minRow, r);
+                    maxRow = Math.max(maxRow, r);
+                    minCol = Math.min(minCol, c);
+                    maxCol = Math.max(maxCol, c);
+                    top = push(board, visited, stack, top, r - 1, c);
+                    top = push(board, visited, stack, top, r + 1, c);
+                    top = push(board, visited, stack, top, r, c - 1);
+                    top = push(board, visited, stack, top, r, c + 1);
+                }
+                if (maxRow - minRow >= FRAME || maxCol - minCol >= FRAME) {
+                    return null;
+                }
+                long shape = 0L;
+                for (int i = 0; i < count; i++) {
+                    shape |= 1L << ((cells[i] / cols - minRow) * FRAME + cells[i] % cols - minCol);
+                }
+                components.add(new Component(shape, minRow, minCol));
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Pushes a cell onto the flood fill stack if it contains an unvisited stone.
+     *
+     * @param board the board
+     * @param visited the cells visited so far
+     * @param stack the flood fill stack
+     * @param top the number of cells on the stack
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @return the new number of cells on the stack
+     */
+    private static int push(int[][] board, boolean[][] visited, int[] stack, int top, int row, int col) {
+        if (row >= 0 && row < board.length && col >= 0 && col < board[row].length
+                && board[row][col] != 0 && !visited[row][col]) {
+            visited[row][col] = true;
+            stack[top++] = row * board[row].length + col;
+        }
+        return top;
+    }
+
+    /**
+     * Returns the XOR of the Grundy values of the components of a frame bitboard.
+     *
+     * @param stones the bitboard, which may consist of several components
+     * @return the Grundy value of the bitboard
+     */
+    private int grundyOfAll(long stones) {
+        int value = 0;
+        while (stones != 0L) {
+            long component = componentOf(stones);
+            value ^= grundy(normalize(component));
+            stones &= ~component;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the Grundy value of a connected shape.
+     *
+     * @param shape the bitboard of a connected shape in the frame
+     * @return the Grundy value of the shape
+     */
+    private int grundy(long shape) {
+        long key = canonical(shape);
+        if ((key & ~0xFFL) == 0 && (key & (key + 1)) == 0) {
+            // A single run of k stones has Grundy value k
+            return Long.bitCount(key);
+        }
+        int cached = table.get(key);
+        if (cached != TranspositionTable.ABSENT) {
+            return cached;
+        }
+        long reachable = 0L;
+        List<Integer> largeValues = null;
+        for (long segment : segments(key)) {
+            int value = grundyOfAll(key ^ segment);
+            if (value < Long.SIZE) {
+                reachable |= 1L << value;
+            } else {
+                if (largeValues == null) {
+                    largeValues = new ArrayList<>();
+                }
+                largeValues.add(value);
+            }
+        }
+        int mex = Long.numberOfTrailingZeros(~reachable);
+        if (mex == Long.SIZE && largeValues != null) {
+            while (largeValues.contains(mex)) {
+                mex++;
+            }
+        }
+        table.put(key, mex);
+        return mex;
+    }
+
+    /**
+     * Returns the masks of all row and column segments that are fully occupied
+     * in a frame bitboard.
+     *
+     * @param stones the bitboard
+     * @return the masks of the legal moves
+     */
+    private static long[] segments(long stones) {
+        long[] masks = new long[64];
+        int count = 0;
+        for (int line = 0; line < FRAME; line++) {
+            int row = (int) (stones >>> (line * FRAME)) & 0xFF;
+            int column = 0;
+            for (int i = 0; i < FRAME; i++) {
+                column |= (int) ((stones >>> (i * FRAME + line)) & 1) << i;
+            }
+            for (int start = 0; start < FRAME; start++) {
+                for (int end = start; end < FRAME && (row & (1 << end)) != 0; end++) {
+                    if (count == masks.length) {
+                        masks = Arrays.copyOf(masks, count * 2);
+                    }
+                    masks[count++] = (long) (((1 << (end + 1)) - 1) & ~((1 << start) - 1)) << (line * FRAME);
+                }
+                for (int end = start + 1; end < FRAME && (column & (1 << start)) != 0 && (column & (1 << end)) != 0; end++) {
+                    if (count == masks.length) {
+                        masks = Arrays.copyOf(masks, count * 2);
+                    }
+                    long mask = 0L;
+                    for (int i = start; i <= end; i++) {
+                        mask |= 1L << (i * FRAME + line);
+                    }
+                    masks[count++] = mask;
+                }
+            }
+        }
+        return Arrays.copyOf(masks, count);
+    }
+
+    /**
+     * Returns the connected component of a frame bitboard that contains its lowest stone.
+     *
+     * @param stones a nonempty bitboard
+     * @return the bitboard of the component
+     */
+    private static long componentOf(long stones) {
+        long component = Long.lowestOneBit(stones);
+        long previous;
+        do {
+            previous = component;
+            component |= ((component << 1) & ~COLUMN_0) | ((component >>> 1) & ~COLUMN_7)
+                    | (component << FRAME) | (component >>> FRAME);
+            component &= stones;
+        } while (component != previous);
+        return component;
+    }
+
+    /**
+     * Returns the canonical form of a shape: the smallest of its normalized images
+     * under the symmetries of the frame.
+     *
+     * @param shape the bitboard of a shape in the frame
+     * @return the canonical form of the shape
+     */
+    private long canonical(long shape) {
+        long best = normalize(shape);
+        for (int t = 1; t < Symmetry.COUNT; t++) {
+            long image = normalize(symmetry.transform(shape, t));
+            if (Long.compareUnsigned(image, best) < 0) {
+                best = image;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Translates a shape so that its topmost row and leftmost column are the first
+     * row and column of the frame.
+     *
+     * @param shape a nonempty bitboard
+     * @return the translated bitboard
+     */
+    private static long normalize(long shape) {
+        shape >>>= (Long.numberOfTrailingZeros(shape) / FRAME) * FRAME;
+        long columns = shape | (shape >>> 32);
+        columns |= columns >>> 16;
+        columns |= columns >>> 8;
+        return shape >>> Long.numberOfTrailingZeros(columns & 0xFF);
+    }
+}
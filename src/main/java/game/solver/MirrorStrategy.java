@@ -0,0 +1,61 @@
+package game.solver;
+
+import java.util.Arrays;
+
+/**
+ * Decides positions on boards of even size by the mirror strategy, without
+ * searching.
+ *
+ * <p>A half turn maps no row or column of an even board onto itself, so in a
+ * position that the half turn leaves unchanged, every move has an image that
+ * is a legal move and does not overlap it. The opponent of the player to move
+ * answers every move with its image, restores the symmetry, and so makes the
+ * last move: symmetric positions are lost. Conversely, a position is won if
+ * the stones whose image is empty form a single segment, as removing them
+ * leaves a symmetric position. This decides the opening of every even board,
+ * and the reply to every first move, at once.</p>
+ */
+final class MirrorStrategy {
+
+    private final Symmetry symmetry;
+    // the masks of all row and column segments, sorted for binary search
+    private final long[] segments;
+
+    /**
+     * Constructs the mirror strategy for boards of an even size.
+     *
+     * @param symmetry the symmetries of the board
+     * @param segments the masks of all row and column segments of the board
+     * @throws IllegalArgumentException if the size of the board is odd
+     */
+    MirrorStrategy(Symmetry symmetry, long[] segments) {
+        if (symmetry.getSize() % 2 != 0) {
+            throw new IllegalArgumentException("The mirror strategy needs a board of even size: " + symmetry.getSize());
+        }
+        this.symmetry = symmetry;
+        this.segments = segments.clone();
+        Arrays.sort(this.segments);
+    }
+
+    /**
+     * Returns the stones whose image under a half turn is an empty cell.
+     *
+     * @param stones the bitboard of the cells that contain a stone
+     * @return the unmatched stones, which is {@code 0} exactly if the position
+     * is symmetric, and thus lost for the player to move
+     */
+    long unmatched(long stones) {
+        return stones & ~symmetry.transform(stones, Symmetry.HALF_TURN);
+    }
+
+    /**
+     * Checks if removing the given stones is a single move.
+     *
+     * @param stones the unmatched stones of a position
+     * @return true if the stones form a row or column segment, so removing
+     * them wins, false otherwise
+     */
+    boolean isSegment(long stones) {
+        return Arrays.binarySearch(segments, stones) >= 0;
+    }
+}
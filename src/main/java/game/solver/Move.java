@@ -0,0 +1,11 @@
+package game.solver;
+
+import game.Position;
+
+/**
+ * A move that removes the stones of a row or column segment.
+ *
+ * @param from one end of the segment
+ * @param to the other end of the segment
+ */
+public record Move(Position from, Position to) {}
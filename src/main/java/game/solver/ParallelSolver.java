@@ -0,0 +1,381 @@
+package game.solver;
+
+import game.Bitboards;
+import game.GameState;
+import game.Position;
+
+import java.io.Serial;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Solves positions of the game under perfect play on several threads. Gives
+ * the same results as {@link Solver}, but splits the search tree into
+ * {@link ForkJoinPool} tasks near the root, so idle threads steal the
+ * subtrees of busy ones.
+ *
+ * <p>All threads share a {@link ConcurrentTranspositionTable} keyed by the
+ * canonical board occupancy. As soon as one child of a node proves to be a
+ * loss, the node is a win, and the tasks still searching its other children
+ * stop early. Like {@link Solver}, it does not search positions that the
+ * {@link MirrorStrategy} decides.</p>
+ */
+public class ParallelSolver {
+
+    private static final int LOSS = 0;
+    private static final int WIN = 1;
+    private static final int ABORTED = -1;
+    private static final int UNDECIDED = -2;
+
+    // tasks check for cancellation every this many sequential nodes
+    private static final int ABORT_CHECK_INTERVAL = 1024;
+
+    private final int size;
+    private final long[] segments;
+    private final Symmetry symmetry;
+    // null on boards of odd size
+    private final MirrorStrategy mirror;
+    private final ConcurrentTranspositionTable table;
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    /**
+     * Constructs a solver for boards of the given size that uses the common
+     * fork-join pool and splits the first three plies into parallel tasks.
+     *
+     * @param size the size of the board (size x size)
+     * @throws IllegalArgumentException if the board does not fit into a bitboard
+     */
+    public ParallelSolver(int size) {
+        this(size, ForkJoinPool.commonPool(), 3, new ConcurrentTranspositionTable(1 << 22));
+    }
+
+    /**
+     * Constructs a solver for boards of the given size.
+     *
+     * @param size the size of the board (size x size)
+     * @param pool the pool that runs the search tasks
+     * @param splitDepth the number of plies below the root that are split into
+     * parallel tasks; deeper nodes are searched sequentially within their task
+     * @param table the transposition table shared by all search tasks
+     * @throws IllegalArgumentException if the board does not fit into a bitboard
+     */
+    public ParallelSolver(int size, ForkJoinPool pool, int splitDepth, ConcurrentTranspositionTable table) {
+        Bitboards.checkSize(size);
+        this.size = size;
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+        this.table = table;
+        segments = Solver.createSegments(size);
+        symmetry = new Symmetry(size);
+        mirror = size % 2 == 0 ? new MirrorStrategy(symmetry, segments) : null;
+    }
+
+    /**
+     * Decides whether the given state is a win for the player to move.
+     *
+     * @param state the state to solve
+     * @return true if the player to move can force a win, false otherwise
+     * @throws IllegalArgumentException if the board size differs from the size of this solver
+     */
+    public boolean isWin(GameState state) {
+        return isWin(toBitboard(state));
+    }
+
+    /**
+     * Decides whether a bitboard position is a win for the player to move.
+     *
+     * @param stones the bitboard of the cells that contain a stone
+     * @return true if the player to move can force a win, false otherwise
+     */
+    public boolean isWin(long stones) {
+        return pool.invoke(new SearchTask(stones, 0, null)) == WIN;
+    }
+
+    /**
+     * Returns a winning move for the player to move in the given state.
+     *
+     * @param state the state to solve
+     * @return a move after which the opponent is in a lost position, or an
+     * empty {@code Optional} if the position is lost
+     * @throws IllegalArgumentException if the board size differs from the size of this solver
+     */
+    public Optional<Move> findWinningMove(GameState state) {
+        long stones = toBitboard(state);
+        if (!isWin(stones)) {
+            return Optional.empty();
+        }
+        if (mirror != null && mirror.isSegment(mirror.unmatched(stones))) {
+            return Optional.of(toMove(mirror.unmatched(stones)));
+        }
+        // Every child of the root has been solved or a losing one was found,
+        // so the remaining work is mostly table lookups
+        for (long segment : segments) {
+            if ((stones & segment) == segment && !isWin(stones ^ segment)) {
+                return Optional.of(toMove(segment));
+            }
+        }
+        throw new IllegalStateException("Winning position without a winning move");
+    }
+
+    /**
+     * Converts a segment mask to a move between the two ends of the segment.
+     *
+     * @param segment the mask of a row or column segment
+     * @return the move that removes the segment
+     */
+    private Move toMove(long segment) {
+        int first = Long.numberOfTrailingZeros(segment);
+        int last = Long.SIZE - 1 - Long.numberOfLeadingZeros(segment);
+        return new Move(new Position(first / size, first % size), new Position(last / size, last % size));
+    }
+
+    /**
+     * Gets the size of the boards this solver handles.
+     *
+     * @return the size of the board (size x size)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Converts a state to a bitboard after checking its board size.
+     *
+     * @param state the state to convert
+     * @return the bitboard of the cells that contain a stone
+     */
+    private long toBitboard(GameState state) {
+        if (state.getRows() != size || state.getCols() != size) {
+            throw new IllegalArgumentException("Solver handles " + size + "x" + size + " boards only");
+        }
+        return Bitboards.fromBoard(state.getBoard());
+    }
+
+    /**
+     * Searches the subtree of one position. A task near the root forks a
+     * subtask for every distinct child; deeper tasks search sequentially.
+     */
+    private final class SearchTask extends RecursiveTask<Integer> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final long stones;
+        private final int depth;
+        private final SearchTask parent;
+        // set once a child is proven lost, which decides this node and cancels its other children
+        private volatile boolean won;
+        private int nodes;
+
+        private SearchTask(long stones, int depth, SearchTask parent) {
+            this.stones = stones;
+            this.depth = depth;
+            this.parent = parent;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Integer compute() {
+            int result = depth < splitDepth ? searchParallel() : search(stones);
+            if (result == LOSS && parent != null) {
+                parent.won = true;
+            }
+            return result;
+        }
+
+        /**
+         * Searches the children of this task's position in parallel subtasks.
+         *
+         * @return the result of the position, or {@link #ABORTED} if the search was cancelled
+         */
+        private int searchParallel() {
+            int decided = decide(stones);
+            if (decided != UNDECIDED) {
+                return decided;
+            }
+            long key = symmetry.canonical(stones);
+            int cached = table.get(key);
+            if (cached != ConcurrentTranspositionTable.ABSENT) {
+                return cached;
+            }
+            SearchTask[] children = new SearchTask[segments.length];
+            long[] seen = new long[segments.length];
+            int count = 0;
+            for (long segment : segments) {
+                if ((stones & segment) == segment) {
+                    long child = stones ^ segment;
+                    long childKey = symmetry.canonical(child);
+                    // Symmetric children have the same value, so search only one of them
+                    if (indexOf(seen, count, childKey) < 0) {
+                        seen[count] = childKey;
+                        children[count++] = new SearchTask(child, depth + 1, this);
+                    }
+                }
+            }
+            for (int i = count - 1; i > 0; i--) {
+                children[i].fork();
+            }
+            children[0].invoke();
+            for (int i = 1; i < count; i++) {
+                if (won) {
+                    children[i].cancel(false);
+                }
+                if (!children[i].isCancelled()) {
+                    children[i].join();
+                }
+            }
+            if (isAborted()) {
+                return ABORTED;
+            }
+            int result = won ? WIN : LOSS;
+            table.put(key, result);
+            return result;
+        }
+
+        /**
+         * Searches a position sequentially.
+         *
+         * @param position the bitboard of the position
+         * @return the result of the position, or {@link #ABORTED} if the search was cancelled
+         */
+        private int search(long position) {
+            int decided = decide(position);
+            if (decided != UNDECIDED) {
+                return decided;
+            }
+            long key = symmetry.canonical(position);
+            int cached = table.get(key);
+            if (cached != ConcurrentTranspositionTable.ABSENT) {
+                return cached;
+            }
+            if (++nodes % ABORT_CHECK_INTERVAL == 0 && isAborted()) {
+                return ABORTED;
+            }
+            int result = LOSS;
+            for (long segment : segments) {
+                if ((position & segment) == segment) {
+                    int child = search(position ^ segment);
+                    if (child == ABORTED) {
+                        return ABORTED;
+                    }
+                    if (child == LOSS) {
+                        result = WIN;
+                        break;
+                    }
+                }
+            }
+            table.put(key, result);
+            return result;
+        }
+
+        /**
+         * Checks whether an ancestor of this task has already been decided, so
+         * the result of this task is no longer needed.
+         *
+         * @return true if the search of this task should stop, false otherwise
+         */
+        private boolean isAborted() {
+            for (SearchTask t = parent; t != null; t = t.parent) {
+                if (t.won) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Decides a position without searching, if it is empty or the mirror
+     * strategy applies.
+     *
+     * @param stones the bitboard of the position
+     * @return the result of the position, or {@link #UNDECIDED} if it must be searched
+     */
+    private int decide(long stones) {
+        if (stones == 0L) {
+            return LOSS;
+        }
+        if (mirror != null) {
+            long unmatched = mirror.unmatched(stones);
+            if (unmatched == 0L) {
+                return LOSS;
+            }
+            if (mirror.isSegment(unmatched)) {
+                return WIN;
+            }
+        }
+        return UNDECIDED;
+    }
+
+    /**
+     * Returns the index of a key among the first elements of an array.
+     *
+     * @param keys the array to search
+     * @param count the number of elements to search
+     * @param key the key to find
+     * @return the index of the key, or {@code -1} if it is not found
+     */
+    private static int indexOf(long[] keys, int count, long key) {
+        for (int i = 0; i < count; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Measures the speed-up of the parallel solver over the single-threaded
+     * {@link Solver} on the same positions: the opening of the given board size
+     * and a few random positions with some stones already removed.
+     *
+     * @param args the board size (default 5) and the number of random positions (default 4)
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int positions = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        Random random = new Random(42);
+        long[] boards = new long[positions + 1];
+        boards[0] = Bitboards.fullMask(size);
+        for (int i = 1; i < boards.length; i++) {
+            long stones = Bitboards.fullMask(size);
+            for (int k = 0; k < size; k++) {
+                stones &= ~(1L << random.nextInt(size * size));
+            }
+            boards[i] = stones;
+        }
+
+        int threads = ForkJoinPool.commonPool().getParallelism();
+        System.out.println("Solving " + boards.length + " positions of size " + size + "x" + size + " on " + threads + " threads");
+        // Both solvers keep their tables between positions, so later positions reuse earlier work alike
+        Solver solver = new Solver(size);
+        ParallelSolver parallelSolver = new ParallelSolver(size);
+        long sequentialNanos = 0;
+        long parallelNanos = 0;
+        for (long stones : boards) {
+            long start = System.nanoTime();
+            boolean expected = solver.isWin(stones);
+            long sequential = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            boolean actual = parallelSolver.isWin(stones);
+            long parallel = System.nanoTime() - start;
+
+            if (expected != actual) {
+                throw new IllegalStateException("Parallel result differs for\n" + Bitboards.toString(stones, size));
+            }
+            sequentialNanos += sequential;
+            parallelNanos += parallel;
+            System.out.printf("%s  sequential %7d ms  parallel %7d ms  speed-up %.2fx%n",
+                    expected ? "win " : "loss", sequential / 1_000_000, parallel / 1_000_000, (double) sequential / parallel);
+        }
+        System.out.printf("Total  sequential %7d ms  parallel %7d ms  speed-up %.2fx%n",
+                sequentialNanos / 1_000_000, parallelNanos / 1_000_000, (double) sequentialNanos / parallelNanos);
+    }
+}
@@ -0,0 +1,217 @@
+package game.solver;
+
+import game.Bitboards;
+import game.GameState;
+import game.Position;
+
+import java.util.Optional;
+
+/**
+ * Solves positions of the game under perfect play. A position is a win for
+ * the player to move if there is a move after which the opponent is in a lost
+ * position; the player facing an empty board has lost, since the opponent made
+ * the last move.
+ *
+ * <p>Positions are searched as bitboards (see {@link Bitboards}), so boards of
+ * up to 8x8 cells are supported. Results are memoized in a
+ * {@link TranspositionTable} keyed by the canonical form of the board occupancy
+ * (see {@link Symmetry}), so symmetric positions are solved and stored once.
+ * The table is kept between calls, so solving many positions of the same size
+ * reuses earlier work.</p>
+ *
+ * <p>On boards of even size, positions that the {@link MirrorStrategy} decides
+ * are not searched, which solves the 6x6 and 8x8 openings at once.</p>
+ */
+public class Solver {
+
+    private static final int LOSS = 0;
+    private static final int WIN = 1;
+
+    private final int size;
+    private final long[] segments;
+    private final Symmetry symmetry;
+    // null on boards of odd size
+    private final MirrorStrategy mirror;
+    private final TranspositionTable table = new TranspositionTable();
+
+    /**
+     * Constructs a solver for boards of the given size.
+     *
+     * @param size the size of the board (size x size)
+     * @throws IllegalArgumentException if the board does not fit into a bitboard
+     */
+    public Solver(int size) {
+        Bitboards.checkSize(size);
+        this.size = size;
+        segments = createSegments(size);
+        symmetry = new Symmetry(size);
+        mirror = size % 2 == 0 ? new MirrorStrategy(symmetry, segments) : null;
+    }
+
+    /**
+     * Creates the masks of all row and column segments of a board. A single
+     * cell is both a row and a column segment, but appears only once.
+     * Longer segments come first, as removing many stones at once tends to
+     * reach a decisive position sooner.
+     *
+     * @param n the size of the board
+     * @return the segment masks
+     */
+    static long[] createSegments(int n) {
+        long[] masks = new long[n * n * (n + 1) - n * n];
+        int count = 0;
+        for (int length = n; length >= 1; length--) {
+            for (int line = 0; line < n; line++) {
+                for (int start = 0; start + length <= n; start++) {
+                    int end = start + length - 1;
+                    masks[count++] = Bitboards.rowSegmentMask(n, line, start, end);
+                    if (length > 1) {
+                        masks[count++] = Bitboards.columnSegmentMask(n, line, start, end);
+                    }
+                }
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Decides whether the given state is a win for the player to move.
+     *
+     * @param state the state to solve
+     * @return true if the player to move can force a win, false otherwise
+     * @throws IllegalArgumentException if the board size differs from the size of this solver
+     */
+    public boolean isWin(GameState state) {
+        return isWin(toBitboard(state));
+    }
+
+    /**
+     * Returns a winning move for the player to move in the given state.
+     *
+     * @param state the state to solve
+     * @return a move after which the opponent is in a lost position, or an
+     * empty {@code Optional} if the position is lost
+     * @throws IllegalArgumentException if the board size differs from the size of this solver
+     */
+    public Optional<Move> findWinningMove(GameState state) {
+        long segment = findWinningSegment(toBitboard(state));
+        if (segment == 0L) {
+            return Optional.empty();
+        }
+        return Optional.of(toMove(segment));
+    }
+
+    /**
+     * Decides whether a bitboard position is a win for the player to move.
+     *
+     * @param stones the bitboard of the cells that contain a stone
+     * @return true if the player to move can force a win, false otherwise
+     */
+    public boolean isWin(long stones) {
+        if (stones == 0L) {
+            return false;
+        }
+        if (mirror != null) {
+            long unmatched = mirror.unmatched(stones);
+            if (unmatched == 0L) {
+                return false;
+            }
+            if (mirror.isSegment(unmatched)) {
+                return true;
+            }
+        }
+        long key = symmetry.canonical(stones);
+        int cached = table.get(key);
+        if (cached != TranspositionTable.ABSENT) {
+            return cached == WIN;
+        }
+        boolean win = false;
+        for (long segment : segments) {
+            if ((stones & segment) == segment && !isWin(stones ^ segment)) {
+                win = true;
+                break;
+            }
+        }
+        table.put(key, win ? WIN : LOSS);
+        return win;
+    }
+
+    /**
+     * Returns the mask of a winning move in a bitboard position.
+     *
+     * @param stones the bitboard of the cells that contain a stone
+     * @return the mask of the stones removed by a winning move, or {@code 0}
+     * if the position is lost
+     */
+    public long findWinningSegment(long stones) {
+        if (mirror != null) {
+            long unmatched = mirror.unmatched(stones);
+            if (unmatched != 0L && mirror.isSegment(unmatched)) {
+                return unmatched;
+            }
+        }
+        for (long segment : segments) {
+            if ((stones & segment) == segment && !isWin(stones ^ segment)) {
+                return segment;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Converts a segment mask to a move between the two ends of the segment.
+     *
+     * @param segment the mask of a row or column segment
+     * @return the move that removes the segment
+     */
+    public Move toMove(long segment) {
+        int first = Long.numberOfTrailingZeros(segment);
+        int last = Long.SIZE - 1 - Long.numberOfLeadingZeros(segment);
+        return new Move(new Position(first / size, first % size), new Position(last / size, last % size));
+    }
+
+    /**
+     * Gets the size of the boards this solver handles.
+     *
+     * @return the size of the board (size x size)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of positions solved so far.
+     *
+     * @return the number of entries in the transposition table
+     */
+    public int getSolvedCount() {
+        return table.size();
+    }
+
+    /**
+     * Converts a state to a bitboard after checking its board size.
+     *
+     * @param state the state to convert
+     * @return the bitboard of the cells that contain a stone
+     */
+    private long toBitboard(GameState state) {
+        if (state.getRows() != size || state.getCols() != size) {
+            throw new IllegalArgumentException("Solver handles " + size + "x" + size + " boards only");
+        }
+        return Bitboards.fromBoard(state.getBoard());
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        Solver solver = new Solver(size);
+        GameState state = new GameState(size);
+
+        long start = System.nanoTime();
+        Optional<Move> move = solver.findWinningMove(state);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println(size + "x" + size + " opening is a " + (move.isPresent() ? "win" : "loss") + " for the first player");
+        move.ifPresent(m -> System.out.println("Winning move: " + m.from() + " to " + m.to()));
+        System.out.println(solver.getSolvedCount() + " positions solved in " + millis + " ms");
+    }
+}
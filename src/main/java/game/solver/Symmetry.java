@@ -0,0 +1,207 @@
+package game.solver;
+
+import game.Bitboards;
+import game.Position;
+
+/**
+ * Maps square bitboards onto their symmetric equivalents. A square board has
+ * eight symmetries (the dihedral group D4): the identity, three rotations and
+ * four reflections. Row and column segments map onto row and column segments
+ * under each of them, so all eight images of a position have the same
+ * game-theoretic value.
+ *
+ * <p>The canonical form of a position is the numerically smallest of its eight
+ * images. Keying a cache by canonical forms stores symmetric positions only
+ * once. Moves found in the canonical orientation can be mapped back to the
+ * original one with {@link #toOriginal(Move, int)}.</p>
+ *
+ * <p>Transform {@code t} (0 to 7) first transposes the board if bit 2 is set,
+ * then mirrors the rows if bit 1 is set and the columns if bit 0 is set.
+ * Transform {@code 0} is the identity.</p>
+ */
+public class Symmetry {
+
+    /**
+     * The number of symmetries of a square board.
+     */
+    public static final int COUNT = 8;
+
+    /**
+     * The transform that turns the board by 180 degrees, i.e., mirrors both
+     * the rows and the columns.
+     */
+    public static final int HALF_TURN = 3;
+
+    private final int size;
+    private final int bytes;
+    // images[t][byteIndex * 256 + byteValue] is the image of those 8 bits under transform t
+    private final long[][] images = new long[COUNT][];
+    // cells[t][index] is the bit index that cell index is mapped to by transform t
+    private final int[][] cells = new int[COUNT][];
+    private final int[][] inverseCells = new int[COUNT][];
+
+    /**
+     * Constructs the symmetries of boards of the given size.
+     *
+     * @param size the size of the board (size x size)
+     * @throws IllegalArgumentException if the board does not fit into a bitboard
+     */
+    public Symmetry(int size) {
+        Bitboards.checkSize(size);
+        this.size = size;
+        int cellCount = size * size;
+        bytes = (cellCount + 7) / 8;
+        for (int t = 0; t < COUNT; t++) {
+            cells[t] = new int[cellCount];
+            inverseCells[t] = new int[cellCount];
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int from = Bitboards.index(size, row, col);
+                    int to = mapIndex(t, row, col);
+                    cells[t][from] = to;
+                    inverseCells[t][to] = from;
+                }
+            }
+            images[t] = new long[bytes * 256];
+            for (int b = 0; b < bytes; b++) {
+                for (int value = 0; value < 256; value++) {
+                    long image = 0L;
+                    for (int bit = 0; bit < 8; bit++) {
+                        int index = b * 8 + bit;
+                        if ((value & (1 << bit)) != 0 && index < cellCount) {
+                            image |= 1L << cells[t][index];
+                        }
+                    }
+                    images[t][b * 256 + value] = image;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the bit index a cell is mapped to by a transform.
+     *
+     * @param t the transform
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @return the bit index of the image of the cell
+     */
+    private int mapIndex(int t, int row, int col) {
+        if ((t & 4) != 0) {
+            int tmp = row;
+            row = col;
+            col = tmp;
+        }
+        if ((t & 2) != 0) {
+            row = size - 1 - row;
+        }
+        if ((t & 1) != 0) {
+            col = size - 1 - col;
+        }
+        return Bitboards.index(size, row, col);
+    }
+
+    /**
+     * Returns the image of a bitboard under a transform.
+     *
+     * @param stones the bitboard
+     * @param t the transform (0 to 7)
+     * @return the transformed bitboard
+     */
+    public long transform(long stones, int t) {
+        long[] table = images[t];
+        long image = 0L;
+        for (int b = 0; b < bytes; b++) {
+            image |= table[(b << 8) | (int) ((stones >>> (b << 3)) & 0xFF)];
+        }
+        return image;
+    }
+
+    /**
+     * Returns the canonical form of a bitboard, i.e., the smallest of its images.
+     *
+     * @param stones the bitboard
+     * @return the canonical form of the bitboard
+     */
+    public long canonical(long stones) {
+        long best = stones;
+        for (int t = 1; t < COUNT; t++) {
+            long image = transform(stones, t);
+            if (Long.compareUnsigned(image, best) < 0) {
+                best = image;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns a transform that maps a bitboard to its canonical form.
+     *
+     * @param stones the bitboard
+     * @return a transform {@code t} such that {@code transform(stones, t) == canonical(stones)}
+     */
+    public int canonicalTransform(long stones) {
+        long best = stones;
+        int bestTransform = 0;
+        for (int t = 1; t < COUNT; t++) {
+            long image = transform(stones, t);
+            if (Long.compareUnsigned(image, best) < 0) {
+                best = image;
+                bestTransform = t;
+            }
+        }
+        return bestTransform;
+    }
+
+    /**
+     * Returns the image of a position under a transform.
+     *
+     * @param p the position
+     * @param t the transform
+     * @return the transformed position
+     */
+    public Position transform(Position p, int t) {
+        return toPosition(cells[t][Bitboards.index(size, p.row(), p.col())]);
+    }
+
+    /**
+     * Returns the position that a transform maps to the given position.
+     *
+     * @param p the transformed position
+     * @param t the transform
+     * @return the position in the original orientation
+     */
+    public Position toOriginal(Position p, int t) {
+        return toPosition(inverseCells[t][Bitboards.index(size, p.row(), p.col())]);
+    }
+
+    /**
+     * Maps a move found on a transformed board back to the original orientation.
+     *
+     * @param move the move on the transformed board
+     * @param t the transform that was applied to the original board
+     * @return the corresponding move on the original board
+     */
+    public Move toOriginal(Move move, int t) {
+        return new Move(toOriginal(move.from(), t), toOriginal(move.to(), t));
+    }
+
+    /**
+     * Gets the size of the boards these symmetries act on.
+     *
+     * @return the size of the board (size x size)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Converts a bit index to a position.
+     *
+     * @param index the bit index
+     * @return the position of the cell
+     */
+    private Position toPosition(int index) {
+        return new Position(index / size, index % size);
+    }
+}
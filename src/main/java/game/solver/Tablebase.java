@@ -0,0 +1,284 @@
+package game.solver;
+
+import game.Bitboards;
+import game.GameState;
+import game.Position;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * A precomputed table of the value of every position of a board size, stored
+ * in a file and memory-mapped for lookups.
+ *
+ * <p>{@link #generate(int, Path)} enumerates all subsets of the cells as
+ * bitboards (see {@link Bitboards}). Every move removes stones, so each child
+ * of a position is numerically smaller than the position, and a single pass in
+ * increasing order computes every position from already computed children.</p>
+ *
+ * <p>The file starts with a 16-byte header (magic number, format version,
+ * board size and a reserved word), followed by one byte per position, indexed
+ * by the bitboard. The high bit of the byte is set if the position is a win
+ * for the player to move; the low seven bits hold the number of plies until
+ * the game ends if the winner wins as fast as possible and the loser delays as
+ * long as possible. A lookup reads one byte of the mapped file, so only the
+ * pages that are actually used are loaded, and not onto the heap.</p>
+ *
+ * <p>A 5x5 table has 2^25 entries and takes 32 MiB; larger boards are not
+ * supported. Instances are immutable and safe to share between threads.</p>
+ */
+public class Tablebase {
+
+    /**
+     * The largest board size a tablebase can be generated for.
+     */
+    public static final int MAX_SIZE = 5;
+
+    private static final int MAGIC = 0x5354424C; // "STBL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int WIN_FLAG = 0x80;
+    private static final int DISTANCE_MASK = 0x7F;
+    // positions are written to the file in chunks of this many bytes
+    private static final int WRITE_CHUNK = 1 << 20;
+
+    private final int size;
+    private final long[] segments;
+    private final MappedByteBuffer entries;
+
+    private Tablebase(int size, MappedByteBuffer entries) {
+        this.size = size;
+        this.entries = entries;
+        segments = Solver.createSegments(size);
+    }
+
+    /**
+     * Computes the tablebase of a board size and writes it to a file.
+     *
+     * @param size the size of the board (size x size)
+     * @param file the file to write, which is replaced if it exists
+     * @throws IllegalArgumentException if the size is not between 1 and {@link #MAX_SIZE}
+     * @throws IOException if the file cannot be written
+     */
+    public static void generate(int size, Path file) throws IOException {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Tablebases support board sizes 1 to " + MAX_SIZE + ": " + size);
+        }
+        long[] segments = Solver.createSegments(size);
+        int count = 1 << (size * size);
+        byte[] table = new byte[count];
+        // The empty board is lost for the player to move, with no plies left
+        for (int stones = 1; stones < count; stones++) {
+            int fastestWin = Integer.MAX_VALUE;
+            int slowestLoss = 0;
+            for (long segment : segments) {
+                int mask = (int) segment;
+                if ((stones & mask) == mask) {
+                    int child = table[stones ^ mask];
+                    int distance = child & DISTANCE_MASK;
+                    if ((child & WIN_FLAG) == 0) {
+                        fastestWin = Math.min(fastestWin, distance);
+                    } else {
+                        slowestLoss = Math.max(slowestLoss, distance);
+                    }
+                }
+            }
+            table[stones] = (byte) (fastestWin != Integer.MAX_VALUE ? WIN_FLAG | (fastestWin + 1) : slowestLoss + 1);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(0).flip();
+            writeFully(channel, header);
+            for (int offset = 0; offset < count; offset += WRITE_CHUNK) {
+                writeFully(channel, ByteBuffer.wrap(table, offset, Math.min(WRITE_CHUNK, count - offset)));
+            }
+        }
+    }
+
+    /**
+     * Writes all remaining bytes of a buffer to a channel.
+     *
+     * @param channel the channel to write to
+     * @param buffer the bytes to write
+     * @throws IOException if the bytes cannot be written
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Opens a tablebase file written by {@link #generate(int, Path)}. The file
+     * is mapped into memory, so the operating system loads its pages on demand;
+     * it stays mapped until the tablebase is garbage collected.
+     *
+     * @param file the file to open
+     * @return the tablebase stored in the file
+     * @throws IOException if the file cannot be read or is not a valid tablebase
+     */
+    public static Tablebase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a tablebase file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported tablebase version " + version);
+            }
+            int size = header.getInt();
+            if (size < 1 || size > MAX_SIZE || channel.size() != HEADER_BYTES + (1L << (size * size))) {
+                throw new IOException(file + " is truncated or has an invalid board size");
+            }
+            return new Tablebase(size, channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, 1L << (size * size)));
+        }
+    }
+
+    /**
+     * Returns the default file name of the tablebase of a board size.
+     *
+     * @param size the size of the board
+     * @return the path {@code tablebase-<size>.bin} relative to the working directory
+     */
+    public static Path defaultPath(int size) {
+        return Path.of("tablebase-" + size + ".bin");
+    }
+
+    /**
+     * Decides whether a bitboard position is a win for the player to move.
+     *
+     * @param stones the bitboard of the cells that contain a stone
+     * @return true if the player to move can force a win, false otherwise
+     */
+    public boolean isWin(long stones) {
+        return (entry(stones) & WIN_FLAG) != 0;
+    }
+
+    /**
+     * Decides whether the given state is a win for the player to move.
+     *
+     * @param state the state to look up
+     * @return true if the player to move can force a win, false otherwise
+     * @throws IllegalArgumentException if the board size differs from the size of this tablebase
+     */
+    public boolean isWin(GameState state) {
+        return isWin(toBitboard(state));
+    }
+
+    /**
+     * Returns the number of plies until the game ends under optimal play, when
+     * the winner wins as fast as possible and the loser delays as long as possible.
+     *
+     * @param stones the bitboard of the cells that contain a stone
+     * @return the number of remaining plies
+     */
+    public int distance(long stones) {
+        return entry(stones) & DISTANCE_MASK;
+    }
+
+    /**
+     * Returns the best move of the player to move: in a won position the
+     * fastest winning move, in a lost position the move that delays the loss
+     * the longest.
+     *
+     * @param state the state to look up
+     * @return the best move, or an empty {@code Optional} if the board is empty
+     * @throws IllegalArgumentException if the board size differs from the size of this tablebase
+     */
+    public Optional<Move> bestMove(GameState state) {
+        long stones = toBitboard(state);
+        boolean win = isWin(stones);
+        long best = 0L;
+        int bestDistance = 0;
+        for (long segment : segments) {
+            if ((stones & segment) != segment) {
+                continue;
+            }
+            long child = stones ^ segment;
+            if (win == isWin(child)) {
+                // Only moves that leave the opponent lost keep a win
+                continue;
+            }
+            int distance = distance(child);
+            if (best == 0L || (win ? distance < bestDistance : distance > bestDistance)) {
+                best = segment;
+                bestDistance = distance;
+            }
+        }
+        if (best == 0L) {
+            return Optional.empty();
+        }
+        int first = Long.numberOfTrailingZeros(best);
+        int last = Long.SIZE - 1 - Long.numberOfLeadingZeros(best);
+        return Optional.of(new Move(new Position(first / size, first % size), new Position(last / size, last % size)));
+    }
+
+    /**
+     * Gets the size of the boards this tablebase covers.
+     *
+     * @return the size of the board (size x size)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Reads the entry of a position.
+     *
+     * @param stones the bitboard of the position
+     * @return the unsigned entry byte
+     */
+    private int entry(long stones) {
+        return entries.get((int) stones) & 0xFF;
+    }
+
+    /**
+     * Converts a state to a bitboard after checking its board size.
+     *
+     * @param state the state to convert
+     * @return the bitboard of the cells that contain a stone
+     */
+    private long toBitboard(GameState state) {
+        if (state.getRows() != size || state.getCols() != size) {
+            throw new IllegalArgumentException("Tablebase covers " + size + "x" + size + " boards only");
+        }
+        return Bitboards.fromBoard(state.getBoard());
+    }
+
+    /**
+     * Generates the tablebase of a board size, then opens it and prints the
+     * value of the opening.
+     *
+     * @param args the board size (default 4) and the file to write (default {@code tablebase-<size>.bin})
+     * @throws IOException if the file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        Path file = args.length > 1 ? Path.of(args[1]) : defaultPath(size);
+
+        long start = System.nanoTime();
+        generate(size, file);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Wrote " + (1L << (size * size)) + " positions to " + file + " in " + millis + " ms");
+
+        Tablebase tablebase = open(file);
+        GameState state = new GameState(size);
+        long stones = Bitboards.fromBoard(state.getBoard());
+        System.out.println(size + "x" + size + " opening is a " + (tablebase.isWin(stones) ? "win" : "loss")
+                + " for the first player in " + tablebase.distance(stones) + " plies");
+        tablebase.bestMove(state).ifPresent(m -> System.out.println("Best move: " + m.from() + " to " + m.to()));
+    }
+}
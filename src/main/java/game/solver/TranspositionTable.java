@@ -0,0 +1,158 @@
+package game.solver;
+
+import java.util.Arrays;
+
+/**
+ * A hash table mapping {@code long} position keys to {@code int} values,
+ * using open addressing with linear probing. Keys and values are stored in
+ * primitive arrays, so lookups and insertions do not allocate.
+ */
+public class TranspositionTable {
+
+    /**
+     * The value returned by {@link #get(long)} for keys that are not in the table.
+     */
+    public static final int ABSENT = -1;
+
+    // key 0 marks a free slot, so the value of key 0 is stored separately
+    private static final long FREE = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int count;
+    private int zeroValue = ABSENT;
+
+    /**
+     * Constructs an empty table with a default initial capacity.
+     */
+    public TranspositionTable() {
+        this(1 << 16);
+    }
+
+    /**
+     * Constructs an empty table with room for at least the given number of
+     * entries before it has to grow.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    public TranspositionTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize + expectedSize / 3) * 2 - 1);
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the value stored for a key.
+     *
+     * @param key the position key
+     * @return the value stored for the key, or {@link #ABSENT} if there is none
+     */
+    public int get(long key) {
+        if (key == FREE) {
+            return zeroValue;
+        }
+        int i = slot(key);
+        long k;
+        while ((k = keys[i]) != FREE) {
+            if (k == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Stores a value for a key, replacing any previous value.
+     *
+     * @param key the position key
+     * @param value the value to store, which must not be negative
+     * @throws IllegalArgumentException if the value is negative
+     */
+    public void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        if (key == FREE) {
+            if (zeroValue == ABSENT) {
+                count++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int i = slot(key);
+        long k;
+        while ((k = keys[i]) != FREE) {
+            if (k == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++count > keys.length - keys.length / 4) {
+            grow();
+        }
+    }
+
+    /**
+     * Returns the number of entries in the table.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Removes all entries from the table.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        count = 0;
+        zeroValue = ABSENT;
+    }
+
+    /**
+     * Doubles the capacity of the table and reinserts all entries.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int j = 0; j < oldKeys.length; j++) {
+            long key = oldKeys[j];
+            if (key != FREE) {
+                int i = slot(key);
+                while (keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Allocates empty arrays with the given capacity.
+     *
+     * @param capacity the capacity, which must be a power of two
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns the home slot of a key.
+     *
+     * @param key the position key
+     * @return the index of the first slot to probe
+     */
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,61 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchReplayTest {
+
+    @Test
+    public void testSmallBoard() throws IOException {
+        try (BatchReplay replay = new BatchReplay(2)) {
+            // One full game won by Player 2, then an illegal move and an off-board move
+            replay.replay(script("0 0 0 1\n1 1, 1 0\n0 0 1 1\n5 0 5 1\n"));
+            assertNotNull(replay.getState());
+            assertNull(replay.getLargeState());
+            assertTrue(replay.report().contains("4 moves (2 illegal)"), replay.report());
+            assertTrue(replay.report().contains("1 games finished: Player 1 won 0, Player 2 won 1"), replay.report());
+            assertEquals(State.Status.IN_PROGRESS, replay.getStatus());
+        }
+    }
+
+    @Test
+    public void testLargeBoard() throws IOException {
+        int size = Moves.MAX_SIZE + 45;
+        StringBuilder script = new StringBuilder();
+        for (int row = 0; row < size; row++) {
+            script.append(row).append(" 0 ").append(row).append(' ').append(size - 1).append('\n');
+        }
+        // Past the board, and past the byte a packed move could hold
+        script.append("0 0 0 ").append(size).append('\n');
+        try (BatchReplay replay = new BatchReplay(size)) {
+            assertNull(replay.getState());
+            assertNotNull(replay.getLargeState());
+            replay.replay(script("# clear the board row by row\n0 0, 0 " + (size - 1) + "\n"));
+            assertEquals((long) size * size - size, replay.getLargeState().getStoneCount());
+            replay.replay(script(script.toString()));
+            // The first row was already gone, so its second removal is illegal too
+            String report = replay.report();
+            assertTrue(report.contains((size + 2) + " moves (2 illegal)"), report);
+            assertTrue(report.contains("1 games finished: Player 1 won 0, Player 2 won 1"), report);
+            assertTrue(report.contains("after 0 moves"), report);
+            assertEquals((long) size * size, replay.getLargeState().getStoneCount(), "The board is reset after the game");
+        }
+    }
+
+    @Test
+    public void testMalformedScript() {
+        try (BatchReplay replay = new BatchReplay(300)) {
+            assertThrows(IllegalArgumentException.class, () -> replay.replay(script("0 0 0")));
+            assertThrows(IllegalArgumentException.class, () -> replay.replay(script("0 x 0 1")));
+        }
+    }
+
+    private static ByteArrayInputStream script(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,138 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitboardGameStateTest {
+
+    @Test
+    public void testFullMask() {
+        assertEquals(0b1L, Bitboards.fullMask(1));
+        assertEquals(0xFFFFL, Bitboards.fullMask(4));
+        assertEquals(-1L, Bitboards.fullMask(8), "An 8x8 board should use every bit");
+    }
+
+    @Test
+    public void testCheckSize() {
+        assertThrows(IllegalArgumentException.class, () -> Bitboards.checkSize(0));
+        assertThrows(IllegalArgumentException.class, () -> Bitboards.checkSize(Bitboards.MAX_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> new BitboardGameState(new GameState(3, 4)));
+    }
+
+    @Test
+    public void testBoardRoundTrip() {
+        Random random = new Random(1);
+        for (int size = 1; size <= Bitboards.MAX_SIZE; size++) {
+            for (int i = 0; i < 100; i++) {
+                long bits = random.nextLong() & Bitboards.fullMask(size);
+                int[][] board = Bitboards.toBoard(bits, size);
+                assertEquals(bits, Bitboards.fromBoard(board), "Board should convert back to the same bitboard");
+                for (int row = 0; row < size; row++) {
+                    for (int col = 0; col < size; col++) {
+                        assertEquals((bits >>> Bitboards.index(size, row, col)) & 1, board[row][col]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSegmentMasks() {
+        for (int size = 1; size <= Bitboards.MAX_SIZE; size++) {
+            for (int line = 0; line < size; line++) {
+                for (int start = 0; start < size; start++) {
+                    for (int end = start; end < size; end++) {
+                        long row = 0L;
+                        long col = 0L;
+                        for (int i = start; i <= end; i++) {
+                            row |= 1L << Bitboards.index(size, line, i);
+                            col |= 1L << Bitboards.index(size, i, line);
+                        }
+                        assertEquals(row, Bitboards.rowSegmentMask(size, line, start, end));
+                        assertEquals(col, Bitboards.columnSegmentMask(size, line, start, end));
+                        assertEquals(row, Bitboards.segmentMask(size, new Position(line, end), new Position(line, start)));
+                    }
+                }
+            }
+        }
+        assertEquals(0L, Bitboards.segmentMask(4, new Position(0, 0), new Position(1, 1)), "Diagonal segments have no mask");
+    }
+
+    @Test
+    public void testRandomGamesMatchGameState() {
+        Random random = new Random(2);
+        for (int game = 0; game < 200; game++) {
+            int size = 1 + random.nextInt(Bitboards.MAX_SIZE);
+            GameState state = new GameState(size);
+            BitboardGameState bitboard = new BitboardGameState(size);
+            while (!state.isGameOver()) {
+                assertSame(state, bitboard, random);
+                List<Position[]> moves = legalMoves(state, size);
+                Position[] move = moves.get(random.nextInt(moves.size()));
+                state.makeMove(move[0], move[1]);
+                bitboard.makeMove(move[0], move[1]);
+            }
+            assertSame(state, bitboard, random);
+            assertEquals(state.getStatus(), bitboard.getStatus());
+        }
+    }
+
+    @Test
+    public void testCopyFromGameState() {
+        GameState state = new GameState(5);
+        state.makeMove(new Position(1, 0), new Position(1, 3));
+        state.makeMove(new Position(0, 4), new Position(4, 4));
+        state.makeMove(new Position(2, 2), new Position(2, 2));
+        BitboardGameState bitboard = new BitboardGameState(state);
+        assertEquals(Bitboards.fromBoard(state.getBoard()), bitboard.getStones());
+        assertEquals(state.isPlayerOneTurn(), bitboard.isPlayerOneTurn());
+        assertEquals(state.toString(), bitboard.toString());
+    }
+
+    @Test
+    public void testIllegalMoveOnlySwitchesTurn() {
+        BitboardGameState bitboard = new BitboardGameState(4);
+        bitboard.makeMove(new Position(0, 0), new Position(1, 1));
+        assertEquals(Bitboards.fullMask(4), bitboard.getStones(), "A diagonal move should not remove stones");
+        assertFalse(bitboard.isPlayerOneTurn());
+    }
+
+    private static List<Position[]> legalMoves(GameState state, int size) {
+        List<Position[]> moves = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                Position from = new Position(row, col);
+                for (int i = 0; i < size; i++) {
+                    if (i >= col && state.isLegalMove(from, new Position(row, i))) {
+                        moves.add(new Position[]{from, new Position(row, i)});
+                    }
+                    if (i > row && state.isLegalMove(from, new Position(i, col))) {
+                        moves.add(new Position[]{from, new Position(i, col)});
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    private static void assertSame(GameState state, BitboardGameState bitboard, Random random) {
+        int size = bitboard.getSize();
+        assertEquals(Bitboards.fromBoard(state.getBoard()), bitboard.getStones());
+        assertEquals(state.isGameOver(), bitboard.isGameOver());
+        assertEquals(state.isPlayerOneTurn(), bitboard.isPlayerOneTurn());
+        for (int i = 0; i < 50; i++) {
+            // Include positions just off the board
+            Position from = new Position(random.nextInt(size + 2) - 1, random.nextInt(size + 2) - 1);
+            Position to = random.nextBoolean()
+                    ? new Position(from.row(), random.nextInt(size + 2) - 1)
+                    : new Position(random.nextInt(size + 2) - 1, from.col());
+            assertEquals(state.isLegalMove(from, to), bitboard.isLegalMove(from, to), from + " to " + to);
+            assertEquals(state.isLegalToMoveFrom(from), bitboard.isLegalToMoveFrom(from), from.toString());
+        }
+    }
+}
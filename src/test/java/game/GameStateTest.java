@@ -1,8 +1,19 @@
 package game;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -89,4 +100,339 @@ class GameStateTest {
             }
         }
     }
+
+    @Test
+    public void testMakeMoveRecordsOnlyMoveEvents() throws IOException {
+        Path file = Files.createTempFile("game-state", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("game.Move").withoutThreshold();
+            recording.enable("game.LegalityCheck").withoutThreshold();
+            recording.start();
+            gameState.makeMove(new Position(0, 0), new Position(0, 2));
+            gameState.makeMove(Moves.pack(1, 1, 3, 1));
+            gameState.makeMove(Moves.pack(1, 0, 1, 3)); // illegal, as (1,1) is empty
+            recording.stop();
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(3, events.stream().filter(e -> e.getEventType().getName().equals("game.Move")).count());
+            assertEquals(0, events.stream().filter(e -> e.getEventType().getName().equals("game.LegalityCheck")).count(),
+                    "makeMove should not record a nested legality check");
+            assertEquals(List.of(true, true, false), events.stream()
+                    .filter(e -> e.getEventType().getName().equals("game.Move"))
+                    .map(e -> e.getBoolean("legal")).toList());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testGenerateMovesMatchesBruteForce() {
+        Random random = new Random(22);
+        int[][] shapes = {{1, 1}, {1, 7}, {7, 1}, {2, 9}, {3, 5}, {5, 3}, {4, 4}, {6, 6}};
+        for (int[] shape : shapes) {
+            int rows = shape[0];
+            int cols = shape[1];
+            for (int i = 0; i < 40; i++) {
+                GameState state = new GameState(rows, cols);
+                // Random partial boards, from full to nearly empty
+                int removals = random.nextInt(rows * cols + 1);
+                for (int k = 0; k < removals; k++) {
+                    int row = random.nextInt(rows);
+                    int col = random.nextInt(cols);
+                    state.makeMove(Moves.pack(row, col, row, col));
+                }
+                String message = rows + "x" + cols + "\n" + state;
+
+                int[] moves = new int[state.maxMoveCount()];
+                int count = state.generateMoves(moves);
+                assertTrue(count <= state.maxMoveCount(), message);
+                Set<Integer> generated = new HashSet<>();
+                for (int m = 0; m < count; m++) {
+                    assertTrue(state.isLegalMove(moves[m]), message + Moves.toString(moves[m]));
+                    // A single stone is the same move whether listed by row or by column
+                    assertTrue(generated.add(normalize(moves[m])), message + "duplicate " + Moves.toString(moves[m]));
+                }
+
+                Set<Integer> expected = new HashSet<>();
+                int stones = 0;
+                for (int fromRow = 0; fromRow < rows; fromRow++) {
+                    for (int fromCol = 0; fromCol < cols; fromCol++) {
+                        stones += state.getBoard()[fromRow][fromCol];
+                        for (int toRow = 0; toRow < rows; toRow++) {
+                            for (int toCol = 0; toCol < cols; toCol++) {
+                                int move = Moves.pack(fromRow, fromCol, toRow, toCol);
+                                if (state.isLegalMove(move)) {
+                                    expected.add(normalize(move));
+                                }
+                            }
+                        }
+                    }
+                }
+                assertEquals(expected, generated, message);
+                long singles = generated.stream().filter(m -> Moves.length(m) == 1).count();
+                assertEquals(stones, singles, message + "every stone should be listed once on its own");
+            }
+            GameState full = new GameState(rows, cols);
+            assertEquals(full.maxMoveCount(), full.generateMoves(new int[full.maxMoveCount()]), "A full board has the most moves");
+        }
+    }
+
+    @Test
+    public void testGenerateMovesRejectsLargeBoards() {
+        GameState largest = new GameState(Moves.MAX_SIZE, 2);
+        int[] moves = new int[largest.maxMoveCount()];
+        assertEquals(moves.length, largest.generateMoves(moves));
+        assertThrows(IllegalStateException.class, () -> new GameState(Moves.MAX_SIZE + 1, 1).generateMoves(new int[1 << 16]));
+        assertThrows(IllegalStateException.class, () -> new GameState(1, Moves.MAX_SIZE + 1).generateMoves(new int[1 << 16]));
+    }
+
+    @Test
+    public void testUndoAndRedoRestoreEveryPosition() {
+        Random random = new Random(23);
+        GameState state = new GameState(4, 5);
+        List<int[][]> boards = new ArrayList<>();
+        List<Boolean> turns = new ArrayList<>();
+        int[] moves = new int[state.maxMoveCount()];
+        boards.add(copyOf(state.getBoard()));
+        turns.add(state.isPlayerOneTurn());
+        while (!state.isGameOver()) {
+            int count = state.generateMoves(moves);
+            state.makeMove(moves[random.nextInt(count)]);
+            boards.add(copyOf(state.getBoard()));
+            turns.add(state.isPlayerOneTurn());
+        }
+        int length = state.getMoveCount();
+        assertEquals(boards.size() - 1, length);
+        assertFalse(state.canRedo(), "Nothing to redo after making moves");
+
+        for (int i = length - 1; i >= 0; i--) {
+            state.unmakeMove();
+            assertPosition(boards.get(i), turns.get(i), state, "after undoing to move " + i);
+            assertEquals(i, state.getMoveCount());
+            assertEquals(i > 0, state.canUndo());
+            assertTrue(state.canRedo());
+        }
+        assertThrows(IllegalStateException.class, state::unmakeMove, "Nothing left to undo");
+
+        for (int i = 1; i <= length; i++) {
+            state.redoMove();
+            assertPosition(boards.get(i), turns.get(i), state, "after redoing move " + i);
+            assertEquals(i, state.getMoveCount());
+            assertTrue(state.canUndo());
+            assertEquals(i < length, state.canRedo());
+        }
+        assertThrows(IllegalStateException.class, state::redoMove, "Nothing left to redo");
+    }
+
+    @Test
+    public void testNewMoveClearsRedo() {
+        gameState.makeMove(Moves.pack(0, 0, 0, 3));
+        gameState.makeMove(Moves.pack(1, 0, 3, 0));
+        gameState.unmakeMove();
+        gameState.unmakeMove();
+        assertTrue(gameState.canRedo());
+
+        gameState.makeMove(Moves.pack(2, 2, 2, 2));
+        assertFalse(gameState.canRedo(), "A new move should discard the moves that could be redone");
+        assertThrows(IllegalStateException.class, gameState::redoMove);
+        assertEquals(1, gameState.getMoveCount());
+        assertEquals(Moves.pack(2, 2, 2, 2), gameState.getMove(0));
+    }
+
+    @Test
+    public void testIllegalMoveRecordsPass() {
+        int[][] before = copyOf(gameState.getBoard());
+        gameState.makeMove(Moves.pack(0, 0, 1, 1));
+        assertPosition(before, false, gameState, "after a diagonal move");
+        assertEquals(1, gameState.getMoveCount());
+        assertEquals(Moves.PASS, gameState.getMove(0), "An illegal move should be recorded as a pass");
+
+        gameState.makeMove(new Position(3, 3), new Position(3, 3));
+        gameState.makeMove(new Position(3, 3), new Position(3, 3));
+        assertEquals(Moves.pack(3, 3, 3, 3), gameState.getMove(1));
+        assertEquals(Moves.PASS, gameState.getMove(2), "Taking an empty cell should be recorded as a pass");
+
+        gameState.unmakeMove();
+        gameState.unmakeMove();
+        gameState.unmakeMove();
+        assertPosition(before, true, gameState, "after undoing the passes");
+        gameState.redoMove();
+        assertPosition(before, false, gameState, "after redoing a pass");
+        assertEquals(Moves.PASS, gameState.getMove(0));
+    }
+
+    @Test
+    public void testGetMoveIndexOutOfRange() {
+        assertThrows(IndexOutOfBoundsException.class, () -> gameState.getMove(0));
+        gameState.makeMove(Moves.pack(1, 1, 1, 2));
+        assertEquals(Moves.pack(1, 1, 1, 2), gameState.getMove(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> gameState.getMove(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> gameState.getMove(1));
+        gameState.unmakeMove();
+        assertThrows(IndexOutOfBoundsException.class, () -> gameState.getMove(0), "Undone moves are not in the history");
+    }
+
+    @Test
+    public void testCopySharesNoState() {
+        gameState.makeMove(Moves.pack(0, 0, 0, 2));
+        gameState.makeMove(Moves.pack(1, 3, 3, 3));
+        gameState.makeMove(Moves.pack(2, 0, 2, 1));
+        gameState.unmakeMove();
+        GameState copy = new GameState(gameState);
+        assertPosition(gameState.getBoard(), gameState.isPlayerOneTurn(), copy, "of the copy");
+        assertEquals(gameState.getHash(), copy.getHash());
+        assertEquals(2, copy.getMoveCount());
+        assertTrue(copy.canRedo());
+
+        int[][] original = copyOf(gameState.getBoard());
+        long originalHash = gameState.getHash();
+        copy.redoMove();
+        copy.makeMove(Moves.pack(3, 0, 3, 1));
+        assertPosition(original, true, gameState, "of the original after moves on the copy");
+        assertEquals(originalHash, gameState.getHash());
+        assertEquals(2, gameState.getMoveCount());
+        assertTrue(gameState.canRedo(), "Making a move on the copy should not clear the redo of the original");
+
+        gameState.unmakeMove();
+        gameState.unmakeMove();
+        assertEquals(4, copy.getMoveCount());
+        assertEquals(Moves.pack(0, 0, 0, 2), copy.getMove(0));
+        assertEquals(Moves.pack(3, 0, 3, 1), copy.getMove(3));
+        assertEquals(0, copy.getBoard()[0][0], "Undoing on the original should not change the copy");
+        assertNotSame(gameState.getBoard(), copy.getBoard());
+        for (int row = 0; row < 4; row++) {
+            assertNotSame(gameState.getBoard()[row], copy.getBoard()[row]);
+        }
+        assertTrue(copy.isLegalMove(Moves.pack(1, 0, 1, 2)), "The copy should keep its own run index");
+        assertFalse(copy.isLegalMove(Moves.pack(0, 0, 0, 1)));
+    }
+
+    @Test
+    public void testHashMatchesRecomputation() {
+        Random random = new Random(24);
+        int[][] shapes = {{4, 4}, {3, 6}, {7, 2}};
+        for (int[] shape : shapes) {
+            GameState state = new GameState(shape[0], shape[1]);
+            int[] moves = new int[state.maxMoveCount()];
+            assertEquals(expectedHash(state), state.getHash(), "Initial hash");
+            for (int step = 0; step < 500; step++) {
+                int action = random.nextInt(10);
+                String operation;
+                if (action < 5 && !state.isGameOver()) {
+                    int count = state.generateMoves(moves);
+                    state.makeMove(moves[random.nextInt(count)]);
+                    operation = "makeMove";
+                } else if (action < 6) {
+                    // Illegal moves pass the turn without removing stones
+                    state.makeMove(Moves.pack(0, 0, 1, 1));
+                    operation = "makeMove (illegal)";
+                } else if (action < 8 && state.canUndo()) {
+                    state.unmakeMove();
+                    operation = "unmakeMove";
+                } else if (action < 9 && state.canRedo()) {
+                    state.redoMove();
+                    operation = "redoMove";
+                } else if (random.nextInt(8) == 0) {
+                    state.resetBoard();
+                    operation = "resetBoard";
+                } else {
+                    state.switchTurn();
+                    operation = "switchTurn";
+                }
+                assertEquals(expectedHash(state), state.getHash(), "Hash after " + operation + " at step " + step + "\n" + state);
+            }
+        }
+    }
+
+    @Test
+    public void testHashRoundTripsUnderUndoAndRedo() {
+        Random random = new Random(25);
+        GameState state = new GameState(5);
+        int[] moves = new int[state.maxMoveCount()];
+        List<Long> hashes = new ArrayList<>();
+        hashes.add(state.getHash());
+        while (!state.isGameOver()) {
+            int count = state.generateMoves(moves);
+            state.makeMove(moves[random.nextInt(count)]);
+            hashes.add(state.getHash());
+        }
+        for (int i = hashes.size() - 2; i >= 0; i--) {
+            state.unmakeMove();
+            assertEquals(hashes.get(i), state.getHash(), "Hash after undoing to move " + i);
+        }
+        for (int i = 1; i < hashes.size(); i++) {
+            state.redoMove();
+            assertEquals(hashes.get(i), state.getHash(), "Hash after redoing move " + i);
+        }
+    }
+
+    @Test
+    public void testSideToMoveKeyToggles() {
+        long hash = gameState.getHash();
+        gameState.switchTurn();
+        assertEquals(hash ^ Zobrist.SIDE_TO_MOVE, gameState.getHash(), "Switching the turn should toggle the side-to-move key");
+        gameState.switchTurn();
+        assertEquals(hash, gameState.getHash(), "Switching back should restore the hash");
+
+        gameState.makeMove(Moves.pack(0, 0, 1, 1));
+        assertEquals(hash ^ Zobrist.SIDE_TO_MOVE, gameState.getHash(), "A pass should only toggle the side-to-move key");
+        gameState.resetBoard();
+        assertFalse(gameState.isPlayerOneTurn(), "Reset keeps the turn");
+        assertEquals(hash ^ Zobrist.SIDE_TO_MOVE, gameState.getHash(), "Reset should keep the side-to-move key of the turn");
+    }
+
+    @Test
+    public void testTranspositionsHashEqual() {
+        GameState other = new GameState(4);
+        gameState.makeMove(Moves.pack(0, 0, 0, 1));
+        gameState.makeMove(Moves.pack(3, 3, 2, 3));
+        other.makeMove(Moves.pack(2, 3, 3, 3));
+        other.makeMove(Moves.pack(0, 1, 0, 0));
+        assertEquals(gameState.getHash(), other.getHash(), "The same position reached by different moves should hash equally");
+        other.switchTurn();
+        assertNotEquals(gameState.getHash(), other.getHash(), "The player to move should be part of the hash");
+    }
+
+    /**
+     * Computes the hash of a state from scratch, from its board and player to move.
+     */
+    private static long expectedHash(GameState state) {
+        long[] keys = Zobrist.cellKeys(state.getRows() * state.getCols());
+        long hash = state.isPlayerOneTurn() ? 0L : Zobrist.SIDE_TO_MOVE;
+        for (int row = 0; row < state.getRows(); row++) {
+            for (int col = 0; col < state.getCols(); col++) {
+                if (state.getBoard()[row][col] == 1) {
+                    hash ^= keys[row * state.getCols() + col];
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Checks that a state has the given board and player to move.
+     */
+    private static void assertPosition(int[][] board, boolean playerOneTurn, GameState state, String message) {
+        assertArrayEquals(board, state.getBoard(), "Board " + message);
+        assertEquals(playerOneTurn, state.isPlayerOneTurn(), "Turn " + message);
+    }
+
+    /**
+     * Copies a board, so that it can be compared after later moves.
+     */
+    private static int[][] copyOf(int[][] board) {
+        int[][] copy = new int[board.length][];
+        for (int i = 0; i < board.length; i++) {
+            copy[i] = board[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Orders the ends of a move, so that the same segment chosen from either end compares equal.
+     */
+    private static int normalize(int move) {
+        return Moves.pack(Math.min(Moves.fromRow(move), Moves.toRow(move)), Math.min(Moves.fromCol(move), Moves.toCol(move)),
+                Math.max(Moves.fromRow(move), Moves.toRow(move)), Math.max(Moves.fromCol(move), Moves.toCol(move)));
+    }
 }
@@ -0,0 +1,109 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LargeGameStateTest {
+
+    @Test
+    public void testMatchesGameState() {
+        // Widths around 64 put row segments across word boundaries
+        int[][] shapes = {{1, 1}, {4, 4}, {3, 63}, {3, 64}, {3, 65}, {5, 17}, {2, 130}, {70, 3}, {1, 200}};
+        Random random = new Random(14);
+        for (int[] shape : shapes) {
+            int rows = shape[0];
+            int cols = shape[1];
+            GameState expected = new GameState(rows, cols);
+            try (LargeGameState actual = new LargeGameState(rows, cols)) {
+                assertSame(expected, actual, "new " + rows + "x" + cols);
+                for (int i = 0; i < 400 && !expected.isGameOver(); i++) {
+                    int fromRow = random.nextInt(rows + 1);
+                    int fromCol = random.nextInt(cols + 1);
+                    boolean inRow = random.nextBoolean();
+                    int toRow = inRow ? fromRow : random.nextInt(rows + 1);
+                    int toCol = inRow ? random.nextInt(cols + 1) : fromCol;
+                    Position from = new Position(fromRow, fromCol);
+                    Position to = new Position(toRow, toCol);
+                    String move = rows + "x" + cols + " " + from + " to " + to;
+                    assertEquals(expected.isLegalMove(from, to), actual.isLegalMove(from, to), move);
+                    expected.makeMove(from, to);
+                    actual.makeMove(from, to);
+                    assertSame(expected, actual, move);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRunsAcrossWords() {
+        // Row 0 covers bits 0..199, so the run 10..150 spans three words
+        try (LargeGameState state = new LargeGameState(2, 200)) {
+            assertTrue(state.isLegalMove(0, 10, 0, 150));
+            state.makeMove(0, 150, 0, 10);
+            assertEquals(400 - 141, state.getStoneCount());
+            for (int col = 0; col < 200; col++) {
+                assertEquals(col < 10 || col > 150, state.hasStone(0, col), "Column " + col);
+                assertTrue(state.hasStone(1, col), "The next row is untouched");
+            }
+            assertFalse(state.isLegalMove(0, 0, 0, 10), "The run ends on a removed stone");
+            assertFalse(state.isLegalMove(0, 150, 0, 199));
+            assertTrue(state.isLegalMove(0, 151, 0, 199));
+            // Ends exactly on word boundaries
+            assertTrue(state.isLegalMove(1, 0, 1, 63));
+            state.makeMove(1, 64, 1, 127);
+            assertFalse(state.isLegalMove(1, 63, 1, 64));
+            assertTrue(state.isLegalMove(1, 0, 1, 63));
+            assertTrue(state.isLegalMove(1, 128, 1, 199));
+            assertFalse(state.hasStone(1, 127));
+            assertTrue(state.hasStone(1, 128));
+        }
+    }
+
+    @Test
+    public void testLastPartialWord() {
+        // 3x3 uses 9 bits of one word; the other bits must not count as stones
+        try (LargeGameState state = new LargeGameState(3, 3)) {
+            for (int row = 0; row < 3; row++) {
+                state.makeMove(row, 0, row, 2);
+            }
+            assertTrue(state.isGameOver());
+            assertEquals(State.Status.PLAYER_1_WINS, state.getStatus());
+            state.resetBoard();
+            assertEquals(9, state.getStoneCount());
+            assertTrue(state.isPlayerOneTurn());
+            assertFalse(state.isLegalMove(0, 0, 0, 3), "Off the board");
+            assertFalse(state.hasStone(3, 0));
+        }
+    }
+
+    @Test
+    public void testRejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new LargeGameState(0, 5));
+        assertThrows(IllegalArgumentException.class, () -> new LargeGameState(5, -1));
+    }
+
+    @Test
+    public void testGameStateRejectsOverflow() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new GameState(65_536, 65_536));
+        assertTrue(e.getMessage().contains("65536x65536"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new GameState(Integer.MAX_VALUE, 2));
+    }
+
+    private static void assertSame(GameState expected, LargeGameState actual, String message) {
+        int[][] board = expected.getBoard();
+        long stones = 0;
+        for (int row = 0; row < board.length; row++) {
+            for (int col = 0; col < board[row].length; col++) {
+                assertEquals(board[row][col] != 0, actual.hasStone(row, col), message + ": cell " + row + " " + col);
+                stones += board[row][col] != 0 ? 1 : 0;
+            }
+        }
+        assertEquals(stones, actual.getStoneCount(), message);
+        assertEquals(expected.isPlayerOneTurn(), actual.isPlayerOneTurn(), message);
+        assertEquals(expected.isGameOver(), actual.isGameOver(), message);
+        assertEquals(expected.getStatus(), actual.getStatus(), message);
+    }
+}
@@ -0,0 +1,135 @@
+package game;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowScannerTest {
+
+    private static final int MAX_LENGTH = 300;
+    // odd offsets, so the vector loads are not aligned with the start of the array
+    private static final int[] OFFSETS = {1, 3, 7, 13};
+    // cells after the run, which must not be read as part of it or written
+    private static final int PADDING = 5;
+
+    private static RowScanner vector;
+
+    @BeforeAll
+    public static void loadVectorScanner() {
+        vector = RowScans.vector().orElseThrow(() -> new AssertionError(
+                "Run the tests with --add-modules jdk.incubator.vector, as the surefire argLine does"));
+    }
+
+    @Test
+    public void testIsEmptyAndIsFull() {
+        RowScanner scalar = RowScans.scalar();
+        Random random = new Random(15);
+        for (int offset : OFFSETS) {
+            for (int length = 0; length <= MAX_LENGTH; length++) {
+                int[] empty = new int[offset + length + PADDING];
+                int[] full = new int[offset + length + PADDING];
+                Arrays.fill(full, offset, offset + length, 1 + random.nextInt(5));
+                // The cells around the run hold the opposite value
+                Arrays.fill(empty, 0, offset, 1);
+                Arrays.fill(empty, offset + length, empty.length, 1);
+                assertScansAgree(scalar, empty, offset, length, true, length == 0);
+                assertScansAgree(scalar, full, offset, length, length == 0, true);
+                // One odd cell in every position of short runs, and in a few positions of long ones
+                for (int k = 0; k < length; k += length < 80 ? 1 : 1 + random.nextInt(17)) {
+                    empty[offset + k] = 1;
+                    full[offset + k] = 0;
+                    // A run of one cell is all the odd cell
+                    assertScansAgree(scalar, empty, offset, length, false, length == 1);
+                    assertScansAgree(scalar, full, offset, length, length == 1, false);
+                    empty[offset + k] = 0;
+                    full[offset + k] = 1;
+                }
+                if (length > 0) {
+                    // The last cell, which a whole-vector loop may leave to the scalar tail
+                    empty[offset + length - 1] = 1;
+                    full[offset + length - 1] = 0;
+                    assertScansAgree(scalar, empty, offset, length, false, length == 1);
+                    assertScansAgree(scalar, full, offset, length, length == 1, false);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRandomRuns() {
+        RowScanner scalar = RowScans.scalar();
+        Random random = new Random(16);
+        for (int i = 0; i < 20_000; i++) {
+            int length = random.nextInt(MAX_LENGTH + 1);
+            int offset = 1 + 2 * random.nextInt(8);
+            int[] cells = new int[offset + length + PADDING];
+            // Mostly stones, with a few empty cells
+            for (int j = 0; j < cells.length; j++) {
+                cells[j] = random.nextInt(length + 1) == 0 ? 0 : 1;
+            }
+            String message = "offset " + offset + ", length " + length;
+            assertEquals(scalar.isEmpty(cells, offset, offset + length), vector.isEmpty(cells, offset, offset + length), message);
+            assertEquals(scalar.isFull(cells, offset, offset + length), vector.isFull(cells, offset, offset + length), message);
+        }
+    }
+
+    @Test
+    public void testFill() {
+        RowScanner scalar = RowScans.scalar();
+        Random random = new Random(17);
+        long[] keys = new long[2 * MAX_LENGTH + 64];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+        for (int offset : OFFSETS) {
+            for (int length = 0; length <= MAX_LENGTH; length++) {
+                int[] expected = new int[offset + length + PADDING];
+                Arrays.fill(expected, 1);
+                int[] actual = expected.clone();
+                // Odd key offsets too, so the key loads are unaligned
+                int keyOffset = random.nextInt(MAX_LENGTH);
+                long expectedKey = scalar.fill(expected, offset, offset + length, 0, keys, keyOffset);
+                long actualKey = vector.fill(actual, offset, offset + length, 0, keys, keyOffset);
+                String message = "offset " + offset + ", length " + length + ", key offset " + keyOffset;
+                assertArrayEquals(expected, actual, message);
+                assertEquals(expectedKey, actualKey, message);
+                assertEquals(length == 0 ? 0L : expectedKey, xor(keys, keyOffset + offset, keyOffset + offset + length), message);
+                // Filling back restores the cells and gives the same key
+                assertEquals(expectedKey, vector.fill(actual, offset, offset + length, 1, keys, keyOffset), message);
+                assertTrue(Arrays.stream(actual).allMatch(cell -> cell == 1), message);
+            }
+        }
+    }
+
+    @Test
+    public void testRowScansChooseByLength() {
+        // The dispatching methods must answer like the scanners on both sides of the threshold
+        int[] cells = new int[2 * RowScans.VECTOR_MIN_LENGTH + 3];
+        Arrays.fill(cells, 1);
+        cells[cells.length - 2] = 0;
+        for (int to = 1; to <= cells.length; to++) {
+            assertEquals(RowScans.scalar().isFull(cells, 1, to), RowScans.isFull(cells, 1, to), "to " + to);
+            assertEquals(RowScans.scalar().isEmpty(cells, 1, to), RowScans.isEmpty(cells, 1, to), "to " + to);
+        }
+    }
+
+    private static void assertScansAgree(RowScanner scalar, int[] cells, int offset, int length, boolean empty, boolean full) {
+        String message = "offset " + offset + ", length " + length + ": " + Arrays.toString(cells);
+        assertEquals(empty, scalar.isEmpty(cells, offset, offset + length), message);
+        assertEquals(empty, vector.isEmpty(cells, offset, offset + length), message);
+        assertEquals(full, scalar.isFull(cells, offset, offset + length), message);
+        assertEquals(full, vector.isFull(cells, offset, offset + length), message);
+    }
+
+    private static long xor(long[] keys, int from, int to) {
+        long key = 0;
+        for (int i = from; i < to; i++) {
+            key ^= keys[i];
+        }
+        return key;
+    }
+}
@@ -0,0 +1,162 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunIndexTest {
+
+    @Test
+    public void testWideBoard() {
+        playRandomly(5, 70, new Random(18));
+    }
+
+    @Test
+    public void testTallBoard() {
+        playRandomly(70, 5, new Random(19));
+    }
+
+    @Test
+    public void testLinesOfSeveralWords() {
+        // Rows of 130 cells take three words, and runs end on both sides of bits 63/64 and 127/128
+        playRandomly(3, 130, new Random(20));
+        playRandomly(130, 3, new Random(21));
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        GameState state = new GameState(5, 70);
+        state.makeMove(Moves.pack(2, 10, 2, 60));
+        GameState copy = new GameState(state);
+        copy.makeMove(Moves.pack(0, 30, 4, 30));
+        assertCellsMatch(state, "original");
+        assertCellsMatch(copy, "copy");
+        assertTrue(state.isLegalMove(Moves.pack(0, 30, 1, 30)), "The copy's move must not change the original");
+        assertEquals(Moves.pack(3, 30, 4, 30), copy.getMaximalSegment(4, 30, false));
+    }
+
+    /**
+     * Plays random moves, many of them illegal, with undo, redo and resets
+     * mixed in, and compares the index with a scan of the cells after every step.
+     */
+    private static void playRandomly(int rows, int cols, Random random) {
+        GameState state = new GameState(rows, cols);
+        for (int step = 0; step < 1500; step++) {
+            int action = random.nextInt(20);
+            String description;
+            if (action < 3 && state.canUndo()) {
+                state.unmakeMove();
+                description = "undo";
+            } else if (action < 5 && state.canRedo()) {
+                state.redoMove();
+                description = "redo";
+            } else if (action == 5 && random.nextInt(10) == 0) {
+                state.resetBoard();
+                description = "reset";
+            } else {
+                int move = action < 14 ? likelyLegalMove(state, random) : randomMove(rows, cols, random);
+                assertEquals(bruteForceLegal(state.getBoard(), move), state.isLegalMove(move),
+                        "Step " + step + ": " + Moves.toString(move));
+                state.makeMove(move);
+                description = Moves.toString(move);
+            }
+            String message = rows + "x" + cols + " step " + step + " after " + description;
+            assertCellsMatch(state, message);
+            for (int i = 0; i < 20; i++) {
+                int move = randomMove(rows, cols, random);
+                assertEquals(bruteForceLegal(state.getBoard(), move), state.isLegalMove(move),
+                        message + ": " + Moves.toString(move));
+            }
+        }
+    }
+
+    /**
+     * Checks the maximal segment through every cell along both lines against a scan.
+     */
+    private static void assertCellsMatch(GameState state, String message) {
+        int[][] board = state.getBoard();
+        for (int row = 0; row < board.length; row++) {
+            for (int col = 0; col < board[row].length; col++) {
+                for (boolean isRow : new boolean[]{true, false}) {
+                    assertEquals(bruteForceSegment(board, row, col, isRow), state.getMaximalSegment(row, col, isRow),
+                            message + ": cell " + row + " " + col + (isRow ? " along the row" : " along the column"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Picks a stone and a segment within its run, scanning the cells.
+     */
+    private static int likelyLegalMove(GameState state, Random random) {
+        int[][] board = state.getBoard();
+        int row = random.nextInt(board.length);
+        int col = random.nextInt(board[0].length);
+        int segment = bruteForceSegment(board, row, col, random.nextBoolean());
+        if (segment == Moves.PASS) {
+            return Moves.pack(row, col, row, col);
+        }
+        boolean isRow = Moves.fromRow(segment) == Moves.toRow(segment);
+        int first = isRow ? Moves.fromCol(segment) : Moves.fromRow(segment);
+        int last = isRow ? Moves.toCol(segment) : Moves.toRow(segment);
+        int a = first + random.nextInt(last - first + 1);
+        int b = first + random.nextInt(last - first + 1);
+        return isRow ? Moves.pack(row, a, row, b) : Moves.pack(a, col, b, col);
+    }
+
+    private static int randomMove(int rows, int cols, Random random) {
+        int row = random.nextInt(rows);
+        int col = random.nextInt(cols);
+        return switch (random.nextInt(3)) {
+            case 0 -> Moves.pack(row, col, row, random.nextInt(cols));
+            case 1 -> Moves.pack(row, col, random.nextInt(rows), col);
+            default -> Moves.pack(row, col, random.nextInt(rows), random.nextInt(cols));
+        };
+    }
+
+    private static int bruteForceSegment(int[][] board, int row, int col, boolean isRow) {
+        if (board[row][col] == 0) {
+            return Moves.PASS;
+        }
+        if (isRow) {
+            int start = col;
+            int end = col;
+            while (start > 0 && board[row][start - 1] != 0) {
+                start--;
+            }
+            while (end < board[row].length - 1 && board[row][end + 1] != 0) {
+                end++;
+            }
+            return Moves.pack(row, start, row, end);
+        }
+        int start = row;
+        int end = row;
+        while (start > 0 && board[start - 1][col] != 0) {
+            start--;
+        }
+        while (end < board.length - 1 && board[end + 1][col] != 0) {
+            end++;
+        }
+        return Moves.pack(start, col, end, col);
+    }
+
+    private static boolean bruteForceLegal(int[][] board, int move) {
+        int fromRow = Moves.fromRow(move);
+        int fromCol = Moves.fromCol(move);
+        int toRow = Moves.toRow(move);
+        int toCol = Moves.toCol(move);
+        if (fromRow != toRow && fromCol != toCol) {
+            return false;
+        }
+        for (int row = Math.min(fromRow, toRow); row <= Math.max(fromRow, toRow); row++) {
+            for (int col = Math.min(fromCol, toCol); col <= Math.max(fromCol, toCol); col++) {
+                if (board[row][col] == 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+package game.ai;
+
+import game.Bitboards;
+import game.GameState;
+import game.Moves;
+import game.Position;
+import game.solver.Solver;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlphaBetaPlayerTest {
+
+    // enough time for every search below to finish, so results do not depend on the machine
+    private static final long BUDGET_MILLIS = 60_000;
+
+    @Test
+    public void testFullDepthMatchesSolver() {
+        Random random = new Random(9);
+        for (int size = 3; size <= 4; size++) {
+            Solver solver = new Solver(size);
+            AlphaBetaPlayer player = new AlphaBetaPlayer(BUDGET_MILLIS, 16);
+            for (int i = 0; i < 100; i++) {
+                GameState state = randomPosition(size, 2 * (size - 3), random);
+                SearchResult result = player.search(state);
+                boolean win = solver.isWin(Bitboards.fromBoard(state.getBoard()));
+                assertEquals(win, result.score() > AlphaBetaPlayer.WIN_THRESHOLD, state.toString());
+                assertEquals(!win, result.score() < -AlphaBetaPlayer.WIN_THRESHOLD, state.toString());
+                assertTrue(state.isLegalMove(result.move()), Moves.toString(result.move()));
+                if (win) {
+                    state.makeMove(result.move());
+                    assertFalse(solver.isWin(Bitboards.fromBoard(state.getBoard())), "The chosen move should win");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testResultIndependentOfMoveOrdering() {
+        // A player whose table, killers and history were filled by other searches
+        // orders the moves differently from a fresh one, but must prove the same result.
+        // Depth-limited scores may differ, as the table keeps deeper results.
+        Random random = new Random(10);
+        AlphaBetaPlayer trained = new AlphaBetaPlayer(BUDGET_MILLIS, 16);
+        for (int i = 0; i < 20; i++) {
+            trained.search(randomPosition(4, 2, random));
+        }
+        for (int i = 0; i < 50; i++) {
+            GameState state = randomPosition(4, 2, random);
+            SearchResult fresh = new AlphaBetaPlayer(BUDGET_MILLIS, 16).search(state);
+            SearchResult warm = trained.search(state);
+            // Proven scores count the plies to the end, so they agree exactly
+            assertEquals(fresh.score(), warm.score(), state.toString());
+            assertTrue(state.isLegalMove(warm.move()), Moves.toString(warm.move()));
+        }
+    }
+
+    @Test
+    public void testCornerMoveIsNotPreferredWithoutReason() {
+        // With (0,0) gone, move 0 is illegal; a sentinel of 0 used to rank it first
+        GameState state = new GameState(4);
+        state.makeMove(new Position(0, 0), new Position(0, 0));
+        AlphaBetaPlayer player = new AlphaBetaPlayer(BUDGET_MILLIS, 16);
+        for (int depth = 1; depth <= 4; depth++) {
+            SearchResult result = player.search(state, depth);
+            assertNotEquals(0, result.move());
+            assertTrue(state.isLegalMove(result.move()));
+            for (int move : result.principalVariation()) {
+                assertNotEquals(Moves.PASS, move);
+            }
+        }
+    }
+
+    @Test
+    public void testSearchResultCopiesPrincipalVariation() {
+        int[] pv = {Moves.pack(0, 0, 0, 1), Moves.pack(1, 1, 1, 1)};
+        SearchResult result = new SearchResult(pv[0], 5, 2, pv, 100, 2000, 3.5, 10, 4);
+        pv[0] = Moves.PASS;
+        assertEquals(Moves.pack(0, 0, 0, 1), result.principalVariation()[0], "Changing the array passed in should not change the result");
+        result.principalVariation()[1] = Moves.PASS;
+        assertEquals(Moves.pack(1, 1, 1, 1), result.principalVariation()[1], "Changing the returned array should not change the result");
+
+        SearchResult otherMove = new SearchResult(pv[1], 5, 2, new int[] {Moves.pack(0, 0, 0, 1), Moves.pack(1, 1, 1, 1)}, 100, 2000, 3.5, 10, 4);
+        SearchResult copy = new SearchResult(result.move(), 5, 2, result.principalVariation(), 100, 2000, 3.5, 10, 4);
+        assertEquals(result, copy, "Results with equal lines should be equal");
+        assertEquals(result.hashCode(), copy.hashCode());
+        assertNotEquals(result, otherMove, "Results with different moves should differ");
+        SearchResult shorter = new SearchResult(result.move(), 5, 2, new int[] {Moves.pack(0, 0, 0, 1)}, 100, 2000, 3.5, 10, 4);
+        assertNotEquals(result, shorter, "Results with different lines should differ");
+        assertTrue(result.toString().endsWith("pv " + Moves.toString(Moves.pack(0, 0, 0, 1)) + " " + Moves.toString(Moves.pack(1, 1, 1, 1))),
+                result.toString());
+    }
+
+    @Test
+    public void testRejectsFinishedGame() {
+        GameState state = new GameState(1);
+        state.makeMove(new Position(0, 0), new Position(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new AlphaBetaPlayer(BUDGET_MILLIS).search(state));
+        assertThrows(IllegalArgumentException.class, () -> new AlphaBetaPlayer(BUDGET_MILLIS).search(new GameState(2), 0));
+    }
+
+    /**
+     * Plays a few random moves from the opening, leaving a position that is not over.
+     * Positions close to the opening of a 4x4 board take minutes to prove lost,
+     * so the first {@code minPlies} moves are always played.
+     */
+    private static GameState randomPosition(int size, int minPlies, Random random) {
+        GameState state = new GameState(size);
+        int[] moves = new int[state.maxMoveCount()];
+        int plies = minPlies + random.nextInt(size + 1);
+        for (int i = 0; i < plies; i++) {
+            GameState next = new GameState(state);
+            next.makeMove(moves[random.nextInt(next.generateMoves(moves))]);
+            if (next.isGameOver()) {
+                break;
+            }
+            state = next;
+        }
+        return state;
+    }
+}
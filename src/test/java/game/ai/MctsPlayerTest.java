@@ -0,0 +1,75 @@
+package game.ai;
+
+import game.GameState;
+import game.Moves;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsPlayerTest {
+
+    private static final long BUDGET_MILLIS = 20;
+
+    @Test
+    public void testChoosesLegalMoves() {
+        Random random = new Random(36);
+        for (int threads = 1; threads <= 2; threads++) {
+            try (MctsPlayer player = new MctsPlayer(BUDGET_MILLIS, threads)) {
+                for (int i = 0; i < 10; i++) {
+                    // Play whole games, so the tree is also reused between moves
+                    GameState state = new GameState(3 + random.nextInt(3), 3 + random.nextInt(3));
+                    while (!state.isGameOver()) {
+                        int move = player.chooseMove(state);
+                        assertTrue(state.isLegalMove(move), Moves.toString(move) + "\n" + state);
+                        state.makeMove(move);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFindsWinningMove() {
+        for (int threads = 1; threads <= 2; threads++) {
+            try (MctsPlayer player = new MctsPlayer(200, threads)) {
+                GameState state = new GameState(4, 5);
+                // Leave two adjacent stones: taking both wins, taking one loses
+                state.makeMove(Moves.pack(1, 0, 1, 4));
+                state.makeMove(Moves.pack(2, 0, 2, 4));
+                state.makeMove(Moves.pack(3, 0, 3, 4));
+                state.makeMove(Moves.pack(0, 0, 0, 2));
+                int move = player.chooseMove(state);
+                state.makeMove(move);
+                assertTrue(state.isGameOver(), "Taking both stones wins, but the player chose " + Moves.toString(move));
+            }
+        }
+    }
+
+    @Test
+    public void testInterruptedCallerGetsLegalMove() {
+        for (int threads = 1; threads <= 2; threads++) {
+            try (MctsPlayer player = new MctsPlayer(60_000, threads)) {
+                GameState state = new GameState(4);
+                Thread.currentThread().interrupt();
+                int move;
+                try {
+                    move = player.chooseMove(state);
+                } finally {
+                    assertTrue(Thread.interrupted(), "The interrupt should be kept");
+                }
+                assertTrue(state.isLegalMove(move), Moves.toString(move));
+            }
+        }
+    }
+
+    @Test
+    public void testRejectsFinishedGame() {
+        try (MctsPlayer player = new MctsPlayer(BUDGET_MILLIS, 1)) {
+            GameState state = new GameState(1);
+            state.makeMove(Moves.pack(0, 0, 0, 0));
+            assertThrows(IllegalArgumentException.class, () -> player.chooseMove(state));
+        }
+    }
+}
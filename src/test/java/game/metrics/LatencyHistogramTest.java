@@ -0,0 +1,122 @@
+package game.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 0; value < 32; value++) {
+            histogram.record(value);
+        }
+        for (int value = 0; value < 32; value++) {
+            // rank value + 1 out of 32
+            assertEquals(value, histogram.getValueAtPercentile((value + 1) * 100.0 / 32), "Value " + value);
+        }
+        assertEquals(31, histogram.getMax());
+        assertEquals(15.5, histogram.getMean(), 1e-9);
+        assertEquals(31 * 32 / 2, histogram.getSum());
+    }
+
+    @Test
+    public void testPercentileBounds() {
+        // Every percentile lies between the exact value and 1/32 above it, and never above the maximum
+        Random random = new Random(13);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong() >>> 1 + random.nextInt(63);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percentile : new double[]{0.01, 1, 10, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+            long reported = histogram.getValueAtPercentile(percentile);
+            assertTrue(reported >= exact, percentile + ": " + reported + " < " + exact);
+            assertTrue(reported - exact <= exact / 32, percentile + ": " + reported + " too far above " + exact);
+        }
+        assertEquals(values[values.length - 1], histogram.getValueAtPercentile(100));
+        assertEquals(values[values.length - 1], histogram.getMax());
+    }
+
+    @Test
+    public void testBucketEdges() {
+        // The first value of every sub-bucket is reported as the last value of its own bucket
+        for (int shift = 0; shift < 58; shift++) {
+            for (long mantissa = 32; mantissa < 64; mantissa++) {
+                long value = mantissa << shift;
+                LatencyHistogram histogram = new LatencyHistogram();
+                histogram.record(value);
+                histogram.record(Long.MAX_VALUE);
+                long upper = ((mantissa + 1) << shift) - 1;
+                assertEquals(upper, histogram.getValueAtPercentile(50), "Value " + value);
+            }
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(99.9));
+    }
+
+    @Test
+    public void testNegativeValuesCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+        assertEquals(0, histogram.getSum());
+    }
+
+    @Test
+    public void testAddAndReset() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (int i = 1; i <= 30; i++) {
+            first.record(i);
+            second.record(1000 * i);
+        }
+        first.add(second);
+        assertEquals(60, first.getCount());
+        assertEquals(30_000, first.getMax());
+        assertEquals(30, first.getValueAtPercentile(50), "The lower half comes from the first histogram");
+        first.reset();
+        assertEquals(0, first.getCount());
+        assertEquals(0, first.getMax());
+        assertEquals(0, first.getValueAtPercentile(50));
+        assertEquals(30, second.getCount(), "Adding does not change the other histogram");
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long offset = t;
+            threads[t] = Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i % 100 + offset);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(102, histogram.getMax());
+        assertEquals((49.5 + 1.5) * 40_000, histogram.getSum(), 1e-9);
+    }
+}
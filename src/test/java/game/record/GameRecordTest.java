@@ -0,0 +1,245 @@
+package game.record;
+
+import game.GameState;
+import game.Moves;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameRecordTest {
+
+    @Test
+    public void testEncodeDecodeAllMoves() {
+        int[][] shapes = {{1, 1}, {1, 9}, {9, 1}, {3, 7}, {7, 3}, {4, 4}, {Moves.MAX_SIZE, 2}};
+        for (int[] shape : shapes) {
+            GameState state = new GameState(shape[0], shape[1]);
+            int n = Math.max(shape[0], shape[1]);
+            int[] moves = new int[state.maxMoveCount()];
+            int count = state.generateMoves(moves);
+            for (int i = 0; i < count; i++) {
+                int code = GameRecordWriter.encode(moves[i], shape[1], n);
+                assertTrue(code > 0, "Only a pass is encoded as 0");
+                int decoded = GameRecordReader.decode(code, shape[1], n);
+                assertEquals(normalize(moves[i]), normalize(decoded), Moves.toString(moves[i]));
+            }
+        }
+        assertEquals(0, GameRecordWriter.encode(Moves.PASS, 4, 4));
+        assertEquals(Moves.PASS, GameRecordReader.decode(0, 4, 4));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Random random = new Random(11);
+        List<GameRecord> games = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int rows = 1 + random.nextInt(i % 10 == 0 ? Moves.MAX_SIZE : 12);
+            int cols = 1 + random.nextInt(12);
+            games.add(randomGame(rows, cols, random));
+        }
+        games.add(new GameRecord(3, 5, "", "", new int[0]));
+        // Names of 127 and 128 bytes cross the one-byte boundary of the length varint
+        games.add(new GameRecord(2, 2, "a".repeat(127), "b".repeat(128), new int[]{Moves.PASS, Moves.pack(0, 0, 1, 0)}));
+
+        byte[] bytes = write(games);
+        assertArrayEquals(new byte[]{'S', 'G', 'R', 'C', GameRecordWriter.VERSION}, Arrays.copyOf(bytes, 5));
+        try (GameRecordReader reader = reader(bytes)) {
+            for (GameRecord expected : games) {
+                assertRecordEquals(expected, reader.read());
+            }
+            assertNull(reader.read(), "No more games");
+            assertNull(reader.read());
+        }
+        try (GameRecordReader reader = reader(bytes)) {
+            assertEquals(games.size(), reader.stream().count());
+        }
+    }
+
+    @Test
+    public void testWriteState() throws IOException {
+        Random random = new Random(12);
+        GameState state = new GameState(5, 3);
+        int[] moves = new int[state.maxMoveCount()];
+        while (!state.isGameOver()) {
+            state.makeMove(moves[random.nextInt(state.generateMoves(moves))]);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(Channels.newChannel(out))) {
+            writer.write(state, "One", "Two");
+            assertEquals(1, writer.getGameCount());
+        }
+        try (GameRecordReader reader = reader(out.toByteArray())) {
+            GameRecord game = reader.read();
+            assertRecordEquals(GameRecord.of(state, "One", "Two"), game);
+            assertTrue(game.replay().isGameOver());
+            assertEquals(state.getMoveCount() % 2 == 1, game.isPlayerOneWinner());
+        }
+    }
+
+    @Test
+    public void testNamesMatchStringEncoding() throws IOException {
+        String[] names = {"ascii", "été", "漢字", "😀 smile", "lone \ud83d high", "lone \ude00 low", "end \ud83d"};
+        for (String name : names) {
+            byte[] expected = name.getBytes(StandardCharsets.UTF_8);
+            assertEquals(expected.length, GameRecordWriter.utf8Length(name), name);
+            byte[] bytes = write(List.of(new GameRecord(1, 1, name, "x", new int[0])));
+            // magic, version, rows, cols, name length, then the name
+            assertArrayEquals(expected, Arrays.copyOfRange(bytes, 8, 8 + expected.length), name);
+            try (GameRecordReader reader = reader(bytes)) {
+                assertEquals(new String(expected, StandardCharsets.UTF_8), reader.read().playerOne());
+            }
+        }
+    }
+
+    @Test
+    public void testLongNameCrossesBuffer() throws IOException {
+        // Longer than the 64 KiB buffer, with multi-byte characters on the buffer boundary
+        String name = "é😀".repeat(30_000);
+        GameRecord game = new GameRecord(2, 3, name, "x", new int[]{Moves.pack(0, 0, 0, 2)});
+        try (GameRecordReader reader = reader(write(List.of(game, game)))) {
+            assertRecordEquals(game, reader.read());
+            assertRecordEquals(game, reader.read());
+        }
+    }
+
+    @Test
+    public void testTruncatedInput() throws IOException {
+        GameRecord game = new GameRecord(4, 6, "Alice", "Bob",
+                new int[]{Moves.pack(0, 0, 0, 5), Moves.PASS, Moves.pack(1, 2, 3, 2)});
+        byte[] bytes = write(List.of(game));
+        for (int length = 5; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            try (GameRecordReader reader = reader(truncated)) {
+                if (length == 5) {
+                    assertNull(reader.read(), "A header without games is an empty file");
+                } else {
+                    assertThrows(EOFException.class, reader::read, "Truncated to " + length + " bytes");
+                }
+            }
+        }
+        for (int length = 0; length < 5; length++) {
+            byte[] header = Arrays.copyOf(bytes, length);
+            assertThrows(EOFException.class, () -> reader(header));
+        }
+    }
+
+    @Test
+    public void testRejectsInvalidHeader() {
+        assertThrows(IOException.class, () -> reader(new byte[]{'S', 'G', 'R', 'X', 1}));
+        assertThrows(IOException.class, () -> reader(new byte[]{'S', 'G', 'R', 'C', 2}));
+        byte[] malformed = {'S', 'G', 'R', 'C', 1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 1};
+        assertThrows(IOException.class, () -> reader(malformed).read());
+    }
+
+    @Test
+    public void testRejectsCorruptGames() throws IOException {
+        byte[] header = {'S', 'G', 'R', 'C', 1};
+        // A board of 0 or more than Moves.MAX_SIZE rows
+        assertThrows(IOException.class, () -> reader(concat(header, 0, 4, 0, 0, 0)).read());
+        assertThrows(IOException.class, () -> reader(concat(header, 0x80, 0x02, 4, 0, 0, 0)).read());
+        // A move count of Integer.MAX_VALUE with a single move, or a name of that length
+        assertThrows(EOFException.class, () -> reader(concat(header, 4, 4, 0, 0, 0xFF, 0xFF, 0xFF, 0xFF, 0x07, 1)).read());
+        assertThrows(EOFException.class, () -> reader(concat(header, 4, 4, 0xFF, 0xFF, 0xFF, 0xFF, 0x07, 'A')).read());
+        // A board of 1 row with a bit beyond 32 bits set in the fifth byte
+        assertThrows(IOException.class, () -> reader(concat(header, 0x81, 0x80, 0x80, 0x80, 0x10, 4, 0, 0, 0)).read());
+        // The largest int fits into five bytes, though it is not a valid board size
+        IOException e = assertThrows(IOException.class, () -> reader(concat(header, 0xFF, 0xFF, 0xFF, 0xFF, 0x07, 4, 0, 0, 0)).read());
+        assertTrue(e.getMessage().contains(Integer.MAX_VALUE + "x4"), e.getMessage());
+
+        try (GameRecordReader reader = reader(concat(header, 1, 2, 1, 'A', 0, 2, 0, 0))) {
+            GameRecord game = reader.read();
+            assertEquals("A", game.playerOne());
+            assertArrayEquals(new int[]{Moves.PASS, Moves.PASS}, game.moves());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void testRejectsLargeBoards() throws IOException {
+        GameState state = new GameState(Moves.MAX_SIZE + 1, 1);
+        state.makeMove(Moves.pack(0, 0, 0, 0));
+        assertThrows(IllegalStateException.class, () -> state.getMove(0), "Cells past row 255 cannot be packed");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(Channels.newChannel(out))) {
+            assertThrows(IllegalArgumentException.class, () -> writer.write(state, "A", "B"));
+            assertThrows(IllegalArgumentException.class, () -> writer.write(new GameRecord(1, Moves.MAX_SIZE + 1, "A", "B", new int[0])));
+            assertEquals(0, writer.getGameCount());
+        }
+        try (GameRecordReader reader = reader(out.toByteArray())) {
+            assertNull(reader.read(), "Nothing of a rejected game should be written");
+        }
+    }
+
+    private static GameRecord randomGame(int rows, int cols, Random random) {
+        GameState state = new GameState(rows, cols);
+        int[] moves = new int[state.maxMoveCount()];
+        int plies = random.nextInt(20);
+        for (int i = 0; i < plies && !state.isGameOver(); i++) {
+            if (random.nextInt(10) == 0) {
+                state.makeMove(Moves.PASS);
+            } else {
+                state.makeMove(moves[random.nextInt(state.generateMoves(moves))]);
+            }
+        }
+        return GameRecord.of(state, "P" + random.nextInt(1000), "Q" + random.nextInt(1000));
+    }
+
+    private static byte[] write(List<GameRecord> games) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(Channels.newChannel(out))) {
+            for (GameRecord game : games) {
+                writer.write(game);
+            }
+            assertEquals(games.size(), writer.getGameCount());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Appends bytes, given as ints for readability, to a file header.
+     */
+    private static byte[] concat(byte[] header, int... bytes) {
+        byte[] result = Arrays.copyOf(header, header.length + bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            result[header.length + i] = (byte) bytes[i];
+        }
+        return result;
+    }
+
+    private static GameRecordReader reader(byte[] bytes) throws IOException {
+        return new GameRecordReader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    private static void assertRecordEquals(GameRecord expected, GameRecord actual) {
+        assertNotNull(actual);
+        assertEquals(expected.rows(), actual.rows());
+        assertEquals(expected.cols(), actual.cols());
+        assertEquals(expected.playerOne(), actual.playerOne());
+        assertEquals(expected.playerTwo(), actual.playerTwo());
+        assertEquals(expected.moves().length, actual.moves().length);
+        for (int i = 0; i < expected.moves().length; i++) {
+            assertEquals(normalize(expected.moves()[i]), normalize(actual.moves()[i]), "Move " + i);
+        }
+    }
+
+    /**
+     * Orders the ends of a move, as the record format does not keep the direction a segment was chosen in.
+     */
+    private static int normalize(int move) {
+        if (move == Moves.PASS) {
+            return move;
+        }
+        return Moves.pack(Math.min(Moves.fromRow(move), Moves.toRow(move)), Math.min(Moves.fromCol(move), Moves.toCol(move)),
+                Math.max(Moves.fromRow(move), Moves.toRow(move)), Math.max(Moves.fromCol(move), Moves.toCol(move)));
+    }
+}
@@ -0,0 +1,260 @@
+package game.server;
+
+import game.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+
+    private GameServer server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = new GameServer(0);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void testSoloGame() throws IOException {
+        try (Client client = new Client()) {
+            assertEquals("START 2 0", client.call("SOLO 2"));
+            assertEquals("OK", client.call("MOVE 0 0, 0 1"));
+            assertTrue(client.call("MOVE 0 0, 1 0").startsWith("ILLEGAL "), "The stone at (0,0) is gone");
+            assertEquals("OK", client.call("MOVE 1 0, 1 1"));
+            assertEquals("OVER 2", client.read(), "Player Two removed the last stone");
+            assertTrue(client.call("MOVE 0 0, 0 0").startsWith("ERROR "), "The game is over");
+            assertEquals("START 1 0", client.call("SOLO 1"), "A new game can start at once");
+        }
+        assertEquals(4, server.getMoveLatencies().getCount(), "Every MOVE command is timed, accepted or not");
+    }
+
+    @Test
+    public void testInvalidCommands() throws IOException {
+        try (Client client = new Client()) {
+            assertTrue(client.call("HELLO").startsWith("ERROR "));
+            assertTrue(client.call("MOVE 0 0, 0 1").startsWith("ERROR "), "No game in progress");
+            assertTrue(client.call("SOLO 0").startsWith("ERROR "));
+            assertTrue(client.call("SOLO 65").startsWith("ERROR "));
+            assertTrue(client.call("JOIN many").startsWith("ERROR "));
+            assertEquals("START 3 0", client.call("SOLO 3"));
+            assertTrue(client.call("SOLO 3").startsWith("ERROR "), "Game in progress");
+            assertTrue(client.call("MOVE 0 0").startsWith("ILLEGAL "));
+            assertTrue(client.call("MOVE 0 0, 300 0").startsWith("ILLEGAL "));
+            assertTrue(client.call("MOVE 0 0, 1 1").startsWith("ILLEGAL "), "Diagonals are not segments");
+        }
+    }
+
+    @Test
+    public void testJoinedGame() throws IOException {
+        try (Client one = new Client(); Client two = new Client()) {
+            one.send("JOIN 3");
+            assertTrue(one.call("JOIN 3").startsWith("ERROR "), "Already waiting");
+            assertEquals("START 3 2", two.call("JOIN 3"));
+            assertEquals("START 3 1", one.read());
+            assertTrue(two.call("MOVE 0 0, 0 2").startsWith("ILLEGAL "), "Player One moves first");
+            assertEquals("OK", one.call("MOVE 0 0, 0 2"));
+            assertEquals("MOVED 0 0, 0 2", two.read());
+            assertEquals("OK", two.call("MOVE 1 0, 1 2"));
+            assertEquals("MOVED 1 0, 1 2", one.read());
+            assertEquals("OK", one.call("MOVE 2 2, 2 0"));
+            assertEquals("OVER 1", one.read());
+            assertEquals("MOVED 2 2, 2 0", two.read());
+            assertEquals("OVER 1", two.read());
+        }
+    }
+
+    @Test
+    public void testAbandonedGame() throws IOException {
+        try (Client one = new Client()) {
+            try (Client two = new Client()) {
+                one.send("JOIN 4");
+                assertTrue(one.call("JOIN 4").startsWith("ERROR "), "Already waiting");
+                assertEquals("START 4 2", two.call("JOIN 4"));
+                assertEquals("START 4 1", one.read());
+            }
+            assertEquals("ABANDONED", one.read());
+            assertEquals("START 4 0", one.call("SOLO 4"), "The remaining player is free again");
+        }
+    }
+
+    @Test
+    public void testConcurrentGames() throws Exception {
+        // Pairs play full games on the same board size at once; every player sees every move in order
+        int pairs = 20;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> players = new ArrayList<>();
+            for (int i = 0; i < 2 * pairs; i++) {
+                players.add(executor.submit(() -> {
+                    playRowByRow(5);
+                    return null;
+                }));
+            }
+            for (Future<?> player : players) {
+                player.get();
+            }
+        }
+        // The latency of a move is recorded after its reply is queued, so the last ones may still be on their way
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (server.getMoveLatencies().getCount() < 5L * pairs && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(5L * pairs, server.getMoveLatencies().getCount());
+        assertTrue(server.report().startsWith("connections " + 2 * pairs));
+    }
+
+    @Test
+    public void testLeavingDuringJoin() throws IOException {
+        // Whenever the joining client is paired with the leaving one, it must learn that the game was abandoned
+        for (int i = 0; i < 30; i++) {
+            try (Client two = new Client()) {
+                try (Client one = new Client()) {
+                    one.send("JOIN 7");
+                }
+                two.send("JOIN 7");
+                two.send("HELLO");
+                String line = two.read();
+                boolean started = line.equals("START 7 2");
+                boolean abandoned = false;
+                while (!line.startsWith("ERROR ")) {
+                    abandoned |= line.equals("ABANDONED");
+                    line = two.read();
+                }
+                while (started && !abandoned) {
+                    abandoned = two.read().equals("ABANDONED");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLongLineDropsClient() throws IOException {
+        LongAdder dropped = MetricsRegistry.getDefault().counter("server_dropped_clients_total");
+        long before = dropped.sum();
+        try (Client client = new Client()) {
+            assertEquals("START 2 0", client.call("SOLO 2"));
+            client.send("MOVE " + "0".repeat(100_000));
+            assertEquals("ERROR line too long", client.read());
+            assertClosed(client);
+        }
+        assertEquals(before + 1, dropped.sum());
+    }
+
+    @Test
+    public void testSlowReaderIsDropped() throws Exception {
+        LongAdder dropped = MetricsRegistry.getDefault().counter("server_dropped_clients_total");
+        long before = dropped.sum();
+        try (Client client = new Client(); ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Every line is answered, but the client never reads, so the replies pile up on the server
+            Future<?> sender = executor.submit(() -> {
+                for (int i = 0; i < 1_000_000 && !client.socket.isClosed(); i++) {
+                    client.out.print("?\n");
+                    if (client.out.checkError()) {
+                        return;
+                    }
+                }
+            });
+            long deadline = System.nanoTime() + 30_000_000_000L;
+            while (dropped.sum() == before && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(before + 1, dropped.sum(), "The client should be dropped once its queue is full");
+            client.close();
+            sender.get();
+        }
+        try (Client client = new Client()) {
+            assertEquals("START 2 0", client.call("SOLO 2"), "The server should keep serving other clients");
+        }
+    }
+
+    /**
+     * Checks that the server closed the connection of a client.
+     */
+    private static void assertClosed(Client client) {
+        try {
+            assertNull(client.in.readLine(), "The server should close the connection");
+        } catch (IOException e) {
+            // a reset also closes the connection
+        }
+    }
+
+    /**
+     * Joins a game and clears the board one row at a time, checking the replies.
+     */
+    private void playRowByRow(int size) throws IOException {
+        try (Client client = new Client()) {
+            String start = client.call("JOIN " + size);
+            int seat = Integer.parseInt(start.substring(start.lastIndexOf(' ') + 1));
+            for (int row = 0; row < size; row++) {
+                String move = row + " 0, " + row + " " + (size - 1);
+                if ((row % 2 == 0) == (seat == 1)) {
+                    assertEquals("OK", client.call("MOVE " + move));
+                } else {
+                    assertEquals("MOVED " + move, client.read());
+                }
+            }
+            assertEquals("OVER " + (size % 2 == 1 ? 1 : 2), client.read());
+        }
+    }
+
+    /**
+     * A blocking client of the server that fails instead of waiting forever.
+     */
+    private final class Client implements Closeable {
+
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        private Client() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            socket.setSoTimeout(10_000);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+        }
+
+        private void send(String line) {
+            out.print(line + "\n");
+            out.flush();
+        }
+
+        private String read() throws IOException {
+            String line = in.readLine();
+            assertNotNull(line, "The server closed the connection");
+            return line;
+        }
+
+        private String call(String line) throws IOException {
+            send(line);
+            return read();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
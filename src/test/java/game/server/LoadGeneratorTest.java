@@ -0,0 +1,67 @@
+package game.server;
+
+import game.sim.Policy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+    @Test
+    public void testRunWithoutErrors() throws IOException, InterruptedException {
+        for (int thinkers : new int[]{0, 2}) {
+            try (GameServer server = new GameServer(0)) {
+                server.start();
+                InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+                LoadGenerator generator = new LoadGenerator(address, 8, 3, 0, Policy.named("greedy", 3), thinkers);
+                generator.run(300);
+                assertTrue(generator.getRoundTrips().getCount() > 0, "Some moves should be made");
+                assertTrue(generator.report(0.3).contains("Errors: 0 rejected moves, 0 unexpected replies, 0 connection errors, 0 policy failures"),
+                        generator.report(0.3));
+            }
+        }
+    }
+
+    @Test
+    public void testCountsPolicyFailures() throws IOException, InterruptedException {
+        for (int thinkers : new int[]{0, 2}) {
+            try (GameServer server = new GameServer(0)) {
+                server.start();
+                InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+                // Every other move fails, so the players keep playing between failures
+                AtomicInteger calls = new AtomicInteger();
+                Policy greedy = Policy.named("greedy", 3).get();
+                LoadGenerator generator = new LoadGenerator(address, 4, 3, 0, () -> (state, moves, count, random) -> {
+                    if (calls.incrementAndGet() % 2 == 0) {
+                        throw new IllegalArgumentException("Policy broke");
+                    }
+                    return greedy.chooseMove(state, moves, count, random);
+                }, thinkers);
+                generator.run(500);
+                String report = generator.report(0.5);
+                assertTrue(generator.getRoundTrips().getCount() > 0, "The players should keep playing after a failure");
+                assertTrue(report.contains(" 0 connection errors, "), report);
+                assertFalse(report.contains(" 0 policy failures"), report);
+            }
+        }
+    }
+
+    @Test
+    public void testCountsConnectionErrors() throws IOException, InterruptedException {
+        InetSocketAddress address;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), socket.getLocalPort());
+        }
+        // Nothing listens on the port any more
+        LoadGenerator generator = new LoadGenerator(address, 2, 3, 0, Policy.named("random", 3));
+        generator.run(150);
+        assertEquals(0, generator.getRoundTrips().getCount());
+        assertFalse(generator.report(0.15).contains(" 0 connection errors"), generator.report(0.15));
+    }
+}
@@ -0,0 +1,122 @@
+package game.sim;
+
+import game.GameState;
+import game.Moves;
+import game.solver.Tablebase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelfPlaySimulatorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testCountsAddUp() throws InterruptedException {
+        for (int threads = 1; threads <= 3; threads++) {
+            SimulationStats stats = new SelfPlaySimulator(4, RandomPolicy::new, GreedyPolicy::new, threads, 27).run(200);
+            assertEquals(200, stats.getGames(), "Every game should be played once with " + threads + " threads");
+            long[] histogram = stats.getLengthHistogram();
+            assertEquals(stats.getGames(), Arrays.stream(histogram).sum(), "The histogram should count every game");
+            long moves = 0;
+            long oddGames = 0;
+            for (int length = 0; length < histogram.length; length++) {
+                moves += length * histogram[length];
+                if (length % 2 == 1) {
+                    oddGames += histogram[length];
+                }
+            }
+            assertEquals(stats.getTotalMoves(), moves, "The histogram should add up to the total moves");
+            // The player who makes the last move wins, and Player One makes the odd moves
+            assertEquals(oddGames, stats.getPlayerOneWins(), "Player One should win exactly the games of odd length");
+            assertEquals(0, histogram[0], "No game ends without a move");
+        }
+    }
+
+    @Test
+    public void testSameSeedSameResults() throws InterruptedException {
+        String first = new SelfPlaySimulator(4, RandomPolicy::new, RandomPolicy::new, 2, 28).run(300).report(100);
+        String second = new SelfPlaySimulator(4, RandomPolicy::new, RandomPolicy::new, 2, 28).run(300).report(100);
+        assertEquals(first, second, "A seeded simulation should be deterministic");
+    }
+
+    @Test
+    public void testPerfectPlayersWin() throws InterruptedException, IOException {
+        // Player One wins odd boards and Player Two wins even boards
+        SimulationStats solver = new SelfPlaySimulator(3, () -> new SolverPolicy(3), RandomPolicy::new, 2, 29).run(50);
+        assertEquals(50, solver.getPlayerOneWins(), "The solver should win every game as Player One on 3x3");
+        solver = new SelfPlaySimulator(4, RandomPolicy::new, () -> new SolverPolicy(4), 2, 29).run(50);
+        assertEquals(0, solver.getPlayerOneWins(), "The solver should win every game as Player Two on 4x4");
+
+        Path file = directory.resolve("tablebase-3.bin");
+        Tablebase.generate(3, file);
+        Tablebase tablebase = Tablebase.open(file);
+        SimulationStats table = new SelfPlaySimulator(3, () -> new TablebasePolicy(tablebase), GreedyPolicy::new, 2, 30).run(50);
+        assertEquals(50, table.getPlayerOneWins(), "The tablebase should win every game as Player One on 3x3");
+    }
+
+    @Test
+    public void testPoliciesChooseLegalMoves() throws IOException {
+        Path file = directory.resolve("tablebase-4.bin");
+        Tablebase.generate(4, file);
+        Tablebase tablebase = Tablebase.open(file);
+        assertLegalMoves(RandomPolicy::new, 31);
+        assertLegalMoves(GreedyPolicy::new, 32);
+        assertLegalMoves(() -> new SolverPolicy(4), 33);
+        assertLegalMoves(() -> new TablebasePolicy(tablebase), 34);
+    }
+
+    @Test
+    public void testGreedyTakesLongestMove() {
+        GameState state = new GameState(4);
+        state.makeMove(Moves.pack(0, 0, 0, 3));
+        int[] moves = new int[state.maxMoveCount()];
+        int count = state.generateMoves(moves);
+        SplittableRandom random = new SplittableRandom(35);
+        for (int i = 0; i < 20; i++) {
+            int move = new GreedyPolicy().chooseMove(state, moves, count, random);
+            assertEquals(4, Moves.length(move), "Greedy should take a full row or column");
+        }
+    }
+
+    @Test
+    public void testNamedPolicies() {
+        for (String name : new String[] {"random", "greedy", "solver", "mcts", "alphabeta"}) {
+            assertNotNull(Policy.named(name, 3).get(), name);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Policy.named("minimax", 3));
+        assertThrows(IllegalArgumentException.class, () -> Policy.named("", 3));
+    }
+
+    /**
+     * Plays games with a policy choosing the moves of both players, checking that
+     * every move it chooses is one of the legal moves it was given.
+     */
+    private static void assertLegalMoves(Supplier<Policy> factory, long seed) {
+        Policy policy = factory.get();
+        SplittableRandom random = new SplittableRandom(seed);
+        GameState state = new GameState(4);
+        int[] moves = new int[state.maxMoveCount()];
+        for (int game = 0; game < 20; game++) {
+            state.resetBoard();
+            while (!state.isGameOver()) {
+                int count = state.generateMoves(moves);
+                int move = policy.chooseMove(state, moves, count, random);
+                boolean listed = false;
+                for (int i = 0; i < count; i++) {
+                    listed |= moves[i] == move;
+                }
+                assertTrue(listed, "The chosen move should be one of the legal moves\n" + state);
+                state.makeMove(move);
+            }
+        }
+    }
+}
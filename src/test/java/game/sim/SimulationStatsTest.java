@@ -0,0 +1,75 @@
+package game.sim;
+
+import game.Moves;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationStatsTest {
+
+    @Test
+    public void testRecordCounts() {
+        SimulationStats stats = new SimulationStats();
+        assertEquals(0, stats.getPlayerOneWinRate(), "No games should give a win rate of 0");
+        stats.record(Moves.pack(0, 0, 0, 1), 3, true);
+        stats.record(Moves.pack(0, 0, 0, 1), 4, false);
+        stats.record(Moves.pack(1, 1, 1, 1), 3, true);
+
+        assertEquals(3, stats.getGames());
+        assertEquals(2, stats.getPlayerOneWins());
+        assertEquals(10, stats.getTotalMoves());
+        assertEquals(2.0 / 3, stats.getPlayerOneWinRate(), 1e-9);
+        long[] histogram = stats.getLengthHistogram();
+        assertEquals(2, histogram[3]);
+        assertEquals(1, histogram[4]);
+        histogram[3] = 0;
+        assertEquals(2, stats.getLengthHistogram()[3], "The histogram should be returned as a copy");
+    }
+
+    @Test
+    public void testHistogramGrows() {
+        SimulationStats stats = new SimulationStats();
+        stats.record(Moves.pack(0, 0, 0, 0), 100, false);
+        stats.record(Moves.pack(0, 0, 0, 0), 1, true);
+        long[] histogram = stats.getLengthHistogram();
+        assertTrue(histogram.length > 100);
+        assertEquals(1, histogram[100]);
+        assertEquals(1, histogram[1]);
+        assertTrue(stats.report(5).contains(" 100 "), "The report should list long games");
+    }
+
+    @Test
+    public void testMergeEqualsRecordingTogether() {
+        Random random = new Random(26);
+        SimulationStats all = new SimulationStats();
+        SimulationStats[] parts = {new SimulationStats(), new SimulationStats(), new SimulationStats()};
+        for (int i = 0; i < 300; i++) {
+            int firstMove = Moves.pack(random.nextInt(3), random.nextInt(3), random.nextInt(3), random.nextInt(3));
+            // Some lengths are past the initial histogram, so merging must grow it
+            int length = 1 + random.nextInt(i % 3 == 2 ? 40 : 10);
+            boolean playerOneWon = length % 2 == 1;
+            all.record(firstMove, length, playerOneWon);
+            parts[i % 3].record(firstMove, length, playerOneWon);
+        }
+        SimulationStats merged = new SimulationStats();
+        for (SimulationStats part : parts) {
+            merged.merge(part);
+        }
+        assertEquals(all.getGames(), merged.getGames());
+        assertEquals(all.getPlayerOneWins(), merged.getPlayerOneWins());
+        assertEquals(all.getTotalMoves(), merged.getTotalMoves());
+        assertArrayEquals(all.getLengthHistogram(), merged.getLengthHistogram());
+        // First moves with equal counts may be listed in any order
+        assertEquals(sortedLines(all.report(1000)), sortedLines(merged.report(1000)));
+    }
+
+    /**
+     * Sorts the lines of a report, so that reports listing the same lines can be compared.
+     */
+    private static List<String> sortedLines(String report) {
+        return report.lines().sorted().toList();
+    }
+}
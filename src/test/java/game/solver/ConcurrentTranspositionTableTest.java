@@ -0,0 +1,86 @@
+package game.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTranspositionTableTest {
+
+    @Test
+    public void testPutAndGet() {
+        ConcurrentTranspositionTable table = new ConcurrentTranspositionTable(1 << 10);
+        assertEquals(ConcurrentTranspositionTable.ABSENT, table.get(42L));
+        table.put(42L, 1);
+        table.put(-1L, 0);
+        table.put(0L, Integer.MAX_VALUE);
+        assertEquals(1, table.get(42L));
+        assertEquals(0, table.get(-1L));
+        assertEquals(Integer.MAX_VALUE, table.get(0L));
+        table.put(42L, 7);
+        assertEquals(7, table.get(42L), "A newer value should replace the older one");
+    }
+
+    @Test
+    public void testCapacity() {
+        assertEquals(16, new ConcurrentTranspositionTable(1).capacity());
+        assertEquals(1024, new ConcurrentTranspositionTable(1000).capacity());
+        assertEquals(1024, new ConcurrentTranspositionTable(1024).capacity());
+    }
+
+    @Test
+    public void testRejectsNegativeValues() {
+        ConcurrentTranspositionTable table = new ConcurrentTranspositionTable();
+        assertThrows(IllegalArgumentException.class, () -> table.put(1L, -1));
+    }
+
+    @Test
+    public void testCollidingKeysMiss() {
+        // With 16 slots, most of these keys share a slot with another one
+        ConcurrentTranspositionTable table = new ConcurrentTranspositionTable(16);
+        for (long key = 0; key < 1000; key++) {
+            table.put(key, (int) (key % 3));
+        }
+        for (long key = 0; key < 1000; key++) {
+            int value = table.get(key);
+            assertTrue(value == ConcurrentTranspositionTable.ABSENT || value == key % 3, "key " + key);
+        }
+    }
+
+    @Test
+    public void testConcurrentWritersNeverMixEntries() throws Exception {
+        // Keys that differ only in their lowest bits, with the win/loss values
+        // of the solvers, which a check against the value alone would confuse
+        ConcurrentTranspositionTable table = new ConcurrentTranspositionTable(16);
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 1_000_000; i++) {
+                        long key = random.nextInt(64);
+                        if (random.nextBoolean()) {
+                            table.put(key, valueOf(key));
+                        } else {
+                            int value = table.get(key);
+                            assertTrue(value == ConcurrentTranspositionTable.ABSENT || value == valueOf(key), "key " + key);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    private static int valueOf(long key) {
+        return Long.bitCount(key) & 1;
+    }
+}
@@ -0,0 +1,111 @@
+package game.solver;
+
+import game.Bitboards;
+import game.GameState;
+import game.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrundyAnalyzerTest {
+
+    @Test
+    public void testAllPositionsMatchSolver() {
+        GrundyAnalyzer analyzer = new GrundyAnalyzer();
+        for (int size = 1; size <= 4; size++) {
+            Solver solver = new Solver(size);
+            for (long stones = 0; stones <= Bitboards.fullMask(size); stones++) {
+                GameState state = toState(stones, size);
+                assertEquals(Optional.of(solver.isWin(stones)), analyzer.isWin(state),
+                        size + "x" + size + "\n" + Bitboards.toString(stones, size));
+            }
+        }
+    }
+
+    @Test
+    public void testRandomPositionsMatchSolver() {
+        GrundyAnalyzer analyzer = new GrundyAnalyzer();
+        Solver solver = new Solver(5);
+        Random random = new Random(6);
+        for (int i = 0; i < 2000; i++) {
+            // Sparse boards break up into several components
+            long stones = random.nextLong() & random.nextLong() & Bitboards.fullMask(5);
+            assertEquals(Optional.of(solver.isWin(stones)), analyzer.isWin(toState(stones, 5)),
+                    Bitboards.toString(stones, 5));
+        }
+    }
+
+    @Test
+    public void testWinningMoveLeavesZero() {
+        GrundyAnalyzer analyzer = new GrundyAnalyzer();
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            GameState state = toState(random.nextLong() & random.nextLong() & Bitboards.fullMask(6), 6);
+            Optional<Move> move = analyzer.findWinningMove(state);
+            assertEquals(analyzer.isWin(state).orElseThrow(), move.isPresent());
+            if (move.isPresent()) {
+                assertTrue(state.isLegalMove(move.get().from(), move.get().to()));
+                state.makeMove(move.get().from(), move.get().to());
+                assertEquals(OptionalInt.of(0), analyzer.grundyValue(state), "The opponent should be left in a lost position");
+            }
+        }
+    }
+
+    @Test
+    public void testSingleRun() {
+        GrundyAnalyzer analyzer = new GrundyAnalyzer();
+        GameState state = new GameState(1, 7);
+        assertEquals(OptionalInt.of(7), analyzer.grundyValue(state), "A run of k stones has Grundy value k");
+    }
+
+    @Test
+    public void testSmallComponentsOnLargeBoard() {
+        // Two groups far apart on a 12x12 board combine as the XOR of their values
+        GameState board = new GameState(12);
+        GameState first = new GameState(3);
+        GameState second = new GameState(4);
+        for (int row = 0; row < 12; row++) {
+            for (int col = 0; col < 12; col++) {
+                boolean inFirst = row < 3 && col < 3;
+                boolean inSecond = row >= 8 && col >= 8;
+                if (!inFirst && !inSecond) {
+                    board.makeMove(new Position(row, col), new Position(row, col));
+                }
+            }
+        }
+        first.makeMove(new Position(1, 1), new Position(1, 1));
+        board.makeMove(new Position(1, 1), new Position(1, 1));
+        GrundyAnalyzer analyzer = new GrundyAnalyzer();
+        int expected = analyzer.grundyValue(first).orElseThrow() ^ analyzer.grundyValue(second).orElseThrow();
+        assertEquals(OptionalInt.of(expected), analyzer.grundyValue(board));
+    }
+
+    @Test
+    public void testLargeComponentIsUnknown() {
+        GrundyAnalyzer analyzer = new GrundyAnalyzer();
+        GameState state = new GameState(9);
+        assertEquals(OptionalInt.empty(), analyzer.grundyValue(state));
+        assertEquals(Optional.empty(), analyzer.isWin(state));
+        assertEquals(Optional.empty(), analyzer.findWinningMove(state));
+        assertEquals(Optional.empty(), analyzer.isWin(new GameState(1, 9)), "Nine stones in a row do not fit the frame");
+    }
+
+    /**
+     * Builds a state with the stones of a bitboard by removing the other cells one by one.
+     */
+    private static GameState toState(long stones, int size) {
+        GameState state = new GameState(size);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if ((stones >>> Bitboards.index(size, row, col) & 1) == 0) {
+                    state.makeMove(new Position(row, col), new Position(row, col));
+                }
+            }
+        }
+        return state;
+    }
+}
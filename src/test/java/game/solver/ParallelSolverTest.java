@@ -0,0 +1,86 @@
+package game.solver;
+
+import game.Bitboards;
+import game.GameState;
+import game.Position;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSolverTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    public static void createPool() {
+        // More threads than cores, so tasks are stolen and cancelled even on small machines
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    public static void closePool() {
+        pool.close();
+    }
+
+    @Test
+    public void testAllPositionsMatchSolver() {
+        for (int size = 1; size <= 4; size++) {
+            Solver solver = new Solver(size);
+            ParallelSolver parallel = new ParallelSolver(size, pool, 3, new ConcurrentTranspositionTable(1 << 12));
+            for (long stones = 0; stones <= Bitboards.fullMask(size); stones++) {
+                assertEquals(solver.isWin(stones), parallel.isWin(stones),
+                        size + "x" + size + "\n" + Bitboards.toString(stones, size));
+            }
+        }
+    }
+
+    @Test
+    public void testRandomPositionsMatchSolver() {
+        Solver solver = new Solver(5);
+        // A table smaller than the number of positions forces slots to be overwritten during the search
+        ParallelSolver parallel = new ParallelSolver(5, pool, 2, new ConcurrentTranspositionTable(1 << 16));
+        Random random = new Random(8);
+        for (int i = 0; i < 50; i++) {
+            long stones = random.nextLong() & Bitboards.fullMask(5);
+            assertEquals(solver.isWin(stones), parallel.isWin(stones), Bitboards.toString(stones, 5));
+        }
+        assertEquals(solver.isWin(Bitboards.fullMask(5)), parallel.isWin(Bitboards.fullMask(5)));
+    }
+
+    @Test
+    public void testFindWinningMove() {
+        ParallelSolver parallel = new ParallelSolver(5, pool, 3, new ConcurrentTranspositionTable());
+        GameState state = new GameState(5);
+        Optional<Move> move = parallel.findWinningMove(state);
+        assertTrue(move.isPresent(), "The 5x5 opening is a win for the first player");
+        assertTrue(state.isLegalMove(move.get().from(), move.get().to()));
+        state.makeMove(move.get().from(), move.get().to());
+        assertFalse(parallel.isWin(state));
+        assertEquals(Optional.empty(), parallel.findWinningMove(state));
+    }
+
+    @Test
+    public void testMirrorStrategy() {
+        ParallelSolver parallel = new ParallelSolver(8, pool, 3, new ConcurrentTranspositionTable());
+        GameState state = new GameState(8);
+        assertEquals(Optional.empty(), parallel.findWinningMove(state), "The opening of an even board is lost");
+        state.makeMove(new Position(2, 2), new Position(5, 2));
+        assertEquals(Optional.of(new Move(new Position(2, 5), new Position(5, 5))), parallel.findWinningMove(state));
+    }
+
+    @Test
+    public void testRejectsOtherSizes() {
+        ParallelSolver parallel = new ParallelSolver(3, pool, 1, new ConcurrentTranspositionTable());
+        assertThrows(IllegalArgumentException.class, () -> parallel.isWin(new GameState(4)));
+        assertThrows(IllegalArgumentException.class, () -> parallel.findWinningMove(new GameState(3, 2)));
+        GameState state = new GameState(3);
+        state.makeMove(new Position(1, 0), new Position(1, 2));
+        assertEquals(new Solver(3).isWin(state), parallel.isWin(state));
+    }
+}
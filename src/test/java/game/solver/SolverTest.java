@@ -0,0 +1,129 @@
+package game.solver;
+
+import game.Bitboards;
+import game.GameState;
+import game.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverTest {
+
+    @Test
+    public void testSmallOpenings() {
+        assertTrue(new Solver(1).isWin(new GameState(1)), "Taking the only stone should win");
+        assertFalse(new Solver(1).isWin(0L), "The player facing an empty board has lost");
+        // On even boards the second player mirrors every move through the center
+        assertFalse(new Solver(2).isWin(new GameState(2)));
+        assertFalse(new Solver(4).isWin(new GameState(4)));
+    }
+
+    @Test
+    public void testAllPositionsMatchBruteForce() {
+        for (int size = 1; size <= 4; size++) {
+            Solver solver = new Solver(size);
+            Map<Long, Boolean> memo = new HashMap<>();
+            for (long stones = 0; stones <= Bitboards.fullMask(size); stones++) {
+                assertEquals(bruteForceWin(stones, size, memo), solver.isWin(stones),
+                        size + "x" + size + "\n" + Bitboards.toString(stones, size));
+            }
+        }
+    }
+
+    @Test
+    public void testWinningMoveLeavesLostPosition() {
+        Solver solver = new Solver(4);
+        for (long stones = 1; stones <= Bitboards.fullMask(4); stones += 7) {
+            long segment = solver.findWinningSegment(stones);
+            if (solver.isWin(stones)) {
+                assertEquals(segment, stones & segment, "The winning move should remove stones that are on the board");
+                assertFalse(solver.isWin(stones ^ segment), "The opponent should be left in a lost position");
+            } else {
+                assertEquals(0L, segment, "A lost position has no winning move");
+            }
+        }
+    }
+
+    @Test
+    public void testFindWinningMoveIsLegal() {
+        GameState state = new GameState(4);
+        state.makeMove(new Position(0, 0), new Position(0, 2));
+        Solver solver = new Solver(4);
+        Optional<Move> move = solver.findWinningMove(state);
+        assertEquals(solver.isWin(state), move.isPresent());
+        move.ifPresent(m -> {
+            assertTrue(state.isLegalMove(m.from(), m.to()));
+            state.makeMove(m.from(), m.to());
+            assertFalse(solver.isWin(state));
+        });
+    }
+
+    @Test
+    public void testMirrorStrategyOnLargeEvenBoards() {
+        for (int size = 6; size <= Bitboards.MAX_SIZE; size += 2) {
+            Solver solver = new Solver(size);
+            GameState state = new GameState(size);
+            assertFalse(solver.isWin(state), "The opening of an even board is lost");
+            state.makeMove(new Position(0, 1), new Position(0, 3));
+            Optional<Move> move = solver.findWinningMove(state);
+            assertEquals(Optional.of(new Move(new Position(size - 1, size - 4), new Position(size - 1, size - 2))), move,
+                    "The mirrored move should restore the symmetry");
+            state.makeMove(move.get().from(), move.get().to());
+            assertFalse(solver.isWin(state));
+        }
+    }
+
+    @Test
+    public void testMirrorStrategyMatchesSearch() {
+        // On 4x4 every position is also searched, so compare the decided ones with the brute force
+        MirrorStrategy mirror = new MirrorStrategy(new Symmetry(4), Solver.createSegments(4));
+        Map<Long, Boolean> memo = new HashMap<>();
+        for (long stones = 0; stones <= Bitboards.fullMask(4); stones++) {
+            long unmatched = mirror.unmatched(stones);
+            if (unmatched == 0L) {
+                assertFalse(bruteForceWin(stones, 4, memo), Bitboards.toString(stones, 4));
+            } else if (mirror.isSegment(unmatched)) {
+                assertTrue(bruteForceWin(stones, 4, memo), Bitboards.toString(stones, 4));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new MirrorStrategy(new Symmetry(5), Solver.createSegments(5)));
+    }
+
+    @Test
+    public void testRejectsOtherSizes() {
+        Solver solver = new Solver(3);
+        assertThrows(IllegalArgumentException.class, () -> solver.isWin(new GameState(4)));
+        assertThrows(IllegalArgumentException.class, () -> solver.isWin(new GameState(3, 4)));
+        assertThrows(IllegalArgumentException.class, () -> new Solver(Bitboards.MAX_SIZE + 1));
+    }
+
+    /**
+     * Decides a position by trying every row and column segment cell by cell,
+     * without symmetry reduction, as a reference for the solvers.
+     */
+    static boolean bruteForceWin(long stones, int size, Map<Long, Boolean> memo) {
+        Boolean cached = memo.get(stones);
+        if (cached != null) {
+            return cached;
+        }
+        boolean win = false;
+        for (int line = 0; line < size && !win; line++) {
+            for (int start = 0; start < size && !win; start++) {
+                long row = 0L;
+                long col = 0L;
+                for (int end = start; end < size && !win; end++) {
+                    row |= 1L << Bitboards.index(size, line, end);
+                    col |= 1L << Bitboards.index(size, end, line);
+                    win = (stones & row) == row && !bruteForceWin(stones ^ row, size, memo)
+                            || (stones & col) == col && !bruteForceWin(stones ^ col, size, memo);
+                }
+            }
+        }
+        memo.put(stones, win);
+        return win;
+    }
+}
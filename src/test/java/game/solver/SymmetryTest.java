@@ -0,0 +1,123 @@
+package game.solver;
+
+import game.Bitboards;
+import game.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymmetryTest {
+
+    @Test
+    public void testIdentity() {
+        Symmetry symmetry = new Symmetry(5);
+        Random random = new Random(3);
+        for (int i = 0; i < 100; i++) {
+            long stones = random.nextLong() & Bitboards.fullMask(5);
+            assertEquals(stones, symmetry.transform(stones, 0));
+        }
+    }
+
+    @Test
+    public void testTransformMatchesCellMapping() {
+        Random random = new Random(4);
+        for (int size = 1; size <= Bitboards.MAX_SIZE; size++) {
+            Symmetry symmetry = new Symmetry(size);
+            for (int t = 0; t < Symmetry.COUNT; t++) {
+                for (int i = 0; i < 20; i++) {
+                    long stones = random.nextLong() & Bitboards.fullMask(size);
+                    long expected = 0L;
+                    for (int row = 0; row < size; row++) {
+                        for (int col = 0; col < size; col++) {
+                            if ((stones >>> Bitboards.index(size, row, col) & 1) != 0) {
+                                Position image = symmetry.transform(new Position(row, col), t);
+                                expected |= 1L << Bitboards.index(size, image.row(), image.col());
+                            }
+                        }
+                    }
+                    assertEquals(expected, symmetry.transform(stones, t), "size " + size + ", transform " + t);
+                    assertEquals(Long.bitCount(stones), Long.bitCount(expected), "Transforms should keep the number of stones");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTransformsAreTheEightSymmetries() {
+        // An asymmetric shape has eight distinct images
+        Symmetry symmetry = new Symmetry(4);
+        long shape = Bitboards.rowSegmentMask(4, 0, 0, 2) | 1L << Bitboards.index(4, 1, 0);
+        Set<Long> images = new HashSet<>();
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            images.add(symmetry.transform(shape, t));
+        }
+        assertEquals(Symmetry.COUNT, images.size());
+    }
+
+    @Test
+    public void testCanonicalFormIsSharedBySymmetricPositions() {
+        Random random = new Random(5);
+        for (int size = 1; size <= Bitboards.MAX_SIZE; size++) {
+            Symmetry symmetry = new Symmetry(size);
+            for (int i = 0; i < 50; i++) {
+                long stones = random.nextLong() & Bitboards.fullMask(size);
+                long canonical = symmetry.canonical(stones);
+                for (int t = 0; t < Symmetry.COUNT; t++) {
+                    long image = symmetry.transform(stones, t);
+                    assertEquals(canonical, symmetry.canonical(image), "All images should share the canonical form");
+                    assertTrue(Long.compareUnsigned(canonical, image) <= 0, "The canonical form should be the smallest image");
+                }
+                assertEquals(canonical, symmetry.transform(stones, symmetry.canonicalTransform(stones)));
+            }
+        }
+    }
+
+    @Test
+    public void testCanonicalFormOfFullBoard() {
+        // Unsigned comparison matters on 8x8, where the full board sets the sign bit
+        Symmetry symmetry = new Symmetry(8);
+        assertEquals(-1L, symmetry.canonical(-1L));
+        assertEquals(0L, symmetry.canonical(0L));
+    }
+
+    @Test
+    public void testToOriginalInvertsTransform() {
+        for (int size = 1; size <= Bitboards.MAX_SIZE; size++) {
+            Symmetry symmetry = new Symmetry(size);
+            for (int t = 0; t < Symmetry.COUNT; t++) {
+                for (int row = 0; row < size; row++) {
+                    for (int col = 0; col < size; col++) {
+                        Position p = new Position(row, col);
+                        assertEquals(p, symmetry.toOriginal(symmetry.transform(p, t), t));
+                    }
+                }
+                Move move = new Move(new Position(0, 0), new Position(0, size - 1));
+                Move image = new Move(symmetry.transform(move.from(), t), symmetry.transform(move.to(), t));
+                assertEquals(move, symmetry.toOriginal(image, t));
+            }
+        }
+    }
+
+    @Test
+    public void testSegmentsMapToSegments() {
+        Symmetry symmetry = new Symmetry(5);
+        Set<Long> all = new HashSet<>();
+        for (int line = 0; line < 5; line++) {
+            for (int start = 0; start < 5; start++) {
+                for (int end = start; end < 5; end++) {
+                    all.add(Bitboards.rowSegmentMask(5, line, start, end));
+                    all.add(Bitboards.columnSegmentMask(5, line, start, end));
+                }
+            }
+        }
+        for (long segment : all) {
+            for (int t = 0; t < Symmetry.COUNT; t++) {
+                assertTrue(all.contains(symmetry.transform(segment, t)), "Segments should map onto segments");
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package game.solver;
+
+import game.Bitboards;
+import game.GameState;
+import game.Position;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablebaseTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testAllPositionsMatchSolvers() throws IOException {
+        try (ForkJoinPool pool = new ForkJoinPool(2)) {
+            for (int size = 1; size <= 4; size++) {
+                Tablebase tablebase = generate(size);
+                Solver solver = new Solver(size);
+                ParallelSolver parallel = new ParallelSolver(size, pool, 2, new ConcurrentTranspositionTable(1 << 12));
+                for (long stones = 0; stones <= Bitboards.fullMask(size); stones++) {
+                    boolean win = solver.isWin(stones);
+                    String message = size + "x" + size + "\n" + Bitboards.toString(stones, size);
+                    assertEquals(win, tablebase.isWin(stones), message);
+                    assertEquals(win, parallel.isWin(stones), message);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDistances() throws IOException {
+        Tablebase tablebase = generate(3);
+        long[] segments = Solver.createSegments(3);
+        assertEquals(0, tablebase.distance(0L), "The empty board has no plies left");
+        for (long stones = 1; stones <= Bitboards.fullMask(3); stones++) {
+            boolean win = tablebase.isWin(stones);
+            int distance = tablebase.distance(stones);
+            int best = win ? Integer.MAX_VALUE : 0;
+            for (long segment : segments) {
+                if ((stones & segment) == segment) {
+                    long child = stones ^ segment;
+                    if (!win) {
+                        assertTrue(tablebase.isWin(child), "Every move of a lost position leaves a win");
+                        best = Math.max(best, tablebase.distance(child));
+                    } else if (!tablebase.isWin(child)) {
+                        best = Math.min(best, tablebase.distance(child));
+                    }
+                }
+            }
+            assertEquals(best + 1, distance, Bitboards.toString(stones, 3));
+        }
+    }
+
+    @Test
+    public void testBestMove() throws IOException {
+        Tablebase tablebase = generate(4);
+        for (long stones = 1; stones <= Bitboards.fullMask(4); stones += 37) {
+            GameState state = toState(stones, 4);
+            Move move = tablebase.bestMove(state).orElseThrow();
+            assertTrue(state.isLegalMove(move.from(), move.to()));
+            boolean win = tablebase.isWin(state);
+            int distance = tablebase.distance(stones);
+            state.makeMove(move.from(), move.to());
+            assertNotEquals(win, tablebase.isWin(state), "The best move should hand the opponent the other result");
+            assertEquals(distance - 1, tablebase.distance(Bitboards.fromBoard(state.getBoard())));
+        }
+        assertEquals(Optional.empty(), tablebase.bestMove(toState(0L, 4)));
+    }
+
+    @Test
+    public void testOpening() throws IOException {
+        Tablebase tablebase = generate(4);
+        assertEquals(4, tablebase.getSize());
+        assertFalse(tablebase.isWin(new GameState(4)), "The 4x4 opening is lost by the mirror strategy");
+        GameState state = new GameState(4);
+        state.makeMove(new Position(0, 1), new Position(0, 2));
+        assertTrue(tablebase.isWin(state));
+        assertThrows(IllegalArgumentException.class, () -> tablebase.isWin(new GameState(3)));
+        assertThrows(IllegalArgumentException.class, () -> tablebase.bestMove(new GameState(4, 3)));
+    }
+
+    @Test
+    public void testRejectsInvalidFiles() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> Tablebase.generate(Tablebase.MAX_SIZE + 1, directory.resolve("x")));
+        assertThrows(IllegalArgumentException.class, () -> Tablebase.generate(0, directory.resolve("x")));
+
+        Path garbage = directory.resolve("garbage.bin");
+        Files.write(garbage, new byte[64]);
+        assertThrows(IOException.class, () -> Tablebase.open(garbage));
+
+        Path file = directory.resolve("truncated.bin");
+        Tablebase.generate(3, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> Tablebase.open(file));
+    }
+
+    private Tablebase generate(int size) throws IOException {
+        Path file = directory.resolve("tablebase-" + size + ".bin");
+        Tablebase.generate(size, file);
+        return Tablebase.open(file);
+    }
+
+    /**
+     * Builds a state with the stones of a bitboard by removing the other cells one by one.
+     */
+    private static GameState toState(long stones, int size) {
+        GameState state = new GameState(size);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if ((stones >>> Bitboards.index(size, row, col) & 1) == 0) {
+                    state.makeMove(new Position(row, col), new Position(row, col));
+                }
+            }
+        }
+        return state;
+    }
+}